@@ -0,0 +1,72 @@
+package eu.daxiongmao.core.api;
+
+import eu.daxiongmao.core.model.exception.UnauthorizedException;
+import lombok.extern.log4j.Log4j2;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * Guard of the administration web-services (/v1/admin/**): write operations on parameters, labels, etc.<br>
+ * Each request must give the administration key in the {@link #API_KEY_HEADER} header. Without configured key,
+ * administration web-services are disabled: all requests are refused.
+ * <p>Keys are compared through their SHA-256 digest, in constant time: response time does not tell how much of the key is right.</p>
+ * @author Guillaume Diaz
+ * @version 1.0
+ * @since 2020/04
+ */
+@Component
+@Log4j2
+public class AdminAccessInterceptor implements HandlerInterceptor {
+
+    /** Request header that contains the administration key */
+    public static final String API_KEY_HEADER = "X-Api-Key";
+
+    /** Path of the administration web-services */
+    public static final String ADMIN_PATH_PATTERN = "/v1/admin/**";
+
+    /** Digest of the expected key, NULL if administration web-services are disabled */
+    private final byte[] apiKeyDigest;
+
+    /**
+     * New guard
+     * @param apiKey administration key. Blank to disable administration web-services
+     */
+    public AdminAccessInterceptor(@Value("${app.admin.api-key:}") final String apiKey) {
+        if (StringUtils.isBlank(apiKey)) {
+            log.warn("No administration key configured (app.admin.api-key): administration web-services are disabled");
+            this.apiKeyDigest = null;
+        } else {
+            this.apiKeyDigest = digest(apiKey.trim());
+        }
+    }
+
+    @Override
+    public boolean preHandle(final HttpServletRequest request, final HttpServletResponse response, final Object handler) {
+        final String givenKey = request.getHeader(API_KEY_HEADER);
+        if (apiKeyDigest == null || StringUtils.isBlank(givenKey) || !MessageDigest.isEqual(apiKeyDigest, digest(givenKey.trim()))) {
+            log.warn("Access denied|Administration request {} {} from {} without valid key", request.getMethod(), request.getRequestURI(), request.getRemoteAddr());
+            throw new UnauthorizedException("This operation is restricted to administrators. Please contact our support.");
+        }
+        return true;
+    }
+
+    /**
+     * @param key key to hash
+     * @return SHA-256 digest of the key
+     */
+    private static byte[] digest(final String key) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(key.getBytes(StandardCharsets.UTF_8));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
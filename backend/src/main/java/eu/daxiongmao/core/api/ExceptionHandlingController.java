@@ -3,7 +3,10 @@ package eu.daxiongmao.core.api;
 import eu.daxiongmao.core.api.error.ApiError;
 import eu.daxiongmao.core.api.error.ApiErrorCodesEnum;
 import eu.daxiongmao.core.business.LabelService;
+import eu.daxiongmao.core.business.ParameterService;
 import eu.daxiongmao.core.model.enums.AppLang;
+import eu.daxiongmao.core.model.enums.param.TechnicalParam;
+import eu.daxiongmao.core.model.exception.ConflictException;
 import eu.daxiongmao.core.model.exception.UnauthorizedException;
 import lombok.RequiredArgsConstructor;
 import org.springframework.core.Ordered;
@@ -12,6 +15,7 @@ import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
@@ -19,6 +23,7 @@ import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.servlet.NoHandlerFoundException;
 import org.springframework.web.servlet.mvc.method.annotation.ResponseEntityExceptionHandler;
 
+import javax.annotation.PostConstruct;
 import javax.persistence.NoResultException;
 import javax.validation.ConstraintViolationException;
 import java.util.Optional;
@@ -36,6 +41,14 @@ import java.util.Optional;
 public class ExceptionHandlingController extends ResponseEntityExceptionHandler {
 
     private final LabelService labelService;
+    private final ParameterService parameterService;
+
+    @PostConstruct
+    public void setup() {
+        // Errors must not look up the configuration: follow its changes instead
+        parameterService.<Boolean>onChange(TechnicalParam.WEB_SERVICES_JSON_INCLUDE_STACKTRACE_ON_ERROR,
+                (includeStacktrace) -> ApiError.setIncludeStacktraceOnError(Boolean.TRUE.equals(includeStacktrace)));
+    }
 
     @ExceptionHandler(value = { Exception.class })
     public ResponseEntity<Object> handleAnyException(Exception ex, WebRequest request) {
@@ -90,6 +103,13 @@ public class ExceptionHandlingController extends ResponseEntityExceptionHandler
         throw ex;
     }
 
+    // HTTP 409
+
+    @ExceptionHandler({ ConflictException.class, ObjectOptimisticLockingFailureException.class })
+    protected ResponseEntity<Object> handleConflict(final RuntimeException ex, final WebRequest request) {
+        return buildResponseEntity(new ApiError(HttpStatus.CONFLICT, ApiErrorCodesEnum.HTTP_409_CONFLICT, ex), request);
+    }
+
 
     private ResponseEntity<Object> buildResponseEntity(ApiError apiError, WebRequest request) {
         // Get language
@@ -0,0 +1,220 @@
+package eu.daxiongmao.core.api;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import eu.daxiongmao.core.business.cache.BoundedCache;
+import lombok.extern.log4j.Log4j2;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.context.request.WebRequest;
+
+import javax.servlet.http.HttpServletResponse;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.function.Supplier;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Serialized JSON responses of read-mostly web-services, by content fingerprint.<br>
+ * As long as the content does not change, the response body is serialized (and compressed) only once: each request
+ * gets the same bytes, written as-is to the output stream, without Jackson nor compression work.
+ * <ul>
+ *     <li>Responses carry an ETag: a client that already has the current content gets HTTP 304</li>
+ *     <li>A gzip variant is prepared along with the plain one, and served to clients that accept it. It has its own ETag</li>
+ * </ul>
+ * Responses can also be prepared in advance, when their content changes, so that no request pays the serialization.
+ * @author Guillaume Diaz
+ * @version 1.4
+ * @since 2020/04
+ */
+@Component
+@Log4j2
+public class SerializedResponseCache {
+
+    /** Gzip content coding */
+    private static final String GZIP = "gzip";
+
+    /** Suffix of the gzip variant entity tag */
+    private static final String GZIP_ENTITY_TAG_SUFFIX = "-" + GZIP;
+
+    /** Below that size compression is not worth it: the plain body is always sent */
+    private static final int MIN_SIZE_TO_COMPRESS_IN_BYTES = 1024;
+
+    /** To serialize responses exactly like Spring MVC does */
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Serialized responses
+     * <ul>
+     *     <li>Key: response key, see {@link #getResponse(String, String, Supplier, WebRequest)}</li>
+     *     <li>Value: serialized response</li>
+     * </ul>
+     */
+    private final BoundedCache<String, SerializedResponse> responses;
+
+    /**
+     * New cache
+     * @param objectMapper application's JSON mapper
+     * @param maximumSizeInBytes maximum size of all serialized responses and their keys, in bytes. Least used responses are evicted first
+     */
+    public SerializedResponseCache(final ObjectMapper objectMapper,
+                                   @Value("${app.cache.responses.maximum-size-in-bytes:10485760}") final long maximumSizeInBytes) {
+        this.objectMapper = objectMapper;
+        // Keys are weighed too: small answers (ex: missing data) can be as large as their key
+        this.responses = new BoundedCache<>(maximumSizeInBytes, (key, response) -> key.length() + response.getSizeInBytes(), null);
+    }
+
+    /**
+     * To retrieve a JSON response
+     * @param key response key: what is returned, regardless of its content (ex: "parameters.getAll")
+     * @param contentHash fingerprint of the current content, NULL if the content cannot be cached
+     * @param body to retrieve the response body. Only called when the content changed
+     * @param request current request, to handle conditional requests and content coding
+     * @return response to send, or NULL if the client already has the current content (HTTP 304)
+     */
+    public ResponseEntity<byte[]> getResponse(final String key, final String contentHash, final Supplier<?> body, final WebRequest request) {
+        return getResponse(key, contentHash, null, body, request);
+    }
+
+    /**
+     * To retrieve a JSON response
+     * @param key response key: what is returned, regardless of its content (ex: "parameters.getAll")
+     * @param contentHash fingerprint of the current content, NULL if the content cannot be cached
+     * @param cacheControl "Cache-Control" header value, NULL to let clients decide
+     * @param body to retrieve the response body. Only called when the content changed
+     * @param request current request, to handle conditional requests and content coding
+     * @return response to send, or NULL if the client already has the current content (HTTP 304)
+     */
+    public ResponseEntity<byte[]> getResponse(final String key, final String contentHash, final String cacheControl,
+                                              final Supplier<?> body, final WebRequest request) {
+        if (contentHash == null) {
+            // Nothing to cache (ex: missing data)
+            return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(serialize(body.get()));
+        }
+        final SerializedResponse response = getSerializedResponse(key, contentHash, body);
+
+        // Strong validators must differ per content coding: the gzip variant has its own entity tag
+        final boolean gzip = response.gzipBody != null && acceptsGzip(request.getHeader(HttpHeaders.ACCEPT_ENCODING));
+        final String entityTag = gzip ? contentHash + GZIP_ENTITY_TAG_SUFFIX : contentHash;
+
+        // This also sets the ETag header
+        if (request.checkNotModified(entityTag)) {
+            if (request instanceof ServletWebRequest && ((ServletWebRequest) request).getResponse() != null) {
+                // HTTP 304 must carry the same caching headers as the full response
+                final HttpServletResponse servletResponse = ((ServletWebRequest) request).getResponse();
+                servletResponse.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+                if (cacheControl != null) {
+                    servletResponse.setHeader(HttpHeaders.CACHE_CONTROL, cacheControl);
+                }
+            }
+            return null;
+        }
+
+        final ResponseEntity.BodyBuilder builder = ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (cacheControl != null) {
+            builder.header(HttpHeaders.CACHE_CONTROL, cacheControl);
+        }
+        if (gzip) {
+            return builder.header(HttpHeaders.CONTENT_ENCODING, GZIP).body(response.gzipBody);
+        }
+        return builder.body(response.plainBody);
+    }
+
+    /**
+     * To serialize a response in advance, as soon as its content changed, instead of on the next request.
+     * Nothing is done if the current content is already serialized
+     * @param key response key, see {@link #getResponse(String, String, Supplier, WebRequest)}
+     * @param contentHash fingerprint of the new content
+     * @param body to retrieve the response body. Only called when the content changed
+     */
+    public void prepare(final String key, final String contentHash, final Supplier<?> body) {
+        getSerializedResponse(key, contentHash, body);
+    }
+
+    /**
+     * @param key response key
+     * @param contentHash fingerprint of the current content
+     * @param body to retrieve the response body. Only called when the content changed
+     * @return serialized response of the current content
+     */
+    private SerializedResponse getSerializedResponse(final String key, final String contentHash, final Supplier<?> body) {
+        SerializedResponse response = responses.get(key);
+        if (response == null || !response.contentHash.equals(contentHash)) {
+            // Content changed: serialize it once for all next requests
+            response = new SerializedResponse(contentHash, serialize(body.get()));
+            responses.put(key, response);
+            log.debug("Response {} serialized: {} bytes", key, response.getSizeInBytes());
+        }
+        return response;
+    }
+
+    /**
+     * @param body response body
+     * @return JSON
+     */
+    private byte[] serialize(final Object body) {
+        try {
+            return objectMapper.writeValueAsBytes(body);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize response", e);
+        }
+    }
+
+    /**
+     * @param acceptEncoding "Accept-Encoding" request header, can be NULL
+     * @return "true" if the client accepts gzip content coding
+     */
+    static boolean acceptsGzip(final String acceptEncoding) {
+        if (StringUtils.isBlank(acceptEncoding)) {
+            return false;
+        }
+        for (String coding : acceptEncoding.split(",")) {
+            final String[] codingParts = coding.split(";");
+            final String codingName = codingParts[0].trim();
+            if (GZIP.equalsIgnoreCase(codingName) || "*".equals(codingName)) {
+                // "q=0" means "not acceptable"
+                return codingParts.length < 2 || !codingParts[1].trim().matches("q=0(\\.0*)?");
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Serialized response: plain and compressed body of a given content
+     */
+    private static final class SerializedResponse {
+        private final String contentHash;
+        private final byte[] plainBody;
+        /** NULL if compression is not worth it */
+        private final byte[] gzipBody;
+
+        private SerializedResponse(final String contentHash, final byte[] plainBody) {
+            this.contentHash = contentHash;
+            this.plainBody = plainBody;
+            this.gzipBody = plainBody.length < MIN_SIZE_TO_COMPRESS_IN_BYTES ? null : gzip(plainBody);
+        }
+
+        private int getSizeInBytes() {
+            return plainBody.length + (gzipBody == null ? 0 : gzipBody.length);
+        }
+
+        private static byte[] gzip(final byte[] content) {
+            final ByteArrayOutputStream compressedContent = new ByteArrayOutputStream(content.length / 4);
+            try (GZIPOutputStream gzipStream = new GZIPOutputStream(compressedContent)) {
+                gzipStream.write(content);
+            } catch (IOException e) {
+                // In-memory streams do not fail
+                throw new UncheckedIOException(e);
+            }
+            return compressedContent.toByteArray();
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package eu.daxiongmao.core.api;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Web-services configuration
+ * @author Guillaume Diaz
+ * @version 1.0
+ * @since 2020/04
+ */
+@Configuration
+@RequiredArgsConstructor
+public class WebConfiguration implements WebMvcConfigurer {
+
+    private final AdminAccessInterceptor adminAccessInterceptor;
+
+    @Override
+    public void addInterceptors(final InterceptorRegistry registry) {
+        // Write operations are only available to administrators
+        registry.addInterceptor(adminAccessInterceptor).addPathPatterns(AdminAccessInterceptor.ADMIN_PATH_PATTERN);
+    }
+}
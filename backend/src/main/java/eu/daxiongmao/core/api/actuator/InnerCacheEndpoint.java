@@ -0,0 +1,81 @@
+package eu.daxiongmao.core.api.actuator;
+
+import eu.daxiongmao.core.business.cache.CacheStats;
+import eu.daxiongmao.core.business.cache.InnerCache;
+import eu.daxiongmao.core.business.cache.InnerCacheRegistry;
+import eu.daxiongmao.core.model.dto.InnerCacheStatsDTO;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Actuator endpoint to monitor inner caches (parameters, labels, etc.): hits, misses, loads, size and age.
+ * <ul>
+ *     <li>/actuator/innercaches: all caches</li>
+ *     <li>/actuator/innercaches/{name}: a single cache</li>
+ * </ul>
+ * @author Guillaume Diaz
+ * @version 1.0
+ * @since 2020/04
+ */
+@Component
+@Endpoint(id = "innercaches")
+@RequiredArgsConstructor
+public class InnerCacheEndpoint {
+
+    private final InnerCacheRegistry cacheRegistry;
+
+    /**
+     * @return statistics of all registered caches, by cache name
+     */
+    @ReadOperation
+    public Map<String, InnerCacheStatsDTO> caches() {
+        final Map<String, InnerCacheStatsDTO> stats = new TreeMap<>();
+        cacheRegistry.getCaches().forEach((cache) -> stats.put(cache.getName(), toDto(cache)));
+        return stats;
+    }
+
+    /**
+     * @param name cache name
+     * @return statistics of the given cache, or NULL (HTTP 404) if there is no such cache
+     */
+    @ReadOperation
+    public InnerCacheStatsDTO cache(@Selector final String name) {
+        return cacheRegistry.getCache(name).map(this::toDto).orElse(null);
+    }
+
+    /**
+     * @param cache cache to monitor
+     * @return current statistics
+     */
+    private InnerCacheStatsDTO toDto(final InnerCache<?, ?> cache) {
+        final CacheStats stats = cache.getStats();
+        final InnerCacheStatsDTO dto = new InnerCacheStatsDTO();
+        dto.setName(cache.getName());
+        dto.setLoadingMode(cache.getLoadingMode().name());
+        dto.setSize(cache.getSize());
+        dto.setSnapshotAgeInSeconds(cache.getLastRefreshAge().map(Duration::getSeconds).orElse(null));
+        dto.setLastLoadDurationInMs(cache.getLastLoadDuration().map(Duration::toMillis).orElse(null));
+        dto.setHitCount(stats.getHitCount());
+        dto.setNegativeHitCount(stats.getNegativeHitCount());
+        dto.setMissCount(stats.getMissCount());
+        final long nbOfLookups = dto.getHitCount() + dto.getNegativeHitCount() + dto.getMissCount();
+        if (nbOfLookups > 0) {
+            dto.setHitRatio((double) (dto.getHitCount() + dto.getNegativeHitCount()) / nbOfLookups);
+        }
+        dto.setLoadSuccessCount(stats.getLoadSuccessCount());
+        dto.setLoadFailureCount(stats.getLoadFailureCount());
+        dto.setTotalLoadTimeInMs(stats.getTotalLoadTimeInMs());
+        dto.setLoadLatencyHistogram(stats.getLoadLatencyHistogram());
+        dto.setEvictionCount(cache.getEvictionCount());
+        dto.setConsecutiveFailures(cache.getConsecutiveFailures());
+        dto.setCircuitOpen(cache.isCircuitOpen());
+        return dto;
+    }
+}
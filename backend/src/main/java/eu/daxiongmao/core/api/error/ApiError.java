@@ -2,8 +2,6 @@ package eu.daxiongmao.core.api.error;
 
 import com.fasterxml.jackson.annotation.JsonFormat;
 import com.fasterxml.jackson.annotation.JsonRootName;
-import eu.daxiongmao.core.business.ParameterService;
-import eu.daxiongmao.core.model.enums.param.TechnicalParam;
 import lombok.*;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.StringUtils;
@@ -14,7 +12,6 @@ import java.io.Serializable;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Optional;
 import java.util.TimeZone;
 
 /**
@@ -34,6 +31,9 @@ public class ApiError implements Serializable {
 
     private static final long serialVersionUID = 20200227L;
 
+    /** Boolean flag. "true" to include stacktrace in responses, see TechnicalParam#WEB_SERVICES_JSON_INCLUDE_STACKTRACE_ON_ERROR */
+    private static volatile boolean includeStacktraceOnError = false;
+
     /** HTTP status of the error (4xx = client errors | 5xx = server errors) */
     private HttpStatus httpStatus;
 
@@ -102,13 +102,10 @@ public class ApiError implements Serializable {
         if (e != null) {
             log.warn("Failure", e);
             // Only add stacktrace to response if option is enabled
-            if (ParameterService.getInstance().isPresent()) {
-                Optional<Object> sendStacktrace = ParameterService.getInstance().get().getValue(TechnicalParam.WEB_SERVICES_JSON_INCLUDE_STACKTRACE_ON_ERROR);
-                if ((Boolean) sendStacktrace.orElse(false)) {
-                    this.debugMessage = ExceptionUtils.getStackTrace(e);
-                    // replace standard \r\n\t output by " \\n " for javascript JSON.parse() + python clients to work
-                    this.debugMessage = this.debugMessage.replaceAll("\r\n\t", " \\\\n ");
-                }
+            if (includeStacktraceOnError) {
+                this.debugMessage = ExceptionUtils.getStackTrace(e);
+                // replace standard \r\n\t output by " \\n " for javascript JSON.parse() + python clients to work
+                this.debugMessage = this.debugMessage.replaceAll("\r\n\t", " \\\\n ");
             }
         }
     }
@@ -127,6 +124,14 @@ public class ApiError implements Serializable {
         }
     }
 
+    /**
+     * To enable or disable stacktrace in error responses. This is driven by configuration, see ExceptionHandlingController
+     * @param includeStacktrace boolean flag. "true" to include stacktrace in responses
+     */
+    public static void setIncludeStacktraceOnError(final boolean includeStacktrace) {
+        includeStacktraceOnError = includeStacktrace;
+    }
+
     /**
      * To add an error cause.<br>
      *     Use that to return multiple errors at once, particularly useful for validation reports
@@ -22,6 +22,9 @@ public enum ApiErrorCodesEnum {
 
     HTTP_406_NOT_ACCEPTABLE,
 
+    /** HTTP 409 error: the resource has been modified by someone else since it was read */
+    HTTP_409_CONFLICT,
+
     /** HTTP 500 error: internal server error (backend side error, failed to perform requested task / operation). */
     HTTP_500_INTERNAL_SERVER_ERROR
     ;
@@ -0,0 +1,54 @@
+package eu.daxiongmao.core.api.v1;
+
+import eu.daxiongmao.core.api.AdminAccessInterceptor;
+import eu.daxiongmao.core.api.error.ApiValidationError;
+import eu.daxiongmao.core.business.LabelService;
+import eu.daxiongmao.core.model.dto.LabelDTO;
+import eu.daxiongmao.core.model.dto.LabelImportReportDTO;
+import eu.daxiongmao.core.model.exception.BadRequestException;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Web-service (HTTP REST) to administrate application's labels. Restricted to administrators, see {@link AdminAccessInterceptor}
+ * @author Guillaume Diaz
+ * @version 1.0
+ * @since 2020/04
+ */
+@RestController
+@RequestMapping(path = "/v1/admin/labels")
+@RequiredArgsConstructor
+public class AdminLabelController {
+
+    private final LabelService labelService;
+
+    /**
+     * To import labels from an Excel workbook: new labels are created, changed texts are updated, other labels are left as they are
+     * @param file Excel workbook (XLSX), same layout as the export
+     * @return number of inserted, updated, unchanged and rejected rows
+     * @throws IOException failed to receive the file
+     */
+    @PostMapping(path = "/import", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public LabelImportReportDTO importLabels(@RequestParam("file") MultipartFile file) throws IOException {
+        if (file == null || file.isEmpty()) {
+            throw new BadRequestException(new ApiValidationError(LabelDTO.class.getName(), "file", null, "cannot be empty"));
+        }
+        // The workbook is read from disk, not from memory
+        final Path excelFile = Files.createTempFile("labels_import_", ".xlsx");
+        try {
+            file.transferTo(excelFile);
+            return labelService.importLabels(excelFile);
+        } finally {
+            Files.deleteIfExists(excelFile);
+        }
+    }
+}
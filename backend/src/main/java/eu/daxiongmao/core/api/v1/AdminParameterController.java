@@ -0,0 +1,37 @@
+package eu.daxiongmao.core.api.v1;
+
+import eu.daxiongmao.core.api.AdminAccessInterceptor;
+import eu.daxiongmao.core.business.ParameterService;
+import eu.daxiongmao.core.model.dto.ParameterDTO;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+/**
+ * Web-service (HTTP REST) to administrate application's parameters. Restricted to administrators, see {@link AdminAccessInterceptor}
+ * @author Guillaume Diaz
+ * @version 1.0
+ * @since 2020/04
+ */
+@RestController
+@RequestMapping(path = "/v1/admin/parameters")
+@RequiredArgsConstructor
+public class AdminParameterController {
+
+    private final ParameterService parameterService;
+
+    /**
+     * To update several parameters at once. Each parameter must provide the version it was read with.
+     * Sensitive and disabled parameters cannot be changed through this service
+     * @param changes parameters to update
+     * @return updated parameters, with their new version. HTTP 409 if a parameter has been modified by someone else
+     */
+    @PutMapping("/updateAll")
+    public List<ParameterDTO> updateAll(@RequestBody List<ParameterDTO> changes) {
+        return parameterService.updateAll(changes);
+    }
+}
@@ -0,0 +1,249 @@
+package eu.daxiongmao.core.api.v1;
+
+import eu.daxiongmao.core.business.ChangeFeed;
+import eu.daxiongmao.core.model.dto.ChangeEventDTO;
+import lombok.extern.log4j.Log4j2;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Web-service (HTTP Server-Sent Events) to be pushed parameters and labels changes, instead of polling them.<br>
+ * Each event is named:
+ * <ul>
+ *     <li>"change": changed keys and their new (non sensitive) values, see {@link ChangeEventDTO}</li>
+ *     <li>"reset": the client must reload everything, then apply the next changes.
+ *     This is the first event of a new stream, or of a stream that cannot be resumed</li>
+ * </ul>
+ * Each event has an id: on reconnection the client sends the last received id (Last-Event-ID header) to get the missed events.
+ * Ids are only known by the node that sent them: a client that reconnects to another node gets a "reset".
+ * <p>Technical note: streams are asynchronous, an idle stream does not hold any servlet thread.
+ * Events are written by a pool of sender threads, never by the thread that refreshed the cache.
+ * Each stream has its own bounded queue of pending events, written in order by one sender at a time:
+ * a slow client only delays its own stream. When its queue is full the stream is closed, the client reconnects and resumes.</p>
+ * @author Guillaume Diaz
+ * @version 1.2
+ * @since 2020/04
+ */
+@RestController
+@RequestMapping(path = "/v1/changes")
+@Log4j2
+public class ChangeStreamController {
+
+    /** Delay between 2 heartbeats, in seconds. This detects closed connections and keeps proxies from closing idle ones */
+    private static final long HEARTBEAT_DELAY_IN_SECONDS = 25;
+
+    /** Maximum number of events waiting to be written on a stream. A client that cannot keep up is disconnected */
+    private static final int MAX_PENDING_EVENTS_PER_STREAM = 100;
+
+    private final ChangeFeed changeFeed;
+
+    /** Maximum duration of a stream, in milliseconds. Clients reconnect automatically */
+    private final long streamTimeoutInMs;
+
+    /** Writes the events of all streams */
+    private final ExecutorService senders;
+
+    /** Triggers heartbeats */
+    private final ScheduledExecutorService heartbeatScheduler;
+
+    /** Open streams */
+    private final Set<ChangeStream> streams = ConcurrentHashMap.newKeySet();
+
+    /**
+     * New controller
+     * @param changeFeed changes to push
+     * @param streamTimeoutInSeconds maximum duration of a stream, in seconds
+     * @param nbOfSenderThreads number of threads dedicated to events writing
+     */
+    public ChangeStreamController(final ChangeFeed changeFeed,
+                                  @Value("${app.change-feed.stream-timeout-in-seconds:1800}") final long streamTimeoutInSeconds,
+                                  @Value("${app.change-feed.sender-threads:4}") final int nbOfSenderThreads) {
+        this.changeFeed = changeFeed;
+        this.streamTimeoutInMs = TimeUnit.SECONDS.toMillis(streamTimeoutInSeconds);
+        final AtomicInteger senderNumber = new AtomicInteger(1);
+        this.senders = Executors.newFixedThreadPool(Math.max(1, nbOfSenderThreads), (task) -> {
+            final Thread thread = new Thread(task, "change-stream-sender-" + senderNumber.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.heartbeatScheduler = Executors.newSingleThreadScheduledExecutor((task) -> {
+            final Thread thread = new Thread(task, "change-stream-heartbeat");
+            thread.setDaemon(true);
+            return thread;
+        });
+        heartbeatScheduler.scheduleWithFixedDelay(this::sendHeartbeats, HEARTBEAT_DELAY_IN_SECONDS, HEARTBEAT_DELAY_IN_SECONDS, TimeUnit.SECONDS);
+    }
+
+    /**
+     * To open a changes stream
+     * @param lastEventIdHeader last received event id, sent by browsers on reconnection
+     * @param lastEventIdParam last received event id, for clients that cannot set headers
+     * @return events stream
+     */
+    @GetMapping(path = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter stream(@RequestHeader(value = "Last-Event-ID", required = false) String lastEventIdHeader,
+                             @RequestParam(value = "lastEventId", required = false) String lastEventIdParam) {
+        final ChangeStream stream = new ChangeStream(new SseEmitter(streamTimeoutInMs));
+        stream.emitter.onCompletion(stream::unsubscribe);
+        stream.emitter.onTimeout(stream::unsubscribe);
+        stream.emitter.onError((e) -> stream.unsubscribe());
+        streams.add(stream);
+
+        final String lastEventId = StringUtils.defaultIfBlank(lastEventIdHeader, lastEventIdParam);
+        changeFeed.subscribe(parseEventId(lastEventId), stream.subscriber, (currentEventId) ->
+                stream.enqueue(SseEmitter.event().id(String.valueOf(currentEventId)).name("reset").data(currentEventId)));
+        return stream.emitter;
+    }
+
+    /**
+     * @param eventId event id sent by the client, can be NULL
+     * @return event id, or NULL if it is missing or invalid
+     */
+    private static Long parseEventId(final String eventId) {
+        if (StringUtils.isBlank(eventId)) {
+            return null;
+        }
+        try {
+            return Long.valueOf(eventId.trim());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private void sendHeartbeats() {
+        streams.forEach((stream) -> stream.enqueue(SseEmitter.event().comment("heartbeat")));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        heartbeatScheduler.shutdownNow();
+        senders.shutdownNow();
+        streams.forEach((stream) -> stream.emitter.complete());
+    }
+
+    /**
+     * An open stream and its pending events. Events are queued by the publishing thread and written by one sender at a time
+     */
+    private final class ChangeStream {
+
+        private final SseEmitter emitter;
+
+        /** Feed subscription */
+        private final Consumer<ChangeEventDTO> subscriber;
+
+        /** Events waiting to be written, oldest first */
+        private final BlockingQueue<SseEmitter.SseEventBuilder> pendingEvents = new ArrayBlockingQueue<>(MAX_PENDING_EVENTS_PER_STREAM);
+
+        /** Boolean flag. "true" while a sender is writing the pending events */
+        private final AtomicBoolean sending = new AtomicBoolean();
+
+        /** Boolean flag. "true" once the stream must be closed: no more event is written */
+        private volatile boolean closed;
+
+        private ChangeStream(final SseEmitter emitter) {
+            this.emitter = emitter;
+            this.subscriber = (event) -> enqueue(SseEmitter.event().id(String.valueOf(event.getId())).name("change").data(event, MediaType.APPLICATION_JSON));
+        }
+
+        /**
+         * To write an event, as soon as a sender is available. This never blocks
+         * @param event event to write
+         */
+        private void enqueue(final SseEmitter.SseEventBuilder event) {
+            if (closed) {
+                return;
+            }
+            if (!pendingEvents.offer(event)) {
+                // Client cannot keep up: do not wait for it, it will reconnect and resume from its last received event
+                log.info("Change stream too slow ({} pending events): closed", MAX_PENDING_EVENTS_PER_STREAM);
+                closed = true;
+                unsubscribe();
+            }
+            scheduleSending();
+        }
+
+        /**
+         * To give the pending events to a sender, unless one is already writing them
+         */
+        private void scheduleSending() {
+            if (!sending.compareAndSet(false, true)) {
+                return;
+            }
+            try {
+                senders.execute(this::sendPendingEvents);
+            } catch (RejectedExecutionException e) {
+                // Application is shutting down
+                sending.set(false);
+                log.debug("Change stream event cancelled");
+            }
+        }
+
+        /**
+         * To write all pending events, in order. Called by a sender thread
+         */
+        private void sendPendingEvents() {
+            try {
+                SseEmitter.SseEventBuilder event;
+                while (!closed && (event = pendingEvents.poll()) != null) {
+                    send(event);
+                }
+                if (closed) {
+                    pendingEvents.clear();
+                    emitter.complete();
+                }
+            } finally {
+                sending.set(false);
+            }
+            // Events queued after the last poll, while this sender was finishing
+            if (!closed && !pendingEvents.isEmpty()) {
+                scheduleSending();
+            }
+        }
+
+        /**
+         * To write an event. A failure closes the stream: the client will reconnect and resume
+         * @param event event to write
+         */
+        private void send(final SseEmitter.SseEventBuilder event) {
+            try {
+                emitter.send(event);
+            } catch (IOException | IllegalStateException e) {
+                log.debug("Change stream closed: {}", e.getMessage());
+                closed = true;
+                unsubscribe();
+                pendingEvents.clear();
+                emitter.completeWithError(e);
+            }
+        }
+
+        /**
+         * To stop receiving changes
+         */
+        private void unsubscribe() {
+            changeFeed.unsubscribe(subscriber);
+            streams.remove(this);
+        }
+    }
+}
@@ -0,0 +1,195 @@
+package eu.daxiongmao.core.api.v1;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import eu.daxiongmao.core.api.SerializedResponseCache;
+import eu.daxiongmao.core.api.error.ApiValidationError;
+import eu.daxiongmao.core.business.LabelService;
+import eu.daxiongmao.core.model.dto.LabelDTO;
+import eu.daxiongmao.core.model.enums.AppLang;
+import eu.daxiongmao.core.model.exception.BadRequestException;
+import eu.daxiongmao.core.model.exception.ConflictException;
+import eu.daxiongmao.core.utils.ContentHashUtils;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+import javax.annotation.PostConstruct;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Web-service (HTTP REST) to download application's labels in bulk, for frontends.
+ * <ol>
+ *     <li>The manifest gives the current fingerprint of each language. It is tiny and must be revalidated on each use</li>
+ *     <li>Each bundle URL contains its fingerprint: its content never changes, so it is cached forever by browsers and proxies.
+ *     When labels change, the manifest gives a new URL</li>
+ * </ol>
+ * Bundles are serialized and compressed once per content, see {@link SerializedResponseCache}. Full bundles are prepared
+ * as soon as labels change, before the first request. Filtered bundles (prefix) are prepared on demand, in their own bounded cache:
+ * arbitrary prefixes cannot evict other responses.
+ * <p>All labels can also be exported as an Excel workbook, streamed directly to the response.
+ * Imports are restricted to administrators, see {@link AdminLabelController}.</p>
+ * @author Guillaume Diaz
+ * @version 1.4
+ * @since 2020/04
+ */
+@RestController
+@RequestMapping(path = "/v1/labels")
+public class LabelController {
+
+    /** Maximum length of a label code */
+    private static final int CODE_MAX_LENGTH = 250;
+
+    /** Bundles URLs change with their content: they can be cached forever */
+    private static final String IMMUTABLE_CACHE_CONTROL = CacheControl.maxAge(365, TimeUnit.DAYS).cachePublic().getHeaderValue() + ", immutable";
+
+    /** The manifest must be revalidated on each use (cheap, thanks to its ETag) */
+    private static final String REVALIDATE_CACHE_CONTROL = CacheControl.noCache().getHeaderValue();
+
+    /** Excel 2007+ workbook */
+    private static final MediaType XLSX_MEDIA_TYPE = MediaType.parseMediaType("application/vnd.openxmlformats-officedocument.spreadsheetml.sheet");
+
+    private final LabelService labelService;
+    private final SerializedResponseCache responseCache;
+
+    /** Filtered bundles, by language and prefix */
+    private final SerializedResponseCache filteredBundlesCache;
+
+    /**
+     * New controller
+     * @param labelService labels
+     * @param responseCache serialized responses
+     * @param objectMapper application's JSON mapper
+     * @param filteredBundlesMaximumSizeInBytes maximum size of all filtered bundles, in bytes. Least used bundles are evicted first
+     */
+    public LabelController(final LabelService labelService, final SerializedResponseCache responseCache, final ObjectMapper objectMapper,
+                           @Value("${app.cache.responses.label-bundles-by-prefix.maximum-size-in-bytes:1048576}") final long filteredBundlesMaximumSizeInBytes) {
+        this.labelService = labelService;
+        this.responseCache = responseCache;
+        this.filteredBundlesCache = new SerializedResponseCache(objectMapper, filteredBundlesMaximumSizeInBytes);
+    }
+
+    @PostConstruct
+    public void setup() {
+        // Bundles are prepared on each labels change, and once for the labels already loaded
+        labelService.onBundlesChange(this::prepareBundles);
+        prepareBundles();
+    }
+
+    /**
+     * To retrieve the current fingerprint of each language bundle
+     * @param request current request
+     * @return fingerprints by language code (JSON), or NULL if not modified. Empty if bundles are not available
+     */
+    @GetMapping("/manifest")
+    public ResponseEntity<byte[]> getManifest(WebRequest request) {
+        final Map<String, String> manifest = new LinkedHashMap<>();
+        final List<String> hashedValues = new ArrayList<>();
+        for (AppLang lang : AppLang.values()) {
+            labelService.getBundleContentHash(lang).ifPresent((contentHash) -> {
+                manifest.put(lang.getLanguageCode(), contentHash);
+                hashedValues.add(lang.getLanguageCode());
+                hashedValues.add(contentHash);
+            });
+        }
+        return responseCache.getResponse("labels.manifest", ContentHashUtils.hash(hashedValues.toArray(new String[0])),
+                REVALIDATE_CACHE_CONTROL, () -> manifest, request);
+    }
+
+    /**
+     * To retrieve all texts of a language, see {@link #getManifest(WebRequest)} to get the current URL.
+     * An outdated fingerprint is redirected to the current bundle
+     * @param langCode language code in 2 letters (ex: EN)
+     * @param contentHash bundle fingerprint, as given by the manifest
+     * @param prefix to only retrieve the labels whose code starts with this prefix (case insensitive)
+     * @param request current request
+     * @return texts by label code (JSON), or NULL if not modified
+     */
+    @GetMapping("/bundles/{langCode}/{contentHash}")
+    public ResponseEntity<byte[]> getBundle(@PathVariable String langCode, @PathVariable String contentHash,
+                                            @RequestParam(value = "prefix", required = false) String prefix, WebRequest request) {
+        final AppLang lang = AppLang.getLanguageForCode(langCode).orElseThrow(() ->
+                new BadRequestException(new ApiValidationError(LabelDTO.class.getName(), "langCode", langCode, "unknown language")));
+        if (prefix != null && prefix.length() > CODE_MAX_LENGTH) {
+            throw new BadRequestException(new ApiValidationError(LabelDTO.class.getName(), "prefix", prefix,
+                    "too long, maximum is " + CODE_MAX_LENGTH));
+        }
+        final String normalizedPrefix = StringUtils.trimToEmpty(prefix).toUpperCase();
+
+        final Optional<String> currentHash = labelService.getBundleContentHash(lang);
+        if (currentHash.isEmpty()) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
+        }
+        if (!currentHash.get().equals(contentHash)) {
+            // Outdated URL: the current bundle has another URL
+            final ServletUriComponentsBuilder currentUrl = ServletUriComponentsBuilder.fromCurrentContextPath();
+            currentUrl.path("/v1/labels/bundles/{langCode}/{contentHash}");
+            if (!normalizedPrefix.isEmpty()) {
+                currentUrl.queryParam("prefix", normalizedPrefix);
+            }
+            return ResponseEntity.status(HttpStatus.FOUND)
+                    .location(currentUrl.buildAndExpand(lang.getLanguageCode(), currentHash.get()).encode().toUri())
+                    .build();
+        }
+
+        final SerializedResponseCache bundlesCache = normalizedPrefix.isEmpty() ? responseCache : filteredBundlesCache;
+        return bundlesCache.getResponse(getBundleKey(lang, normalizedPrefix), ContentHashUtils.hash(contentHash, normalizedPrefix), IMMUTABLE_CACHE_CONTROL,
+                () -> labelService.getBundle(lang, normalizedPrefix, contentHash).orElseThrow(() ->
+                        new ConflictException("Labels changed during the request, please retry")),
+                request);
+    }
+
+    /**
+     * To serialize the full bundle of each language, so that no request pays it after a labels change
+     */
+    private void prepareBundles() {
+        for (AppLang lang : AppLang.values()) {
+            labelService.getBundleContentHash(lang).ifPresent((contentHash) ->
+                    // Labels may have changed again in between: the next change will prepare them
+                    labelService.getBundle(lang, "", contentHash).ifPresent((bundle) ->
+                            responseCache.prepare(getBundleKey(lang, ""), ContentHashUtils.hash(contentHash, ""), () -> bundle)));
+        }
+    }
+
+    /**
+     * @param lang bundle language
+     * @param normalizedPrefix label codes prefix (upper case), empty for all labels
+     * @return key of the bundle response
+     */
+    private static String getBundleKey(final AppLang lang, final String normalizedPrefix) {
+        return "labels.bundle." + lang.getLanguageCode() + "." + normalizedPrefix;
+    }
+
+    /**
+     * To export all labels as an Excel workbook. The workbook is written to the response while labels are read page by page:
+     * the whole table is never in memory, and the export does not hold a servlet thread
+     * @return Excel workbook (XLSX)
+     */
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportLabels() {
+        final String fileName = "labels_" + LocalDate.now().format(DateTimeFormatter.ISO_LOCAL_DATE) + ".xlsx";
+        return ResponseEntity.ok()
+                .contentType(XLSX_MEDIA_TYPE)
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.builder("attachment").filename(fileName).build().toString())
+                .body(labelService::exportLabels);
+    }
+}
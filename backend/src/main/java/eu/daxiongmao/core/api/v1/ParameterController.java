@@ -1,23 +1,29 @@
 package eu.daxiongmao.core.api.v1;
 
+import eu.daxiongmao.core.api.SerializedResponseCache;
 import eu.daxiongmao.core.api.error.ApiValidationError;
 import eu.daxiongmao.core.business.ParameterService;
+import eu.daxiongmao.core.business.ParameterViews;
 import eu.daxiongmao.core.model.dto.ParameterDTO;
+import eu.daxiongmao.core.model.dto.ParameterLookupDTO;
 import eu.daxiongmao.core.model.exception.BadRequestException;
 import lombok.RequiredArgsConstructor;
 import org.apache.commons.lang3.StringUtils;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
-import java.util.Optional;
 
 /**
- * Web-service (HTTP REST) to interact with application's parameters
+ * Web-service (HTTP REST) to read application's parameters. Changes are restricted to administrators, see {@link AdminParameterController}
  * @author Guillaume Diaz
- * @version 1.0
+ * @version 1.6
  * @since 2020/03
  */
 @RestController
@@ -25,20 +31,59 @@ import java.util.Optional;
 @RequiredArgsConstructor
 public class ParameterController {
 
+    /** Maximum number of parameters that can be retrieved at once */
+    private static final int MAX_NB_OF_PARAMS_BY_LOOKUP = 100;
+
     private final ParameterService parameterService;
+    private final SerializedResponseCache responseCache;
 
+    /**
+     * To retrieve all public parameters. Responses carry an ETag: if the client already has the current content,
+     * HTTP 304 is returned without building the response. The JSON is only serialized when parameters change
+     * @param request current request
+     * @return all public parameters (JSON), or NULL if not modified
+     */
     @GetMapping("/getAll")
-    public List<ParameterDTO> getAll() {
-        return parameterService.getAll(false, false);
+    public ResponseEntity<byte[]> getAll(WebRequest request) {
+        // Content and entity tag from the same cache content
+        final ParameterViews.View<List<ParameterDTO>> view = parameterService.getAllView(false, false);
+        return responseCache.getResponse("parameters.getAll", view.getContentHash(), view::getContent, request);
     }
 
+    /**
+     * To retrieve a public parameter. Responses carry an ETag: if the client already has the current content,
+     * HTTP 304 is returned without building the response
+     * @param paramName parameter name (case insensitive)
+     * @param request current request
+     * @return corresponding parameter (JSON), or NULL if not modified
+     */
     @GetMapping("/getByName/{paramName}")
-    public Optional<ParameterDTO> getParamByName(@PathVariable String paramName) {
+    public ResponseEntity<byte[]> getParamByName(@PathVariable String paramName, WebRequest request) {
         if (StringUtils.isBlank(paramName)) {
             throw new BadRequestException(new ApiValidationError(ParameterDTO.class.getName(), "paramName", paramName, "cannot be blank"));
         }
 
-        return parameterService.getParamByName(paramName, false, false);
+        // Content and entity tag from the same cache entry. Missing parameters are cached too
+        final ParameterViews.View<ParameterDTO> view = parameterService.getViewByName(paramName, false, false);
+        return responseCache.getResponse("parameters.getByName." + paramName.trim().toUpperCase(), view.getContentHash(), view::getContent, request);
     }
 
+    /**
+     * To retrieve several public parameters in a single call. Each name gets its own status (found, missing, restricted):
+     * a restricted parameter does not fail the whole call
+     * @param paramNames parameters names (case insensitive)
+     * @return one result per distinct name, in request order
+     */
+    @PostMapping("/getByNames")
+    public List<ParameterLookupDTO> getParamsByNames(@RequestBody List<String> paramNames) {
+        if (paramNames == null || paramNames.isEmpty()) {
+            throw new BadRequestException(new ApiValidationError(ParameterDTO.class.getName(), "paramName", paramNames, "at least one name is required"));
+        }
+        if (paramNames.size() > MAX_NB_OF_PARAMS_BY_LOOKUP) {
+            throw new BadRequestException(new ApiValidationError(ParameterDTO.class.getName(), "paramName", paramNames.size(),
+                    "too many names, maximum is " + MAX_NB_OF_PARAMS_BY_LOOKUP));
+        }
+
+        return parameterService.getParamsByNames(paramNames, false, false);
+    }
 }
@@ -0,0 +1,77 @@
+package eu.daxiongmao.core.business;
+
+import eu.daxiongmao.core.model.db.Parameter;
+import eu.daxiongmao.core.utils.ContentHashUtils;
+import eu.daxiongmao.core.utils.StringToClassUtils;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.util.Date;
+
+/**
+ * Cached parameter: database entity and its typed value, converted once when the cache is loaded.<br>
+ * Instances are immutable and shared by all readers.
+ * @author Guillaume Diaz
+ * @version 1.1
+ * @since 2020/04
+ */
+@Getter
+@ToString(of = { "paramName", "value", "conversionError" })
+public final class CachedParameter {
+
+    /** Database entity. It must not be modified */
+    @Getter(AccessLevel.PACKAGE)
+    private final Parameter entity;
+
+    /** Parameter name (upper case) */
+    private final String paramName;
+
+    /** Boolean flag. "true" to use the parameter, "false" to block usage */
+    private final boolean isActive;
+
+    /** Boolean flag. "true" if the value is confidential */
+    private final boolean isSensitive;
+
+    /** Last modification date, for incremental cache refresh */
+    private final Date modificationDate;
+
+    /** Typed value, NULL if the value is empty or invalid */
+    private final Object value;
+
+    /** Reason why the value could not be converted into its type. NULL if the value is valid */
+    private final String conversionError;
+
+    /** Fingerprint of the exposed fields, the same on all nodes. To be used as HTTP entity tag */
+    private final String contentHash;
+
+    /**
+     * To convert a parameter into its typed value
+     * @param entity database entity
+     */
+    CachedParameter(final Parameter entity) {
+        this.entity = entity;
+        this.paramName = entity.getParamName();
+        this.isActive = Boolean.TRUE.equals(entity.getIsActive());
+        this.isSensitive = Boolean.TRUE.equals(entity.getIsSensitive());
+        this.modificationDate = entity.getModificationDate();
+        Object typedValue = null;
+        String error = null;
+        try {
+            typedValue = StringToClassUtils.getValue(entity.getParamValue(), entity.getParamType());
+        } catch (RuntimeException e) {
+            error = e.getClass().getSimpleName() + ": " + e.getMessage();
+        }
+        this.value = typedValue;
+        this.conversionError = error;
+        this.contentHash = ContentHashUtils.hash(entity.getParamName(), entity.getParamType(), entity.getParamValue(),
+                entity.getDescription(), String.valueOf(entity.getIsActive()), String.valueOf(entity.getVersion()));
+    }
+
+    /**
+     * @return "true" if the value matches the parameter type
+     */
+    public boolean isValid() {
+        return conversionError == null;
+    }
+}
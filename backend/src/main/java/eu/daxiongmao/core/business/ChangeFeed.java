@@ -0,0 +1,132 @@
+package eu.daxiongmao.core.business;
+
+import eu.daxiongmao.core.model.dto.ChangeEventDTO;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+import java.util.function.LongConsumer;
+
+/**
+ * Feed of the changes published by the application's caches (parameters, labels, etc.).<br>
+ * Subscribers are pushed each change as soon as the new cache content is published, instead of polling.
+ * The last events are kept so that a subscriber can resume after a disconnection without reloading everything.
+ * <p>Technical note: event ids are only meaningful on the node that published them, each node has its own feed.
+ * An id is made of a random feed identifier (high 32 bits) followed by a sequence (low 32 bits): ids of another node,
+ * or from before a restart, are outside of this feed ids range. A subscriber that resumes from such an id is asked to
+ * reload everything (reset), it never gets a partial replay.
+ * Ids are computed under the feed lock only, without any remote call, so publishing never waits for the database.</p>
+ * @author Guillaume Diaz
+ * @version 1.2
+ * @since 2020/04
+ */
+@Component
+@Log4j2
+public class ChangeFeed {
+
+    /** Maximum number of events kept to resume subscriptions */
+    private final int historySize;
+
+    /** Last events, oldest first */
+    private final Deque<ChangeEventDTO> history;
+
+    /** Current subscribers */
+    private final List<Consumer<ChangeEventDTO>> subscribers = new CopyOnWriteArrayList<>();
+
+    /** Id of the last published event */
+    private long lastEventId;
+
+    /** History is complete after this event id: a subscriber that received it, or a later one, can resume */
+    private long historyStartEventId;
+
+    /**
+     * New feed
+     * @param historySize maximum number of events kept to resume subscriptions
+     */
+    public ChangeFeed(@Value("${app.change-feed.history-size:1000}") int historySize) {
+        this.historySize = Math.max(1, historySize);
+        this.history = new ArrayDeque<>(this.historySize);
+        // Random feed identifier (positive), sequence starts at 0
+        this.lastEventId = ((long) ThreadLocalRandom.current().nextInt(1, Integer.MAX_VALUE)) << 32;
+        this.historyStartEventId = lastEventId;
+    }
+
+    /**
+     * To publish the changes of a cache. Nothing is published if nothing changed
+     * @param source cache name
+     * @param changed new or modified values, by key
+     * @param removed keys that are no longer available
+     */
+    public synchronized void publish(final String source, final Map<String, Object> changed, final List<String> removed) {
+        if (changed.isEmpty() && removed.isEmpty()) {
+            return;
+        }
+        lastEventId++;
+        final ChangeEventDTO event = new ChangeEventDTO(lastEventId, source, Map.copyOf(changed), List.copyOf(removed));
+        if (history.size() == historySize) {
+            historyStartEventId = history.removeFirst().getId();
+        }
+        history.addLast(event);
+        log.debug("Change #{} published: {} | {} changed, {} removed", event.getId(), source, changed.size(), removed.size());
+        // Under lock: each subscriber gets the events in order, without gap with its replay
+        subscribers.forEach((subscriber) -> notify(subscriber, event));
+    }
+
+    /**
+     * To be notified of each change, starting after the last event received by the subscriber.
+     * Events are given in order, without gap: missed events are replayed first (by the calling thread),
+     * then the subscriber gets new events from the publishing thread.
+     * @param lastReceivedEventId id of the last event received by the subscriber, NULL for a new subscriber
+     * @param subscriber to notify. It is called by the publishing thread: it must not block
+     * @param onReset called instead of the replay, with the current event id, if the subscriber is new or if some events
+     *                are no longer available: the subscriber must reload everything, then apply the next events
+     */
+    public synchronized void subscribe(final Long lastReceivedEventId, final Consumer<ChangeEventDTO> subscriber, final LongConsumer onReset) {
+        if (lastReceivedEventId == null || lastReceivedEventId > lastEventId || lastReceivedEventId < historyStartEventId) {
+            // New, unknown (other node, restart) or too old: some events are missing
+            onReset.accept(lastEventId);
+        } else {
+            history.forEach((event) -> {
+                if (event.getId() > lastReceivedEventId) {
+                    notify(subscriber, event);
+                }
+            });
+        }
+        subscribers.add(subscriber);
+    }
+
+    /**
+     * To stop notifications
+     * @param subscriber subscriber to remove
+     */
+    public void unsubscribe(final Consumer<ChangeEventDTO> subscriber) {
+        subscribers.remove(subscriber);
+    }
+
+    /**
+     * @return number of current subscribers
+     */
+    public int getNbOfSubscribers() {
+        return subscribers.size();
+    }
+
+    /**
+     * To notify a subscriber. A subscriber failure does not prevent others to be notified
+     * @param subscriber subscriber
+     * @param event event to give
+     */
+    private void notify(final Consumer<ChangeEventDTO> subscriber, final ChangeEventDTO event) {
+        try {
+            subscriber.accept(event);
+        } catch (RuntimeException e) {
+            log.error("Change #{} | subscriber failure", event.getId(), e);
+        }
+    }
+}
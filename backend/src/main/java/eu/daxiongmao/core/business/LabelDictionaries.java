@@ -0,0 +1,106 @@
+package eu.daxiongmao.core.business;
+
+import eu.daxiongmao.core.business.cache.CacheKeyEquivalence;
+import eu.daxiongmao.core.model.db.Label;
+import eu.daxiongmao.core.model.enums.AppLang;
+import eu.daxiongmao.core.utils.ContentHashUtils;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * All enabled labels as plain texts, one dictionary per language, with the default language fallback already applied.<br>
+ * Dictionaries only depend on the cache content and the default language, so they are built once per change and shared by all callers.
+ * Instances are immutable: new dictionaries are built on each change.
+ * <p>Technical note: label codes are case insensitive, a lookup does not allocate anything.</p>
+ * @author Guillaume Diaz
+ * @version 1.1
+ * @since 2020/04
+ */
+final class LabelDictionaries {
+
+    /** Texts by label code, for each language */
+    private final Map<AppLang, Map<String, String>> dictionaries = new EnumMap<>(AppLang.class);
+
+    /** Label codes of each language, sorted: bundles do not depend on the cache internal order */
+    private final Map<AppLang, String[]> sortedCodes = new EnumMap<>(AppLang.class);
+
+    /** Fingerprint of each language dictionary */
+    private final Map<AppLang, String> contentHashes = new EnumMap<>(AppLang.class);
+
+    /**
+     * New dictionaries
+     * @param labels current cache content
+     * @param defaultLanguage language to use when a label is not translated in the requested language
+     */
+    LabelDictionaries(final Collection<Label> labels, final AppLang defaultLanguage) {
+        for (AppLang lang : AppLang.values()) {
+            final Map<String, String> texts = new HashMap<>(labels.size() * 2);
+            for (Label label : labels) {
+                if (!Boolean.TRUE.equals(label.getIsActive())) {
+                    // Disabled labels must not be visible
+                    continue;
+                }
+                String text = label.getLang(lang);
+                if (text == null) {
+                    text = label.getLang(defaultLanguage);
+                }
+                if (text != null) {
+                    texts.put(label.getCode(), text);
+                }
+            }
+            final String[] codes = texts.keySet().toArray(new String[0]);
+            Arrays.sort(codes);
+            final String[] hashedValues = new String[codes.length * 2];
+            for (int i = 0; i < codes.length; i++) {
+                hashedValues[2 * i] = codes[i];
+                hashedValues[2 * i + 1] = texts.get(codes[i]);
+            }
+            dictionaries.put(lang, CacheKeyEquivalence.caseInsensitive().immutableMap(texts));
+            sortedCodes.put(lang, codes);
+            contentHashes.put(lang, ContentHashUtils.hash(hashedValues));
+        }
+    }
+
+    /**
+     * @param labelCode label code (case insensitive), not NULL
+     * @param lang requested language, not NULL
+     * @return text in the requested language, or in the default language if there is no translation. NULL if the label is unknown or disabled
+     */
+    String get(final String labelCode, final AppLang lang) {
+        return dictionaries.get(lang).get(labelCode);
+    }
+
+    /**
+     * @param lang requested language, not NULL
+     * @param codePrefix to only retrieve the labels whose code starts with this prefix (upper case), empty for all labels
+     * @return texts in the requested language, by label code, sorted by code
+     */
+    Map<String, String> get(final AppLang lang, final String codePrefix) {
+        final Map<String, String> texts = dictionaries.get(lang);
+        final String[] codes = sortedCodes.get(lang);
+        // Codes with the same prefix are contiguous
+        int index = codePrefix.isEmpty() ? 0 : Arrays.binarySearch(codes, codePrefix);
+        if (index < 0) {
+            index = -index - 1;
+        }
+        final Map<String, String> bundle = new LinkedHashMap<>();
+        while (index < codes.length && codes[index].startsWith(codePrefix)) {
+            bundle.put(codes[index], texts.get(codes[index]));
+            index++;
+        }
+        return bundle;
+    }
+
+    /**
+     * @param lang requested language, not NULL
+     * @return fingerprint of the language dictionary, the same on all nodes for the same content
+     */
+    String getContentHash(final AppLang lang) {
+        return contentHashes.get(lang);
+    }
+}
@@ -1,20 +1,39 @@
 package eu.daxiongmao.core.business;
 
+import eu.daxiongmao.core.business.cache.BoundedCache;
+import eu.daxiongmao.core.business.cache.CacheKeyEquivalence;
+import eu.daxiongmao.core.business.cache.CacheLoadingMode;
+import eu.daxiongmao.core.business.cache.EntityCacheValueFunction;
 import eu.daxiongmao.core.business.cache.InnerCache;
+import eu.daxiongmao.core.business.cache.InnerCacheRegistry;
 import eu.daxiongmao.core.dao.LabelRepository;
 import eu.daxiongmao.core.model.db.Label;
 import eu.daxiongmao.core.model.dto.LabelDTO;
+import eu.daxiongmao.core.model.dto.LabelImportReportDTO;
 import eu.daxiongmao.core.model.enums.AppLang;
 import eu.daxiongmao.core.model.enums.param.BusinessParam;
 import eu.daxiongmao.core.model.enums.param.TechnicalParam;
+import eu.daxiongmao.core.model.exception.BadRequestException;
 import eu.daxiongmao.core.model.mapper.LabelMapper;
+import eu.daxiongmao.core.utils.ContentHashUtils;
+import eu.daxiongmao.core.utils.label.LabelExcelReader;
+import eu.daxiongmao.core.utils.label.LabelExcelWriter;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.log4j.Log4j2;
 import org.apache.commons.lang3.StringUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import javax.annotation.PostConstruct;
+import javax.persistence.EntityManager;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Path;
+import java.time.Duration;
 import java.util.*;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 /**
  * To interact with application's labels.
@@ -29,35 +48,162 @@ public class LabelService {
     /** Hard-coded fallback value in case of DB failure or bad configuration */
     private final AppLang FAILOVER_DEFAULT_APP_LANGUAGE = AppLang.ENGLISH;
 
+    /** Delay to respect between 2 cache refresh if the parameter is missing, in seconds */
+    private static final int DEFAULT_DELAY_BETWEEN_REFRESH_IN_SECONDS = 30;
+
+    /** Maximum length of a label code, see LABELS.CODE */
+    private static final int CODE_MAX_LENGTH = 250;
+
+    /** Maximum length of a label text, see LABELS.LANG_* */
+    private static final int TEXT_MAX_LENGTH = 2000;
+
+    /** Number of labels loaded at once by exports */
+    private static final int EXPORT_PAGE_SIZE = 500;
+
+    /** Cache name, for monitoring */
+    public final static String CACHE_NAME = "LABELS";
+
     private final ParameterService parameterService;
     private final LabelRepository labelRepository;
     private final LabelMapper labelMapper;
+    private final InnerCacheRegistry cacheRegistry;
+    private final ChangeFeed changeFeed;
+    private final LabelExcelWriter labelExcelWriter;
+    private final LabelExcelReader labelExcelReader;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
     private InnerCache<String, Label> cache;
 
+    /** Default application's language, kept up-to-date by parameter changes */
+    private volatile AppLang defaultLanguage = FAILOVER_DEFAULT_APP_LANGUAGE;
+
+    /** Texts of each language, rebuilt on each change. NULL in PER_KEY mode: there is no complete list of labels */
+    private volatile LabelDictionaries dictionaries;
+
+    /** Called each time the dictionaries are rebuilt: bundles content may have changed */
+    private final List<Runnable> bundlesListeners = new CopyOnWriteArrayList<>();
+
+    /** Number of rows written at once by imports: same as the JDBC batch size, so each chunk is one batch */
+    @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:900}")
+    private int importChunkSize;
+
+    /** How labels are cached: all at once (small tables) or one by one on first access (large tables) */
+    @Value("${app.cache.labels.loading-mode:FULL_PRELOAD}")
+    private CacheLoadingMode loadingMode;
+
+    /** Delay to respect between 2 full reload, in seconds. In between only modified labels are loaded */
+    @Value("${app.cache.labels.full-reload-delay-in-seconds:600}")
+    private long delayBetweenFullReloadInSeconds;
+
+    /** Maximum number of labels kept in memory in PER_KEY mode. Least used labels are evicted first */
+    @Value("${app.cache.labels.per-key.maximum-size:10000}")
+    private long maximumSize;
+
+    /** Time to live of each label in PER_KEY mode, in seconds. "0" to keep labels until next refresh */
+    @Value("${app.cache.labels.per-key.time-to-live-in-seconds:0}")
+    private long timeToLiveInSeconds;
+
+    /** Maximum number of unknown label codes remembered in PER_KEY mode. "0" to disable negative caching */
+    @Value("${app.cache.labels.per-key.negative.maximum-size:10000}")
+    private long negativeCacheMaximumSize;
+
+    /** How long an unknown label code is remembered in PER_KEY mode, in seconds */
+    @Value("${app.cache.labels.per-key.negative.time-to-live-in-seconds:30}")
+    private long negativeCacheTimeToLiveInSeconds;
+
     @PostConstruct
     public void setup() {
-        // max refresh delay
-        final Optional<Object> delayBetweenRefreshInSeconds = parameterService.getValue(TechnicalParam.MIN_TIME_IN_SECONDS_BETWEEN_CACHE_REFRESH);
-        // Function to load cache
-        cache = new InnerCache<>(log, (Integer) delayBetweenRefreshInSeconds.orElseThrow(), () -> {
-            // Get DB values
-            final List<Label> dbValues = labelRepository.findAll();
-            // Update local cache
-            final Map<String, Label> valuesToCache = new HashMap<>(dbValues.size());
-            if (!dbValues.isEmpty()) {
-                dbValues.forEach((dbLabel) -> {
-                    // Each label has an unique code, make it toUpperCase() for case insensitive search
-                    valuesToCache.put(dbLabel.getCode().toUpperCase(), dbLabel);
-                });
+        // max refresh delay. Later changes are applied by the parameter change listener
+        final int delayBetweenRefreshInSeconds = parameterService.getInt(TechnicalParam.MIN_TIME_IN_SECONDS_BETWEEN_CACHE_REFRESH, DEFAULT_DELAY_BETWEEN_REFRESH_IN_SECONDS);
+        if (loadingMode == CacheLoadingMode.PER_KEY) {
+            // Function to load a single label on first access
+            cache = new InnerCache<>(CACHE_NAME, log, delayBetweenRefreshInSeconds, labelRepository::findByCode,
+                    new BoundedCache<>(maximumSize, Duration.ofSeconds(timeToLiveInSeconds)));
+            if (negativeCacheMaximumSize > 0) {
+                // Clients often probe optional labels: do not go to the database for each unknown code
+                cache.enableNegativeCache(negativeCacheMaximumSize, Duration.ofSeconds(negativeCacheTimeToLiveInSeconds));
             }
-            log.info("Initialization complete | {} Labels have been cached in memory", dbValues.size());
-            return valuesToCache;
-        });
-        // Populate cache on startup
+        } else {
+            // Function to load cache: full load on startup, then only changed labels
+            cache = new InnerCache<>(CACHE_NAME, log, delayBetweenRefreshInSeconds, delayBetweenFullReloadInSeconds,
+                    new EntityCacheValueFunction<>(log, "Labels",
+                            labelRepository::findAll,
+                            labelRepository::findByModificationDateGreaterThanEqual,
+                            Label::getCode));
+        }
+        // Case insensitive search, without converting each search key
+        cache.setKeyEquivalence(CacheKeyEquivalence.caseInsensitive());
+        // Push changes to subscribers (FULL_PRELOAD mode only: there is no snapshot in PER_KEY mode)
+        cache.addRefreshListener(this::publishChanges);
+        cache.addRefreshListener((previousValues, currentValues) -> rebuildDictionaries());
+        // Populate cache on startup, then keep it up-to-date in background
         cache.updateCache(true);
+        cacheRegistry.register(cache);
+        // Follow settings changes without restart
+        parameterService.<Number>onChange(TechnicalParam.MIN_TIME_IN_SECONDS_BETWEEN_CACHE_REFRESH, (delay) ->
+                cache.setDelayBetweenRefreshInSeconds(delay == null ? DEFAULT_DELAY_BETWEEN_REFRESH_IN_SECONDS : delay.longValue()));
+        parameterService.<String>onChange(BusinessParam.APP_DEFAULT_LANGUAGE, (langCode) -> {
+            defaultLanguage = AppLang.getLanguageForCode(langCode).orElse(FAILOVER_DEFAULT_APP_LANGUAGE);
+            // Fallback texts depend on the default language
+            rebuildDictionaries();
+        });
+    }
+
+    /**
+     * To rebuild the dictionaries from the current cache content and default language ({@link CacheLoadingMode#FULL_PRELOAD} mode only).<br>
+     * Technical note: this is synchronized and always reads the current state, so that concurrent labels and parameter
+     * refreshes cannot publish outdated dictionaries.
+     */
+    private synchronized void rebuildDictionaries() {
+        if (loadingMode == CacheLoadingMode.PER_KEY) {
+            return;
+        }
+        final Map<String, Label> labels = cache.getCachedValues();
+        dictionaries = new LabelDictionaries(labels.values(), defaultLanguage);
+        log.debug("Labels dictionaries rebuilt: {} labels, default language {}", labels.size(), defaultLanguage);
+        bundlesListeners.forEach((listener) -> {
+            try {
+                listener.run();
+            } catch (RuntimeException e) {
+                log.error("Labels bundles listener failure", e);
+            }
+        });
     }
 
 
+    /**
+     * To publish the labels that changed between 2 cache contents. Disabled labels are reported as removed
+     * @param previousValues previous cache content, empty on first load
+     * @param currentValues new cache content
+     */
+    private void publishChanges(final Map<String, Label> previousValues, final Map<String, Label> currentValues) {
+        if (previousValues.isEmpty()) {
+            // Initial load: subscribers start from the full list
+            return;
+        }
+        final Map<String, Object> changed = new HashMap<>();
+        final List<String> removed = new ArrayList<>();
+        currentValues.forEach((labelCode, label) -> {
+            final Label previousLabel = previousValues.get(labelCode);
+            final boolean wasVisible = previousLabel != null && Boolean.TRUE.equals(previousLabel.getIsActive());
+            if (Boolean.TRUE.equals(label.getIsActive())) {
+                // Full reloads create new instances: compare versions
+                if (!wasVisible || previousLabel.getVersion() != label.getVersion()
+                        || !Objects.equals(previousLabel.getModificationDate(), label.getModificationDate())) {
+                    changed.put(labelCode, labelMapper.dbEntityToDto(label));
+                }
+            } else if (wasVisible) {
+                removed.add(labelCode);
+            }
+        });
+        previousValues.forEach((labelCode, previousLabel) -> {
+            if (Boolean.TRUE.equals(previousLabel.getIsActive()) && !currentValues.containsKey(labelCode)) {
+                removed.add(labelCode);
+            }
+        });
+        changeFeed.publish(CACHE_NAME, changed, removed);
+    }
+
     /**
      * To retrieve a label by its code.
      * This will use the local cache
@@ -69,7 +215,7 @@ public class LabelService {
             return Optional.empty();
         }
         // Retrieve value from cache
-        final Label label = cache.getCachedValues().get(labelCode.toUpperCase());
+        final Label label = cache.get(labelCode);
         if (label == null) {
             return Optional.empty();
         }
@@ -90,6 +236,15 @@ public class LabelService {
      * @return corresponding DTO or null
      */
     public Optional<String> getByCodeAndLanguage(final String labelCode, final AppLang searchLang) {
+        final LabelDictionaries currentDictionaries = dictionaries;
+        if (currentDictionaries != null) {
+            // Fallback to default language is already applied
+            if (StringUtils.isBlank(labelCode) || searchLang == null) {
+                return Optional.empty();
+            }
+            return Optional.ofNullable(currentDictionaries.get(labelCode.trim(), searchLang));
+        }
+
         // Get DB content
         Optional<LabelDTO> label = getByCode(labelCode);
         if (label.isEmpty()) {
@@ -109,25 +264,222 @@ public class LabelService {
     }
 
 
+    /**
+     * To retrieve the fingerprint of all texts of a language, to build cache-busting URLs.
+     * It changes whenever a text of that language changes
+     * @param lang requested language
+     * @return fingerprint, or EMPTY if bundles are not available (PER_KEY mode: there is no complete list of labels)
+     */
+    public Optional<String> getBundleContentHash(final AppLang lang) {
+        final LabelDictionaries currentDictionaries = dictionaries;
+        if (currentDictionaries == null || lang == null) {
+            return Optional.empty();
+        }
+        return Optional.of(currentDictionaries.getContentHash(lang));
+    }
+
+    /**
+     * To be notified each time the bundles may have changed, for instance to prepare them before the first request
+     * ({@link CacheLoadingMode#FULL_PRELOAD} mode only). The listener is called by the refreshing thread: it must be quick
+     * @param listener to call, see {@link #getBundleContentHash(AppLang)} to get the new fingerprints
+     */
+    public void onBundlesChange(final Runnable listener) {
+        bundlesListeners.add(listener);
+    }
+
+    /**
+     * To retrieve all texts of a language at once, with the default language fallback already applied
+     * @param lang requested language
+     * @param codePrefix to only retrieve the labels whose code starts with this prefix (case insensitive), NULL or blank for all labels
+     * @param contentHash expected fingerprint, see {@link #getBundleContentHash(AppLang)}
+     * @return texts by label code, sorted by code. EMPTY if bundles are not available (PER_KEY mode) or if the texts changed
+     * since the fingerprint was read: the content would not match its fingerprint
+     */
+    public Optional<Map<String, String>> getBundle(final AppLang lang, final String codePrefix, final String contentHash) {
+        final LabelDictionaries currentDictionaries = dictionaries;
+        if (currentDictionaries == null || lang == null || !currentDictionaries.getContentHash(lang).equals(contentHash)) {
+            return Optional.empty();
+        }
+        final String normalizedPrefix = StringUtils.isBlank(codePrefix) ? "" : codePrefix.trim().toUpperCase();
+        return Optional.of(currentDictionaries.get(lang, normalizedPrefix));
+    }
+
+    /**
+     * To export all labels (enabled or not) as an Excel workbook, directly to the given output.
+     * Labels are read from the database page by page: the whole table is never in memory
+     * @param output where to write the workbook (ex: HTTP response). It is not closed
+     * @return number of exported labels
+     * @throws IOException failed to write the output
+     */
+    public long exportLabels(final OutputStream output) throws IOException {
+        return labelExcelWriter.exportLabels((lastCode) -> findPageAfterCode(lastCode, EXPORT_PAGE_SIZE), output);
+    }
+
+    /**
+     * To read labels page by page, in code order (keyset pagination)
+     * @param lastCode code of the last label of the previous page, NULL for the first page
+     * @param pageSize maximum number of labels
+     * @return next labels, sorted by code. Empty once all labels have been read
+     */
+    private List<Label> findPageAfterCode(final String lastCode, final int pageSize) {
+        if (lastCode == null) {
+            // Oracle: '' is NULL, "CODE > ''" would never match
+            return labelRepository.findAllByOrderByCodeAsc(PageRequest.of(0, pageSize));
+        }
+        return labelRepository.findByCodeGreaterThanOrderByCodeAsc(lastCode, PageRequest.of(0, pageSize));
+    }
+
+    /**
+     * To import labels from an Excel file (XLSX): new labels are inserted, labels whose texts changed are updated.
+     * <ul>
+     *     <li>The file is streamed, and written by chunks of JDBC batch size: memory does not depend on the file size</li>
+     *     <li>Each chunk is committed in its own transaction: database locks are not held while the rest of the file is parsed</li>
+     *     <li>Existing labels are loaded once, as fingerprints of their texts: unchanged rows are not written</li>
+     *     <li>Once a chunk is committed its labels are published to the cache, without reload. Other nodes are notified at the end</li>
+     * </ul>
+     * Existing labels that are not in the file are left as they are.
+     * On failure, chunks that were already committed are kept: importing the same file again only writes the remaining rows.
+     * @param excelFile file to import
+     * @return what happened to each row
+     * @throws BadRequestException the file cannot be read
+     */
+    public LabelImportReportDTO importLabels(final Path excelFile) {
+        final Map<String, String> existingHashes = loadContentHashes();
+        final LabelImportReportDTO report = new LabelImportReportDTO();
+        final Set<String> importedCodes = new HashSet<>();
+
+        final Optional<Long> nbOfRows;
+        try {
+            // Write failures are thrown as they are
+            nbOfRows = labelExcelReader.importLabelsFromFile(excelFile, importChunkSize, (chunk) -> {
+                final Map<String, Label> savedLabels = transactionTemplate.execute((status) -> importChunk(chunk, existingHashes, importedCodes, report));
+                // Committed: readers can see the new texts
+                cache.publish(savedLabels);
+            });
+        } finally {
+            if (report.getNbOfInserted() > 0 || report.getNbOfUpdated() > 0) {
+                // Once for the whole import, even a partial one
+                cacheRegistry.publishChange(CACHE_NAME);
+            }
+        }
+        if (nbOfRows.isEmpty()) {
+            throw new BadRequestException("Cannot read labels file, it must be a valid Excel file (XLSX)");
+        }
+        log.info("Labels import: {} rows | {}", nbOfRows.get(), report);
+        return report;
+    }
+
+    /**
+     * To retrieve the fingerprint of all existing labels, page by page: entities are not kept in memory
+     * @return texts fingerprint, by label code
+     */
+    private Map<String, String> loadContentHashes() {
+        final Map<String, String> contentHashes = new HashMap<>();
+        List<Label> page = findPageAfterCode(null, importChunkSize);
+        while (!page.isEmpty()) {
+            page.forEach((label) -> contentHashes.put(label.getCode(), getContentHash(label)));
+            final String lastCode = page.get(page.size() - 1).getCode();
+            entityManager.clear();
+            page = findPageAfterCode(lastCode, importChunkSize);
+        }
+        return contentHashes;
+    }
+
+    /**
+     * To write a chunk of imported labels: one JDBC batch of inserts, one of updates
+     * @param chunk imported labels
+     * @param existingHashes texts fingerprint of existing labels, by code. Updated with the written labels
+     * @param importedCodes codes already imported, to reject duplicates. Updated with the chunk codes
+     * @param report import report to update
+     * @return inserted and updated labels, by code
+     */
+    private Map<String, Label> importChunk(final List<Label> chunk, final Map<String, String> existingHashes, final Set<String> importedCodes,
+                             final LabelImportReportDTO report) {
+        final Date modificationDate = new Date();
+        final List<Label> newLabels = new ArrayList<>();
+        final Map<String, Label> changedLabels = new HashMap<>();
+        for (Label label : chunk) {
+            if (label.getCode() == null && Arrays.stream(AppLang.values()).allMatch((lang) -> label.getLang(lang) == null)) {
+                // Empty row
+                continue;
+            }
+            if (!isValidImport(label) || !importedCodes.add(label.getCode())) {
+                log.debug("Labels import: rejected row {}", label);
+                report.setNbOfRejected(report.getNbOfRejected() + 1);
+                continue;
+            }
+            final String contentHash = getContentHash(label);
+            final String existingHash = existingHashes.get(label.getCode());
+            if (existingHash == null) {
+                label.setIsActive(true);
+                label.setCreationDate(modificationDate);
+                label.setModificationDate(modificationDate);
+                newLabels.add(label);
+            } else if (existingHash.equals(contentHash)) {
+                report.setNbOfUnchanged(report.getNbOfUnchanged() + 1);
+            } else {
+                changedLabels.put(label.getCode(), label);
+            }
+            existingHashes.put(label.getCode(), contentHash);
+        }
+
+        final Map<String, Label> savedLabels = new HashMap<>(newLabels.size() + changedLabels.size());
+        if (!changedLabels.isEmpty()) {
+            for (Label entity : labelRepository.findByCodeIn(changedLabels.keySet())) {
+                final Label importedLabel = changedLabels.get(entity.getCode());
+                for (AppLang lang : AppLang.values()) {
+                    entity.setLang(lang, importedLabel.getLang(lang));
+                }
+                entity.setModificationDate(modificationDate);
+                savedLabels.put(entity.getCode(), entity);
+            }
+        }
+        labelRepository.saveAll(newLabels).forEach((label) -> savedLabels.put(label.getCode(), label));
+        // Write the chunk, then forget it: the persistence context does not grow with the file
+        entityManager.flush();
+        entityManager.clear();
+        report.setNbOfInserted(report.getNbOfInserted() + newLabels.size());
+        report.setNbOfUpdated(report.getNbOfUpdated() + changedLabels.size());
+        return savedLabels;
+    }
+
+    /**
+     * @param label imported label
+     * @return "true" if the label can be saved: code is set, code and texts are not too long
+     */
+    private static boolean isValidImport(final Label label) {
+        if (label.getCode() == null || label.getCode().length() > CODE_MAX_LENGTH) {
+            return false;
+        }
+        for (AppLang lang : AppLang.values()) {
+            final String text = label.getLang(lang);
+            if (text != null && text.length() > TEXT_MAX_LENGTH) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @param label label
+     * @return fingerprint of the label texts
+     */
+    private static String getContentHash(final Label label) {
+        final AppLang[] langs = AppLang.values();
+        final String[] texts = new String[langs.length];
+        for (int i = 0; i < langs.length; i++) {
+            texts[i] = label.getLang(langs[i]);
+        }
+        return ContentHashUtils.hash(texts);
+    }
+
     /**
      * To retrieve the default application's language
      * @return default application's language
      */
     public AppLang getDefaultLanguage() {
-        final AppLang defaultLanguage = FAILOVER_DEFAULT_APP_LANGUAGE;
-
-        // Get DB setting
-        final Optional<Object> defaultLangParam = parameterService.getValue(BusinessParam.APP_DEFAULT_LANGUAGE);
-        if (defaultLangParam.isEmpty()) {
-            // No DB settings have been found => use hard-coded value as default
-            return defaultLanguage;
-        } else {
-            // DB value has been retrieved
-            final String langCode = (String) defaultLangParam.get();
-            Optional<AppLang> langCodeEnum = AppLang.getLanguageForCode(langCode);
-            // return DB code || or use hard-coded value as default
-            return langCodeEnum.orElse(defaultLanguage);
-        }
+        // DB setting, or hard-coded value if there is no (valid) setting
+        return defaultLanguage;
     }
 
     /**
@@ -1,19 +1,34 @@
 package eu.daxiongmao.core.business;
 
+import eu.daxiongmao.core.api.error.ApiValidationError;
+import eu.daxiongmao.core.business.cache.CacheKeyEquivalence;
+import eu.daxiongmao.core.business.cache.DeltaCacheValueFunction;
+import eu.daxiongmao.core.business.cache.EntityCacheValueFunction;
 import eu.daxiongmao.core.business.cache.InnerCache;
+import eu.daxiongmao.core.business.cache.InnerCacheRegistry;
 import eu.daxiongmao.core.dao.ParameterRepository;
 import eu.daxiongmao.core.model.db.Parameter;
 import eu.daxiongmao.core.model.dto.ParameterDTO;
+import eu.daxiongmao.core.model.dto.ParameterLookupDTO;
+import eu.daxiongmao.core.model.enums.ParameterLookupStatus;
 import eu.daxiongmao.core.model.enums.param.IParameterEnum;
+import eu.daxiongmao.core.model.exception.BadRequestException;
+import eu.daxiongmao.core.model.exception.ConflictException;
 import eu.daxiongmao.core.model.exception.UnauthorizedException;
 import eu.daxiongmao.core.model.mapper.ParameterMapper;
+import eu.daxiongmao.core.utils.ContentHashUtils;
+import eu.daxiongmao.core.utils.StringToClassUtils;
 import lombok.extern.log4j.Log4j2;
 import org.apache.commons.lang3.StringUtils;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import javax.annotation.PostConstruct;
 import java.util.*;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
 
 /**
  * To interact with application's settings.
@@ -27,9 +42,30 @@ public class ParameterService {
     /** Delay to respect between 2 cache refresh, in seconds. This prevents multi-threads issues */
     private final static long DELAY_BETWEEN_REFRESH_IN_SECONDS = 30;
 
+    /** Cache name, for monitoring */
+    public final static String CACHE_NAME = "PARAMETERS";
+
+    /** Fingerprint seed of a missing parameter, so that "not found" answers can be cached as well */
+    private final static String MISSING_PARAM_HASH_SEED = "NOT_FOUND";
+
     private final ParameterRepository parameterRepository;
     private final ParameterMapper parameterMapper;
-    private InnerCache<String, Parameter> cache;
+    private final InnerCacheRegistry cacheRegistry;
+    private final ChangeFeed changeFeed;
+    private InnerCache<String, CachedParameter> cache;
+
+    /** Code-defined parameters, resolved on each refresh */
+    private volatile ParameterSlotTable slotTable = ParameterSlotTable.EMPTY;
+
+    /** All parameters as DTOs, filtered once per refresh */
+    private volatile ParameterViews views = ParameterViews.EMPTY;
+
+    /** Components to notify when a code-defined parameter value changed */
+    private final List<ChangeSubscription> changeSubscriptions = new CopyOnWriteArrayList<>();
+
+    /** Delay to respect between 2 full reload, in seconds. In between only modified parameters are loaded */
+    @Value("${app.cache.parameters.full-reload-delay-in-seconds:600}")
+    private long delayBetweenFullReloadInSeconds;
 
 
     private static ParameterService instance;
@@ -41,33 +77,136 @@ public class ParameterService {
     }
 
     @Autowired
-    public ParameterService(ParameterRepository parameterRepository, ParameterMapper parameterMapper) {
+    public ParameterService(ParameterRepository parameterRepository, ParameterMapper parameterMapper, InnerCacheRegistry cacheRegistry, ChangeFeed changeFeed) {
         this.parameterRepository = parameterRepository;
         this.parameterMapper = parameterMapper;
+        this.cacheRegistry = cacheRegistry;
+        this.changeFeed = changeFeed;
         instance = this;
     }
 
     @PostConstruct
     public void setup() {
-        // function to populate cache
-        cache = new InnerCache<>(log, DELAY_BETWEEN_REFRESH_IN_SECONDS, () -> {
-            // Get DB values
-            final List<Parameter> dbValues = parameterRepository.findAll();
-            // Update local cache
-            final Map<String, Parameter> valuesToCache = new HashMap<>(dbValues.size());
-            if (!dbValues.isEmpty()) {
-                dbValues.forEach((dbParam) -> {
-                    // Each param has an unique name, make it toUpperCase() for case insensitive search
-                    valuesToCache.put(dbParam.getParamName().toUpperCase(), dbParam);
+        // function to populate cache: full load on startup, then only changed parameters
+        final EntityCacheValueFunction<Parameter> entitiesFunction = new EntityCacheValueFunction<>(log, "Parameters",
+                parameterRepository::findAll,
+                parameterRepository::findByModificationDateGreaterThanEqual,
+                Parameter::getParamName);
+        cache = new InnerCache<>(CACHE_NAME, log, DELAY_BETWEEN_REFRESH_IN_SECONDS, delayBetweenFullReloadInSeconds,
+                new DeltaCacheValueFunction<String, CachedParameter>() {
+                    @Override
+                    public Map<String, CachedParameter> getValuesToCache() {
+                        return toCachedParameters(entitiesFunction.getValuesToCache());
+                    }
+
+                    @Override
+                    public Map<String, CachedParameter> getValuesChangedSince(Date highWaterMark) {
+                        return toCachedParameters(entitiesFunction.getValuesChangedSince(highWaterMark));
+                    }
+
+                    @Override
+                    public Date getModificationDate(CachedParameter value) {
+                        return value.getModificationDate();
+                    }
+
+                    @Override
+                    public long getVersion(CachedParameter value) {
+                        return value.getEntity().getVersion();
+                    }
                 });
-            }
-            log.info("Initialization complete | {} Parameters have been cached in memory", dbValues.size());
-            return valuesToCache;
+        // case insensitive search, without converting each search key
+        cache.setKeyEquivalence(CacheKeyEquivalence.caseInsensitive());
+        // resolve code-defined parameters and build DTOs once per refresh, then push changed values to subscribers
+        cache.addRefreshListener((previousValues, currentValues) -> {
+            slotTable = new ParameterSlotTable(currentValues);
+            views = new ParameterViews(currentValues.values(), (cachedParam) -> parameterMapper.dbEntityToDto(cachedParam.getEntity()));
+            changeSubscriptions.forEach((subscription) -> subscription.offer(getSubscriptionValue(currentValues.get(subscription.paramName))));
+            publishChanges(previousValues, currentValues);
         });
-        // cache DB values on startup
+        // cache DB values on startup, then keep them up-to-date in background
         cache.updateCache(true);
+        cacheRegistry.register(cache);
+    }
+
+
+    /**
+     * To be notified each time a parameter value changed, so a component can keep derived state in a field instead of
+     * looking up the parameter on each request.<br>
+     * The listener is called immediately with the current value, then by the refreshing thread after each refresh
+     * that changed the value. The value is NULL if the parameter is missing, disabled or invalid.
+     * @param param parameter to watch
+     * @param listener action to run with the new value (already converted into the parameter type)
+     * @param <T> parameter type
+     */
+    public <T> void onChange(final IParameterEnum param, final Consumer<T> listener) {
+        final ChangeSubscription subscription = new ChangeSubscription(param.getParamName(), listener);
+        changeSubscriptions.add(subscription);
+        subscription.offer(getSubscriptionValue(cache.getCachedValues().get(param.getParamName())));
     }
 
+    /**
+     * @param cachedParam cached parameter, can be NULL
+     * @return value to give to change listeners: sensitive values are given since listeners are internal components
+     */
+    private static Object getSubscriptionValue(final CachedParameter cachedParam) {
+        return cachedParam == null || !cachedParam.isActive() ? null : cachedParam.getValue();
+    }
+
+    /**
+     * To publish the parameters that changed between 2 cache contents. Sensitive and disabled parameters are reported as removed, without value
+     * @param previousValues previous cache content, empty on first load
+     * @param currentValues new cache content
+     */
+    private void publishChanges(final Map<String, CachedParameter> previousValues, final Map<String, CachedParameter> currentValues) {
+        if (previousValues.isEmpty()) {
+            // Initial load: subscribers start from the full list
+            return;
+        }
+        final Map<String, Object> changed = new HashMap<>();
+        final List<String> removed = new ArrayList<>();
+        currentValues.forEach((paramName, cachedParam) -> {
+            final CachedParameter previousParam = previousValues.get(paramName);
+            final boolean wasVisible = isPublic(previousParam);
+            if (isPublic(cachedParam)) {
+                if (!wasVisible || !previousParam.getContentHash().equals(cachedParam.getContentHash())) {
+                    changed.put(paramName, parameterMapper.dbEntityToDto(cachedParam.getEntity()));
+                }
+            } else if (wasVisible) {
+                removed.add(paramName);
+            }
+        });
+        previousValues.forEach((paramName, previousParam) -> {
+            if (isPublic(previousParam) && !currentValues.containsKey(paramName)) {
+                removed.add(paramName);
+            }
+        });
+        changeFeed.publish(CACHE_NAME, changed, removed);
+    }
+
+    /**
+     * @param cachedParam cached parameter, can be NULL
+     * @return "true" if the parameter can be viewed without any privilege
+     */
+    private static boolean isPublic(final CachedParameter cachedParam) {
+        return cachedParam != null && cachedParam.isActive() && !cachedParam.isSensitive();
+    }
+
+    /**
+     * To convert parameters into their typed values, once per load. Invalid values are reported here instead of on each read.
+     * @param entities parameters to cache
+     * @return cache entries
+     */
+    private Map<String, CachedParameter> toCachedParameters(final Map<String, Parameter> entities) {
+        final Map<String, CachedParameter> cachedParameters = new HashMap<>(entities.size());
+        entities.forEach((paramName, entity) -> {
+            final CachedParameter cachedParameter = new CachedParameter(entity);
+            if (!cachedParameter.isValid()) {
+                log.error("Bad parameter configuration | {} value cannot be converted to {}: {}", paramName, entity.getParamType(), cachedParameter.getConversionError());
+            }
+            cachedParameters.put(paramName, cachedParameter);
+        });
+        return cachedParameters;
+    }
 
     /**
      * To retrieve a parameter VALUE by its name.
@@ -76,7 +215,68 @@ public class ParameterService {
      * @return corresponding value or null
      */
     public Optional<Object> getValue(final IParameterEnum param) {
-        return getValueByName(param.getParamName(), false, false);
+        return Optional.ofNullable(getRawValue(param));
+    }
+
+    /**
+     * To retrieve an INTEGER parameter, without boxing nor cast
+     * @param param search parameter
+     * @param defaultValue value to use if the parameter is missing, disabled or not a number
+     * @return parameter value or default value
+     */
+    public int getInt(final IParameterEnum param, final int defaultValue) {
+        final Object value = getRawValue(param);
+        return value instanceof Number ? ((Number) value).intValue() : defaultValue;
+    }
+
+    /**
+     * To retrieve a LONG parameter, without boxing nor cast
+     * @param param search parameter
+     * @param defaultValue value to use if the parameter is missing, disabled or not a number
+     * @return parameter value or default value
+     */
+    public long getLong(final IParameterEnum param, final long defaultValue) {
+        final Object value = getRawValue(param);
+        return value instanceof Number ? ((Number) value).longValue() : defaultValue;
+    }
+
+    /**
+     * To retrieve a BOOLEAN parameter, without boxing nor cast
+     * @param param search parameter
+     * @param defaultValue value to use if the parameter is missing, disabled or not a boolean
+     * @return parameter value or default value
+     */
+    public boolean getBoolean(final IParameterEnum param, final boolean defaultValue) {
+        final Object value = getRawValue(param);
+        return value instanceof Boolean ? (Boolean) value : defaultValue;
+    }
+
+    /**
+     * To retrieve an ENUM parameter
+     * @param param search parameter
+     * @param enumClass expected enum
+     * @param defaultValue value to use if the parameter is missing, disabled or not of the expected enum
+     * @param <E> expected enum
+     * @return parameter value or default value
+     */
+    public <E extends Enum<E>> E getEnum(final IParameterEnum param, final Class<E> enumClass, final E defaultValue) {
+        final Object value = getRawValue(param);
+        return enumClass.isInstance(value) ? enumClass.cast(value) : defaultValue;
+    }
+
+    /**
+     * To retrieve a code-defined parameter typed value. Known enums are resolved by slot, others by name
+     * @param param search parameter
+     * @return parameter value or NULL if it is missing, disabled or invalid
+     */
+    private Object getRawValue(final IParameterEnum param) {
+        final CachedParameter cachedParam;
+        if (ParameterSlotTable.hasSlot(param)) {
+            cachedParam = checkAccess(slotTable.get(param), param.getParamName(), false, false);
+        } else {
+            cachedParam = getCachedParam(param.getParamName(), false, false).orElse(null);
+        }
+        return cachedParam == null ? null : cachedParam.getValue();
     }
 
     /**
@@ -85,14 +285,10 @@ public class ParameterService {
      * @param paramName search parameter
      * @param viewSensitiveParam boolean, "true" to view sensitive parameters ; "false" to hide sensitive parameters such as password. This is highly recommended for controllers
      * @param viewDisabledParam boolean, "true" to view disable parameters ; "false" to only show ACTIVE parameters
-     * @return corresponding value or null
+     * @return corresponding value (already converted into the parameter type) or EMPTY if the value is missing or invalid
      */
     public Optional<Object> getValueByName(final String paramName, boolean viewSensitiveParam, boolean viewDisabledParam) {
-        Optional<ParameterDTO> param = getParamByName(paramName, viewSensitiveParam, viewDisabledParam);
-        if (param.isEmpty()) {
-            return Optional.empty();
-        }
-        return Optional.ofNullable(param.get().getValue());
+        return getCachedParam(paramName, viewSensitiveParam, viewDisabledParam).map(CachedParameter::getValue);
     }
 
     /**
@@ -114,52 +310,260 @@ public class ParameterService {
      * @return corresponding DTO or null
      */
     public Optional<ParameterDTO> getParamByName(final String paramName, boolean viewSensitiveParam, boolean viewDisabledParam) {
+        // Conversion to DTO
+        return getCachedParam(paramName, viewSensitiveParam, viewDisabledParam).map((param) -> parameterMapper.dbEntityToDto(param.getEntity()));
+    }
+
+    /**
+     * To retrieve several parameters at once, from the same cache content (consistent view).<br>
+     * Unlike {@link #getParamByName(String, boolean, boolean)}, a restricted parameter does not fail the whole lookup:
+     * each name gets its own status.
+     * @param paramNames search parameters (case insensitive). Duplicates and blank names are ignored
+     * @param viewSensitiveParam boolean, "true" to view sensitive parameters ; "false" to report them as RESTRICTED
+     * @param viewDisabledParam boolean, "true" to view disable parameters ; "false" to report them as MISSING
+     * @return one result per distinct name, in request order
+     */
+    public List<ParameterLookupDTO> getParamsByNames(final Collection<String> paramNames, boolean viewSensitiveParam, boolean viewDisabledParam) {
+        // Single snapshot for all names
+        final Map<String, CachedParameter> cachedParameters = cache.getCachedValues();
+        final Set<String> distinctNames = new LinkedHashSet<>();
+        paramNames.stream().filter(StringUtils::isNotBlank).forEach((paramName) -> distinctNames.add(paramName.trim().toUpperCase()));
+
+        final List<ParameterLookupDTO> results = new ArrayList<>(distinctNames.size());
+        final List<String> restrictedNames = new ArrayList<>();
+        for (String paramName : distinctNames) {
+            final CachedParameter cachedParam = cachedParameters.get(paramName);
+            if (cachedParam == null || (!cachedParam.isActive() && !viewDisabledParam)) {
+                results.add(new ParameterLookupDTO(paramName, ParameterLookupStatus.MISSING, null));
+            } else if (cachedParam.isSensitive() && !viewSensitiveParam) {
+                restrictedNames.add(paramName);
+                results.add(new ParameterLookupDTO(paramName, ParameterLookupStatus.RESTRICTED, null));
+            } else {
+                results.add(new ParameterLookupDTO(paramName, ParameterLookupStatus.FOUND, parameterMapper.dbEntityToDto(cachedParam.getEntity())));
+            }
+        }
+        if (!restrictedNames.isEmpty()) {
+            log.warn("Data leak avoidance|Someone asked to view the sensitive parameters {} without authorization: nothing has been returned", restrictedNames);
+        }
+        return results;
+    }
+
+    /**
+     * To retrieve a cached parameter by its name, with access checks
+     * @param paramName search parameter
+     * @param viewSensitiveParam boolean, "true" to view sensitive parameters ; "false" to hide sensitive parameters
+     * @param viewDisabledParam boolean, "true" to view disable parameters ; "false" to only show ACTIVE parameters
+     * @return corresponding cache entry or EMPTY
+     */
+    private Optional<CachedParameter> getCachedParam(final String paramName, boolean viewSensitiveParam, boolean viewDisabledParam) {
         if (StringUtils.isBlank(paramName)) {
             return Optional.empty();
         }
         // Retrieve value from cache
-        final Parameter param = cache.getCachedValues().get(paramName.toUpperCase());
+        return Optional.ofNullable(checkAccess(cache.get(paramName), paramName, viewSensitiveParam, viewDisabledParam));
+    }
+
+    /**
+     * To check if a parameter can be viewed
+     * @param param cached parameter, can be NULL
+     * @param paramName search parameter, for logs
+     * @param viewSensitiveParam boolean, "true" to view sensitive parameters ; "false" to hide sensitive parameters
+     * @param viewDisabledParam boolean, "true" to view disable parameters ; "false" to only show ACTIVE parameters
+     * @return given parameter, or NULL if it is missing or disabled
+     * @throws UnauthorizedException sensitive parameter
+     */
+    private CachedParameter checkAccess(final CachedParameter param, final String paramName, boolean viewSensitiveParam, boolean viewDisabledParam) {
         if (param == null) {
-            return Optional.empty();
+            return null;
         }
         // Validity check (must be enabled)
-        if (!param.getIsActive() && !viewDisabledParam) {
+        if (!param.isActive() && !viewDisabledParam) {
             log.warn("Data leak avoidance|Someone tried to access a disabled parameter {}", paramName);
-            return Optional.empty();
+            return null;
         }
         // security check
-        if (param.getIsSensitive() && !viewSensitiveParam) {
+        if (param.isSensitive() && !viewSensitiveParam) {
             log.warn("Data leak avoidance|Someone asked to view the sensitive parameter {} without authorization: nothing has been returned", paramName);
             throw new UnauthorizedException("This information is restricted, you are not allowed to view '" + paramName + "'. Please contact our support.");
         }
-        // Conversion to DTO
-        return Optional.ofNullable(parameterMapper.dbEntityToDto(param));
+        return param;
     }
 
     /**
      * To retrieve all parameters at once
      * @param viewSensitiveParams boolean, "true" to view sensitive parameters ; "false" to hide sensitive parameters such as password. This is highly recommended for controllers
      * @param viewDisabledParam boolean, "true" to view disable parameters ; "false" to only show ACTIVE parameters
-     * @return corresponding DTOs or null
+     * @return corresponding DTOs, sorted by name (immutable list of copies: changing a DTO does not affect the cache)
      */
     public List<ParameterDTO> getAll(boolean viewSensitiveParams, boolean viewDisabledParam) {
-        // Retrieve value from cache
-        final List<Parameter> dbParameters = new ArrayList<>(cache.getCachedValues().values());
-
-        // Convert to DTOs
-        final List<ParameterDTO> dtos = new ArrayList<>();
-        for (Parameter dbParam : dbParameters) {
-            // Validity check (must be enabled)
-            if (!dbParam.getIsActive() && !viewDisabledParam) {
-                continue;
+        return getAllView(viewSensitiveParams, viewDisabledParam).getContent();
+    }
+
+    /**
+     * To retrieve all parameters at once, with their fingerprint. Both come from the same cache content,
+     * so the fingerprint can be used as HTTP entity tag of the content
+     * @param viewSensitiveParams boolean, "true" to view sensitive parameters ; "false" to hide sensitive parameters
+     * @param viewDisabledParam boolean, "true" to view disable parameters ; "false" to only show ACTIVE parameters
+     * @return see {@link #getAll(boolean, boolean)} and its fingerprint
+     */
+    public ParameterViews.View<List<ParameterDTO>> getAllView(boolean viewSensitiveParams, boolean viewDisabledParam) {
+        // Retry the initial load if it failed. Views are built on each refresh, nothing to convert here (only copies)
+        cache.getCachedValues();
+        return views.get(viewSensitiveParams, viewDisabledParam);
+    }
+
+    /**
+     * To retrieve a parameter with its fingerprint, with the same access checks as {@link #getParamByName(String, boolean, boolean)}.
+     * Both come from the same cache entry, so the fingerprint can be used as HTTP entity tag of the content.
+     * A missing parameter also has a fingerprint: "not found" answers can be cached too
+     * @param paramName search parameter
+     * @param viewSensitiveParam boolean, "true" to view sensitive parameters ; "false" to hide sensitive parameters
+     * @param viewDisabledParam boolean, "true" to view disable parameters ; "false" to only show ACTIVE parameters
+     * @return corresponding DTO (NULL if it is missing) and its fingerprint
+     */
+    public ParameterViews.View<ParameterDTO> getViewByName(final String paramName, boolean viewSensitiveParam, boolean viewDisabledParam) {
+        return getCachedParam(paramName, viewSensitiveParam, viewDisabledParam)
+                .map((param) -> new ParameterViews.View<>(param.getContentHash(), () -> parameterMapper.dbEntityToDto(param.getEntity())))
+                .orElseGet(() -> new ParameterViews.View<>(ContentHashUtils.hash(String.valueOf(paramName).trim().toUpperCase(), MISSING_PARAM_HASH_SEED), () -> null));
+    }
+
+    /**
+     * To update several parameters at once, in a single transaction (JDBC batch).<br>
+     * Each change must provide the version it is based on: if a parameter has been modified since, nothing is saved.
+     * Once committed the new values are published to the local cache and other nodes are notified, without full reload.<br>
+     * Only public parameters can be changed: sensitive and disabled parameters are rejected, and parameters cannot be disabled.
+     * @param changes parameters to update: value, and optionally description. Names, types and flags cannot be changed
+     * @return updated parameters, with their new version
+     * @throws BadRequestException invalid request: unknown or disabled parameter, duplicate, missing version, deactivation or value that does not match the parameter type
+     * @throws UnauthorizedException sensitive parameter
+     * @throws ConflictException at least one parameter has been modified by someone else
+     */
+    @Transactional
+    public List<ParameterDTO> updateAll(final List<ParameterDTO> changes) {
+        if (changes == null || changes.isEmpty()) {
+            throw new BadRequestException("There is no parameter to update");
+        }
+        // Request checks
+        final List<ApiValidationError> errors = new ArrayList<>();
+        final Map<String, ParameterDTO> changesByName = new LinkedHashMap<>(changes.size());
+        for (ParameterDTO change : changes) {
+            final String paramName = change == null ? null : change.getParamName();
+            if (StringUtils.isBlank(paramName)) {
+                errors.add(new ApiValidationError(ParameterDTO.class.getName(), "paramName", paramName, "cannot be blank"));
+            } else if (changesByName.put(paramName, change) != null) {
+                errors.add(new ApiValidationError(ParameterDTO.class.getName(), "paramName", paramName, "duplicate parameter"));
+            } else if (change.getVersion() == null) {
+                errors.add(new ApiValidationError(ParameterDTO.class.getName(), "version", paramName, "cannot be null"));
+            } else if (StringUtils.isBlank(change.getParamValue())) {
+                errors.add(new ApiValidationError(ParameterDTO.class.getName(), "paramValue", paramName, "cannot be blank"));
+            } else if (Boolean.FALSE.equals(change.getIsActive())) {
+                errors.add(new ApiValidationError(ParameterDTO.class.getName(), "isActive", paramName, "parameters cannot be disabled"));
+            }
+        }
+        final Map<String, Parameter> entities = new HashMap<>(changesByName.size());
+        if (errors.isEmpty()) {
+            parameterRepository.findByParamNameIn(changesByName.keySet()).forEach((entity) -> entities.put(entity.getParamName(), entity));
+            final List<String> sensitiveNames = new ArrayList<>();
+            entities.values().stream().filter((entity) -> Boolean.TRUE.equals(entity.getIsSensitive())).forEach((entity) -> sensitiveNames.add(entity.getParamName()));
+            if (!sensitiveNames.isEmpty()) {
+                log.warn("Data leak avoidance|Someone tried to change the sensitive parameters {}: nothing has been saved", sensitiveNames);
+                throw new UnauthorizedException("This information is restricted, you are not allowed to change " + sensitiveNames + ". Please contact our support.");
+            }
+            changesByName.forEach((paramName, change) -> {
+                final Parameter entity = entities.get(paramName);
+                if (entity == null || !Boolean.TRUE.equals(entity.getIsActive())) {
+                    // Disabled parameters are hidden, as for reads
+                    errors.add(new ApiValidationError(ParameterDTO.class.getName(), "paramName", paramName, "unknown parameter"));
+                } else if (!isValidValue(change.getParamValue(), entity.getParamType())) {
+                    errors.add(new ApiValidationError(ParameterDTO.class.getName(), "paramValue", change.getParamValue(), "cannot be converted to " + entity.getParamType()));
+                }
+            });
+        }
+        if (!errors.isEmpty()) {
+            throw new BadRequestException("Invalid parameters update", errors);
+        }
+
+        // Optimistic locking: all or nothing
+        for (ParameterDTO change : changesByName.values()) {
+            final Parameter entity = entities.get(change.getParamName());
+            if (entity.getVersion() != change.getVersion()) {
+                throw new ConflictException("Parameter '" + change.getParamName() + "' has been modified by someone else (version "
+                        + change.getVersion() + " -> " + entity.getVersion() + "). Please reload it and try again.");
             }
-            // security check, skip sensitive params if required
-            if (dbParam.getIsSensitive() && !viewSensitiveParams) {
-                continue;
+        }
+
+        // Apply changes. Version is checked again by the database on flush
+        final Date modificationDate = new Date();
+        final List<Parameter> updatedEntities = new ArrayList<>(changesByName.size());
+        changesByName.values().forEach((change) -> {
+            final Parameter entity = entities.get(change.getParamName());
+            entity.setParamValue(change.getParamValue().trim());
+            if (change.getDescription() != null) {
+                entity.setDescription(change.getDescription());
             }
-            dtos.add(parameterMapper.dbEntityToDto(dbParam));
+            entity.setModificationDate(modificationDate);
+            updatedEntities.add(entity);
+        });
+        parameterRepository.saveAll(updatedEntities);
+        parameterRepository.flush();
+        log.info("{} parameter(s) updated: {}", updatedEntities.size(), changesByName.keySet());
+
+        // Publish new values once committed: readers must never see uncommitted values
+        final Map<String, CachedParameter> cachedParameters = toCachedParameters(entities);
+        TransactionUtils.afterCommit(() -> {
+            cache.publish(cachedParameters);
+            cacheRegistry.publishChange(CACHE_NAME);
+        });
+
+        final List<ParameterDTO> updatedParams = new ArrayList<>(updatedEntities.size());
+        updatedEntities.forEach((entity) -> updatedParams.add(parameterMapper.dbEntityToDto(entity)));
+        return updatedParams;
+    }
+
+    /**
+     * @param paramValue value to check
+     * @param paramType parameter type
+     * @return "true" if the value can be converted into the parameter type
+     */
+    private static boolean isValidValue(final String paramValue, final String paramType) {
+        try {
+            return StringToClassUtils.getValue(paramValue, paramType) != null;
+        } catch (RuntimeException e) {
+            return false;
         }
-        return dtos;
     }
 
+    /**
+     * Component listening to a parameter. Remembers the last given value so a listener is only called on actual changes
+     */
+    private static class ChangeSubscription {
+        private final String paramName;
+        private final Consumer<Object> listener;
+        private boolean notified;
+        private Object lastValue;
+
+        @SuppressWarnings("unchecked")
+        private ChangeSubscription(final String paramName, final Consumer<?> listener) {
+            this.paramName = paramName;
+            this.listener = (Consumer<Object>) listener;
+        }
+
+        /**
+         * To give the current value to the listener, if it changed since last call
+         * @param value current value
+         */
+        private synchronized void offer(final Object value) {
+            if (notified && Objects.equals(lastValue, value)) {
+                return;
+            }
+            notified = true;
+            lastValue = value;
+            try {
+                listener.accept(value);
+            } catch (RuntimeException e) {
+                // A listener failure (ex: unexpected type) must not break the refresh nor other listeners
+                log.error("Parameter {} | change listener failure", paramName, e);
+            }
+        }
+    }
 }
@@ -0,0 +1,75 @@
+package eu.daxiongmao.core.business;
+
+import eu.daxiongmao.core.model.enums.param.BusinessParam;
+import eu.daxiongmao.core.model.enums.param.IParameterEnum;
+import eu.daxiongmao.core.model.enums.param.TechnicalParam;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Code-defined parameters ({@link TechnicalParam}, {@link BusinessParam}) resolved once per cache refresh.<br>
+ * Each enum constant has a fixed slot: offset of its enum class + ordinal. A lookup is an array read, without any
+ * string conversion or hash lookup. Instances are immutable: a new table is built on each refresh.
+ * @author Guillaume Diaz
+ * @version 1.0
+ * @since 2020/04
+ */
+final class ParameterSlotTable {
+
+    /** Enums with slots. Other {@link IParameterEnum} implementations are resolved by name */
+    private static final List<Class<? extends Enum<?>>> SLOTTED_ENUMS = List.of(TechnicalParam.class, BusinessParam.class);
+
+    /** Offset of each enum class in the table, "-1" for enums without slots */
+    private static final ClassValue<Integer> OFFSETS = new ClassValue<>() {
+        @Override
+        protected Integer computeValue(Class<?> type) {
+            int offset = 0;
+            for (Class<? extends Enum<?>> enumClass : SLOTTED_ENUMS) {
+                if (enumClass == type) {
+                    return offset;
+                }
+                offset += enumClass.getEnumConstants().length;
+            }
+            return -1;
+        }
+    };
+
+    /** Total number of slots */
+    private static final int NB_OF_SLOTS = SLOTTED_ENUMS.stream().mapToInt((enumClass) -> enumClass.getEnumConstants().length).sum();
+
+    /** Empty table, before first load */
+    static final ParameterSlotTable EMPTY = new ParameterSlotTable(Map.of());
+
+    /** Cached parameter of each slot, NULL if the parameter is not in database */
+    private final CachedParameter[] slots = new CachedParameter[NB_OF_SLOTS];
+
+    /**
+     * New table
+     * @param cachedParameters current cache content. Lookups must be case insensitive
+     */
+    ParameterSlotTable(final Map<String, CachedParameter> cachedParameters) {
+        for (Class<? extends Enum<?>> enumClass : SLOTTED_ENUMS) {
+            for (Enum<?> constant : enumClass.getEnumConstants()) {
+                slots[OFFSETS.get(enumClass) + constant.ordinal()] = cachedParameters.get(((IParameterEnum) constant).getParamName());
+            }
+        }
+    }
+
+    /**
+     * @param param code-defined parameter
+     * @return "true" if the parameter has a slot in the table
+     */
+    static boolean hasSlot(final IParameterEnum param) {
+        return param instanceof Enum && OFFSETS.get(((Enum<?>) param).getDeclaringClass()) >= 0;
+    }
+
+    /**
+     * @param param code-defined parameter, see {@link #hasSlot(IParameterEnum)}
+     * @return corresponding cached parameter or NULL if it is not in database
+     */
+    CachedParameter get(final IParameterEnum param) {
+        final Enum<?> constant = (Enum<?>) param;
+        return slots[OFFSETS.get(constant.getDeclaringClass()) + constant.ordinal()];
+    }
+}
@@ -0,0 +1,118 @@
+package eu.daxiongmao.core.business;
+
+import eu.daxiongmao.core.model.dto.ParameterDTO;
+import eu.daxiongmao.core.utils.ContentHashUtils;
+import lombok.Getter;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * All parameters as DTOs, already filtered for each combination of access rights (sensitive / disabled).<br>
+ * Views only depend on the cache content, so they are built once per cache refresh.
+ * Instances are immutable: a new set of views is built on each refresh.
+ * <p>Technical note: DTOs are mutable, so each caller gets its own copies. Copying is much cheaper than mapping the entities</p>
+ * @author Guillaume Diaz
+ * @version 1.3
+ * @since 2020/04
+ */
+public final class ParameterViews {
+
+    /** Empty views, before first load */
+    static final ParameterViews EMPTY = new ParameterViews(List.of(), (param) -> null);
+
+    /** Views, see {@link #indexOf(boolean, boolean)} */
+    private final List<View<List<ParameterDTO>>> views = new ArrayList<>(4);
+
+    /**
+     * New views
+     * @param cachedParameters current cache content
+     * @param mapper to convert a parameter into its DTO
+     */
+    ParameterViews(final Collection<CachedParameter> cachedParameters, final Function<CachedParameter, ParameterDTO> mapper) {
+        // Sorted by name, so that the output does not depend on the cache internal order
+        final List<CachedParameter> sortedParameters = new ArrayList<>(cachedParameters);
+        sortedParameters.sort(Comparator.comparing(CachedParameter::getParamName));
+        final List<ParameterDTO> dtos = new ArrayList<>(sortedParameters.size());
+        sortedParameters.forEach((cachedParam) -> dtos.add(mapper.apply(cachedParam)));
+
+        for (int index = 0; index < 4; index++) {
+            final boolean viewSensitiveParams = (index & 2) != 0;
+            final boolean viewDisabledParams = (index & 1) != 0;
+            final List<ParameterDTO> view = new ArrayList<>(dtos.size());
+            final List<String> viewHashes = new ArrayList<>(dtos.size());
+            for (int i = 0; i < sortedParameters.size(); i++) {
+                final CachedParameter cachedParam = sortedParameters.get(i);
+                if ((cachedParam.isActive() || viewDisabledParams) && (!cachedParam.isSensitive() || viewSensitiveParams)) {
+                    view.add(dtos.get(i));
+                    viewHashes.add(cachedParam.getContentHash());
+                }
+            }
+            final List<ParameterDTO> viewContent = List.copyOf(view);
+            views.add(new View<>(ContentHashUtils.hash(viewHashes.toArray(new String[0])), () -> copyOf(viewContent)));
+        }
+    }
+
+    /**
+     * @param viewSensitiveParams boolean, "true" to include sensitive parameters
+     * @param viewDisabledParams boolean, "true" to include disabled parameters
+     * @return corresponding view and its fingerprint
+     */
+    View<List<ParameterDTO>> get(final boolean viewSensitiveParams, final boolean viewDisabledParams) {
+        return views.get(indexOf(viewSensitiveParams, viewDisabledParams));
+    }
+
+    /**
+     * @param viewSensitiveParams boolean, "true" to include sensitive parameters
+     * @param viewDisabledParams boolean, "true" to include disabled parameters
+     * @return view index: bit 1 = sensitive, bit 0 = disabled
+     */
+    private static int indexOf(final boolean viewSensitiveParams, final boolean viewDisabledParams) {
+        return (viewSensitiveParams ? 2 : 0) | (viewDisabledParams ? 1 : 0);
+    }
+
+    /**
+     * @param dtos DTOs to copy
+     * @return immutable list of DTOs that belong to the caller
+     */
+    private static List<ParameterDTO> copyOf(final List<ParameterDTO> dtos) {
+        final List<ParameterDTO> copies = new ArrayList<>(dtos.size());
+        dtos.forEach((dto) -> copies.add(new ParameterDTO(dto)));
+        return List.copyOf(copies);
+    }
+
+    /**
+     * Content and its fingerprint, both taken from the same cache content: the fingerprint always describes the content
+     * @param <T> content type
+     */
+    public static final class View<T> {
+
+        /** Fingerprint of the content, the same on all nodes for the same content. To be used as HTTP entity tag */
+        @Getter
+        private final String contentHash;
+
+        /** To retrieve (a copy of) the content */
+        private final Supplier<T> content;
+
+        /**
+         * New view
+         * @param contentHash fingerprint of the content
+         * @param content to retrieve the content. Called on each {@link #getContent()}
+         */
+        View(final String contentHash, final Supplier<T> content) {
+            this.contentHash = contentHash;
+            this.content = content;
+        }
+
+        /**
+         * @return content, that belongs to the caller
+         */
+        public T getContent() {
+            return content.get();
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package eu.daxiongmao.core.business;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Transaction helpers shared by the business services.
+ * @author Guillaume Diaz
+ * @version 1.0
+ * @since 2020/04
+ */
+final class TransactionUtils {
+
+    private TransactionUtils() {
+        // utility class
+    }
+
+    /**
+     * To run an action once the current transaction is committed, or immediately without transaction.
+     * This is meant for cache refreshes: readers must never see uncommitted data
+     * @param action action to run
+     */
+    static void afterCommit(final Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
@@ -0,0 +1,618 @@
+package eu.daxiongmao.core.business.cache;
+
+import lombok.Getter;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+/**
+ * Key-value store with a maximum size (number of entries or weight) and an optional time-to-live per entry.<br>
+ * When full, entries are evicted according to a W-TinyLFU policy that keeps hot entries even under scan-heavy workloads:
+ * <ul>
+ *     <li>New entries go to a small LRU "window" (1% of the capacity)</li>
+ *     <li>When leaving the window, an entry is only admitted in the "main" space if it is accessed more often than the entry it would evict.
+ *     Access frequencies are estimated by a {@link FrequencySketch}</li>
+ *     <li>The main space is a segmented LRU: "probation" for entries accessed once, "protected" (80%) for entries accessed again</li>
+ * </ul>
+ * <p>Technical note: reads never take the eviction lock. Accesses are recorded in a lossy, striped buffer that is drained
+ * in batch by whoever gets the eviction lock first (next write, or a read that finds the buffer full and the lock free).</p>
+ * @param <T> Cache key
+ * @param <K> Cache Value
+ * @author Guillaume Diaz
+ * @version 1.1
+ * @since 2020/04
+ */
+public class BoundedCache<T, K> {
+
+    /** No size limit */
+    public static final long UNBOUNDED = Long.MAX_VALUE;
+
+    /** Share of the capacity dedicated to the admission window */
+    private static final double WINDOW_PERCENTAGE = 0.01;
+
+    /** Share of the main space dedicated to protected entries */
+    private static final double PROTECTED_PERCENTAGE = 0.80;
+
+    /** Queues where an entry can be */
+    private static final int NO_QUEUE = 0;
+    private static final int WINDOW = 1;
+    private static final int PROBATION = 2;
+    private static final int PROTECTED = 3;
+
+    /** Maximum weight of all entries, {@link #UNBOUNDED} for no limit */
+    @Getter
+    private final long maximumWeight;
+
+    /** To compute entries weight */
+    private final CacheWeigher<T, K> weigher;
+
+    /** Time to live of each entry, in nanoseconds. "0" if entries never expire */
+    private final long timeToLiveInNanos;
+
+    /** Entries */
+    private final ConcurrentHashMap<T, Node<T, K>> data = new ConcurrentHashMap<>();
+
+    /** To protect the eviction policy (queues, sketch, weights) */
+    private final ReentrantLock evictionLock = new ReentrantLock();
+
+    /** Accesses not yet applied to the eviction policy */
+    private final ReadBuffer<Node<T, K>> readBuffer;
+
+    /** Entries removed (expired) by readers, not yet removed from the eviction policy */
+    private final Queue<Node<T, K>> pendingRemovals = new ConcurrentLinkedQueue<>();
+
+    /** Number of evicted entries (size or expiration) */
+    private final LongAdder evictionCount = new LongAdder();
+
+    // ------------------ Eviction policy, guarded by evictionLock ------------------
+    private final FrequencySketch sketch;
+    private final LinkedDeque<T, K> windowQueue = new LinkedDeque<>();
+    private final LinkedDeque<T, K> probationQueue = new LinkedDeque<>();
+    private final LinkedDeque<T, K> protectedQueue = new LinkedDeque<>();
+    private final long windowMaximum;
+    private final long protectedMaximum;
+    private long windowWeight;
+    private long protectedWeight;
+    private long weightedSize;
+
+    /**
+     * New store without size limit nor expiration
+     */
+    public BoundedCache() {
+        this(UNBOUNDED, null);
+    }
+
+    /**
+     * New store bounded by number of entries
+     * @param maximumSize maximum number of entries, {@link #UNBOUNDED} for no limit
+     * @param timeToLive time to live of each entry after it has been written, NULL or zero if entries never expire
+     */
+    public BoundedCache(long maximumSize, Duration timeToLive) {
+        this(maximumSize, (key, value) -> 1, timeToLive);
+    }
+
+    /**
+     * New store bounded by weight
+     * @param maximumWeight maximum weight of all entries, {@link #UNBOUNDED} for no limit
+     * @param weigher to compute the weight of each entry
+     * @param timeToLive time to live of each entry after it has been written, NULL or zero if entries never expire
+     */
+    public BoundedCache(long maximumWeight, CacheWeigher<T, K> weigher, Duration timeToLive) {
+        if (maximumWeight < 0) {
+            throw new IllegalArgumentException("Maximum weight cannot be negative");
+        }
+        this.maximumWeight = maximumWeight;
+        this.weigher = weigher;
+        this.timeToLiveInNanos = timeToLive == null ? 0 : timeToLive.toNanos();
+        if (isBounded()) {
+            this.windowMaximum = Math.max(1, (long) (maximumWeight * WINDOW_PERCENTAGE));
+            this.protectedMaximum = (long) ((maximumWeight - windowMaximum) * PROTECTED_PERCENTAGE);
+            this.sketch = new FrequencySketch(maximumWeight);
+            this.readBuffer = new ReadBuffer<>();
+        } else {
+            this.windowMaximum = 0;
+            this.protectedMaximum = 0;
+            this.sketch = null;
+            this.readBuffer = null;
+        }
+    }
+
+    /**
+     * @return "true" if the number of entries (or weight) is limited
+     */
+    public boolean isBounded() {
+        return maximumWeight != UNBOUNDED;
+    }
+
+    /**
+     * @return "true" if entries expire after a while
+     */
+    public boolean isExpiring() {
+        return timeToLiveInNanos > 0;
+    }
+
+    /**
+     * To retrieve a value. This never waits for the eviction lock.
+     * @param key search key
+     * @return corresponding value, or NULL if missing or expired
+     */
+    public K get(final T key) {
+        final Node<T, K> node = data.get(key);
+        if (node == null) {
+            return null;
+        }
+        if (node.isExpired(timeToLiveInNanos, System.nanoTime())) {
+            if (data.remove(key, node)) {
+                evictionCount.increment();
+                if (isBounded()) {
+                    pendingRemovals.add(node);
+                    tryToDrain();
+                }
+            }
+            return null;
+        }
+        if (isBounded() && readBuffer.offer(node)) {
+            // Buffer is full: apply recorded accesses, unless someone else is already doing it
+            tryToDrain();
+        }
+        return node.value;
+    }
+
+    /**
+     * To add or replace a value
+     * @param key entry key
+     * @param value entry value
+     */
+    public void put(final T key, final K value) {
+        final int weight = isBounded() ? weigher.weigh(key, value) : 0;
+        final Node<T, K> node = new Node<>(key, value, weight, System.nanoTime());
+        final Node<T, K> previous = data.put(key, node);
+        if (!isBounded()) {
+            return;
+        }
+        evictionLock.lock();
+        try {
+            if (previous != null) {
+                unlink(previous);
+            }
+            if (data.get(key) == node) {
+                // Still the current entry (not replaced or removed in between)
+                sketch.increment(key);
+                node.queue = WINDOW;
+                windowQueue.addLast(node);
+                windowWeight += weight;
+                weightedSize += weight;
+            }
+            doMaintenance();
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    /**
+     * To remove a value
+     * @param key entry key
+     */
+    public void remove(final T key) {
+        final Node<T, K> node = data.remove(key);
+        if (node == null || !isBounded()) {
+            return;
+        }
+        evictionLock.lock();
+        try {
+            unlink(node);
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    /**
+     * To remove all values. Access frequencies are kept.
+     */
+    public void invalidateAll() {
+        if (!isBounded()) {
+            data.clear();
+            return;
+        }
+        evictionLock.lock();
+        try {
+            data.clear();
+            drainReadBuffer();
+            pendingRemovals.clear();
+            clearQueue(windowQueue);
+            clearQueue(probationQueue);
+            clearQueue(protectedQueue);
+            windowWeight = 0;
+            protectedWeight = 0;
+            weightedSize = 0;
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    /**
+     * To remove all expired values now, instead of waiting for them to be read or evicted.
+     */
+    public void expireEntries() {
+        if (!isExpiring()) {
+            return;
+        }
+        final long now = System.nanoTime();
+        data.forEach((key, node) -> {
+            if (node.isExpired(timeToLiveInNanos, now) && data.remove(key, node)) {
+                evictionCount.increment();
+                if (isBounded()) {
+                    pendingRemovals.add(node);
+                }
+            }
+        });
+        if (isBounded()) {
+            evictionLock.lock();
+            try {
+                doMaintenance();
+            } finally {
+                evictionLock.unlock();
+            }
+        }
+    }
+
+    /**
+     * @return number of entries (including expired entries not removed yet)
+     */
+    public int size() {
+        return data.size();
+    }
+
+    /**
+     * @return total weight of entries, as known by the eviction policy. "0" for unbounded caches
+     */
+    public long getWeightedSize() {
+        evictionLock.lock();
+        try {
+            return weightedSize;
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    /**
+     * @return number of entries evicted so far (size limit or expiration)
+     */
+    public long getEvictionCount() {
+        return evictionCount.sum();
+    }
+
+    /**
+     * @return copy of current non-expired entries. This is meant for monitoring, not for the read path
+     */
+    public Map<T, K> asMap() {
+        final long now = System.nanoTime();
+        final Map<T, K> values = new HashMap<>(data.size());
+        data.forEach((key, node) -> {
+            if (!node.isExpired(timeToLiveInNanos, now)) {
+                values.put(key, node.value);
+            }
+        });
+        return values;
+    }
+
+    /**
+     * To apply pending work on the eviction policy, only if nobody else is doing it. This never waits.
+     */
+    private void tryToDrain() {
+        if (evictionLock.tryLock()) {
+            try {
+                doMaintenance();
+            } finally {
+                evictionLock.unlock();
+            }
+        }
+    }
+
+    /**
+     * To apply pending accesses and removals, then evict entries if the cache is too big.
+     * Eviction lock must be held.
+     */
+    private void doMaintenance() {
+        drainReadBuffer();
+        Node<T, K> removedNode;
+        while ((removedNode = pendingRemovals.poll()) != null) {
+            unlink(removedNode);
+        }
+        evictEntries();
+    }
+
+    /**
+     * To apply recorded accesses to the eviction policy. Eviction lock must be held.
+     */
+    private void drainReadBuffer() {
+        readBuffer.drainTo(this::onAccess);
+    }
+
+    /**
+     * To record an access. Eviction lock must be held.
+     * @param node accessed entry
+     */
+    private void onAccess(final Node<T, K> node) {
+        sketch.increment(node.key);
+        switch (node.queue) {
+            case WINDOW:
+                windowQueue.moveToLast(node);
+                break;
+            case PROBATION:
+                // Accessed again: promote to protected
+                probationQueue.remove(node);
+                node.queue = PROTECTED;
+                protectedQueue.addLast(node);
+                protectedWeight += node.weight;
+                demoteProtectedEntries();
+                break;
+            case PROTECTED:
+                protectedQueue.moveToLast(node);
+                break;
+            default:
+                // Entry already removed
+                break;
+        }
+    }
+
+    /**
+     * To move the least recently used protected entries back to probation when protected space is full. Eviction lock must be held.
+     */
+    private void demoteProtectedEntries() {
+        while (protectedWeight > protectedMaximum && !protectedQueue.isEmpty()) {
+            final Node<T, K> demoted = protectedQueue.first();
+            protectedQueue.remove(demoted);
+            protectedWeight -= demoted.weight;
+            demoted.queue = PROBATION;
+            probationQueue.addLast(demoted);
+        }
+    }
+
+    /**
+     * To evict entries until the cache fits its maximum weight. Eviction lock must be held.
+     */
+    private void evictEntries() {
+        // Entries leaving the window become candidates for the main space (probation tail)
+        while (windowWeight > windowMaximum && !windowQueue.isEmpty()) {
+            final Node<T, K> candidate = windowQueue.first();
+            windowQueue.remove(candidate);
+            windowWeight -= candidate.weight;
+            candidate.queue = PROBATION;
+            probationQueue.addLast(candidate);
+        }
+
+        // Admission: the candidate only stays if it is more popular than the victim
+        while (weightedSize > maximumWeight) {
+            final Node<T, K> victim = probationQueue.first();
+            final Node<T, K> candidate = probationQueue.last();
+            if (victim == null) {
+                // Probation is empty: fallback to protected, then window
+                evict(!protectedQueue.isEmpty() ? protectedQueue.first() : windowQueue.first());
+            } else if (victim == candidate) {
+                evict(victim);
+            } else if (sketch.frequency(candidate.key) > sketch.frequency(victim.key)) {
+                evict(victim);
+            } else {
+                evict(candidate);
+            }
+        }
+    }
+
+    /**
+     * To evict an entry. Eviction lock must be held.
+     * @param node entry to evict
+     */
+    private void evict(final Node<T, K> node) {
+        if (node == null) {
+            // All queues are empty but the weight is still over the limit: the accounting is broken, do not hide it
+            throw new IllegalStateException("Cache weights are out of sync: weighted size " + weightedSize + " (window " + windowWeight
+                    + ", protected " + protectedWeight + ") with no entry to evict, maximum weight " + maximumWeight);
+        }
+        unlink(node);
+        if (data.remove(node.key, node)) {
+            evictionCount.increment();
+        }
+    }
+
+    /**
+     * To remove an entry from the eviction policy. Eviction lock must be held.
+     * @param node entry to remove
+     */
+    private void unlink(final Node<T, K> node) {
+        switch (node.queue) {
+            case WINDOW:
+                windowQueue.remove(node);
+                windowWeight -= node.weight;
+                break;
+            case PROBATION:
+                probationQueue.remove(node);
+                break;
+            case PROTECTED:
+                protectedQueue.remove(node);
+                protectedWeight -= node.weight;
+                break;
+            default:
+                // Not linked
+                return;
+        }
+        weightedSize -= node.weight;
+        node.queue = NO_QUEUE;
+    }
+
+    /**
+     * To empty a queue. Eviction lock must be held.
+     * @param queue queue to clear
+     */
+    private void clearQueue(final LinkedDeque<T, K> queue) {
+        while (!queue.isEmpty()) {
+            final Node<T, K> node = queue.first();
+            queue.remove(node);
+            node.queue = NO_QUEUE;
+        }
+    }
+
+    /**
+     * Cache entry
+     * @param <T> Cache key
+     * @param <K> Cache Value
+     */
+    private static final class Node<T, K> {
+        private final T key;
+        private final K value;
+        private final int weight;
+        private final long writeTimeInNanos;
+
+        // Guarded by evictionLock
+        private int queue = NO_QUEUE;
+        private Node<T, K> previous;
+        private Node<T, K> next;
+
+        private Node(T key, K value, int weight, long writeTimeInNanos) {
+            this.key = key;
+            this.value = value;
+            this.weight = weight;
+            this.writeTimeInNanos = writeTimeInNanos;
+        }
+
+        private boolean isExpired(final long timeToLiveInNanos, final long now) {
+            return timeToLiveInNanos > 0 && now - writeTimeInNanos >= timeToLiveInNanos;
+        }
+    }
+
+    /**
+     * Doubly linked list of entries, in access order (first = least recently used). Not thread-safe.
+     * @param <T> Cache key
+     * @param <K> Cache Value
+     */
+    private static final class LinkedDeque<T, K> {
+        private Node<T, K> head;
+        private Node<T, K> tail;
+
+        private boolean isEmpty() {
+            return head == null;
+        }
+
+        private Node<T, K> first() {
+            return head;
+        }
+
+        private Node<T, K> last() {
+            return tail;
+        }
+
+        private void addLast(final Node<T, K> node) {
+            node.previous = tail;
+            node.next = null;
+            if (tail == null) {
+                head = node;
+            } else {
+                tail.next = node;
+            }
+            tail = node;
+        }
+
+        private void remove(final Node<T, K> node) {
+            if (node.previous == null) {
+                head = node.next;
+            } else {
+                node.previous.next = node.next;
+            }
+            if (node.next == null) {
+                tail = node.previous;
+            } else {
+                node.next.previous = node.previous;
+            }
+            node.previous = null;
+            node.next = null;
+        }
+
+        private void moveToLast(final Node<T, K> node) {
+            if (node != tail) {
+                remove(node);
+                addLast(node);
+            }
+        }
+    }
+
+    /**
+     * Lossy, striped, multiple producers / single consumer buffer.
+     * Producers never block: when a stripe is full (or contended) the element is dropped,
+     * this is acceptable because the eviction policy only needs a sample of the accesses.
+     * @param <E> buffered elements
+     */
+    private static final class ReadBuffer<E> {
+        /** Size of each stripe, must be a power of 2 */
+        private static final int STRIPE_SIZE = 16;
+        private static final int STRIPE_MASK = STRIPE_SIZE - 1;
+
+        private final Stripe<E>[] stripes;
+        private final int stripesMask;
+
+        @SuppressWarnings("unchecked")
+        private ReadBuffer() {
+            final int nbOfStripes = FrequencySketch.ceilingPowerOfTwo(Math.max(2, Runtime.getRuntime().availableProcessors()));
+            this.stripes = new Stripe[nbOfStripes];
+            for (int i = 0; i < nbOfStripes; i++) {
+                stripes[i] = new Stripe<>();
+            }
+            this.stripesMask = nbOfStripes - 1;
+        }
+
+        /**
+         * To record an element
+         * @param element element to record
+         * @return "true" if the stripe is full and should be drained
+         */
+        private boolean offer(final E element) {
+            final long threadId = Thread.currentThread().getId();
+            final Stripe<E> stripe = stripes[(int) (threadId ^ (threadId >>> 16)) & stripesMask];
+            final long readCounter = stripe.readCounter;
+            final long writeCounter = stripe.writeCounter.get();
+            if (writeCounter - readCounter >= STRIPE_SIZE) {
+                return true;
+            }
+            if (stripe.writeCounter.compareAndSet(writeCounter, writeCounter + 1)) {
+                stripe.buffer.lazySet((int) (writeCounter & STRIPE_MASK), element);
+            }
+            return false;
+        }
+
+        /**
+         * To consume all recorded elements. Single consumer only (eviction lock must be held)
+         * @param consumer elements consumer
+         */
+        private void drainTo(final Consumer<E> consumer) {
+            for (Stripe<E> stripe : stripes) {
+                long readCounter = stripe.readCounter;
+                final long writeCounter = stripe.writeCounter.get();
+                for (; readCounter < writeCounter; readCounter++) {
+                    final int index = (int) (readCounter & STRIPE_MASK);
+                    final E element = stripe.buffer.get(index);
+                    if (element == null) {
+                        // Producer did not publish its element yet
+                        break;
+                    }
+                    stripe.buffer.lazySet(index, null);
+                    consumer.accept(element);
+                }
+                stripe.readCounter = readCounter;
+            }
+        }
+
+        private static final class Stripe<E> {
+            private final AtomicReferenceArray<E> buffer = new AtomicReferenceArray<>(STRIPE_SIZE);
+            private final AtomicLong writeCounter = new AtomicLong();
+            private volatile long readCounter;
+        }
+    }
+}
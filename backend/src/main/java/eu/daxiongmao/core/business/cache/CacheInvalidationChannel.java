@@ -0,0 +1,27 @@
+package eu.daxiongmao.core.business.cache;
+
+import java.util.Map;
+
+/**
+ * Channel to share caches changes between application's nodes.<br>
+ * Each cache has a generation number that is incremented on every change of the cached data.
+ * Nodes poll the generations (this must be cheap) and reload a cache only when its generation changed.
+ * @author Guillaume Diaz
+ * @version 1.1
+ * @since 2020/04
+ */
+public interface CacheInvalidationChannel {
+
+    /**
+     * @return current generation of each known cache, by cache name
+     * @throws Exception something went wrong
+     */
+    Map<String, Long> getGenerations() throws Exception;
+
+    /**
+     * To notify all nodes that a cache content changed
+     * @param cacheName cache name
+     * @return new generation of the cache
+     */
+    long publish(String cacheName);
+}
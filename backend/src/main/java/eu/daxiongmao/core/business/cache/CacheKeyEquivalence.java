@@ -0,0 +1,98 @@
+package eu.daxiongmao.core.business.cache;
+
+import java.util.Map;
+
+/**
+ * Strategy to compare cache keys, when plain {@link Object#equals(Object)} is not the expected behaviour
+ * (ex: case insensitive codes). Implementations must not allocate: they are on the read path.
+ * @param <T> Cache key
+ * @author Guillaume Diaz
+ * @version 1.1
+ * @since 2020/04
+ */
+public interface CacheKeyEquivalence<T> {
+
+    /**
+     * @param key cache key, never NULL
+     * @return hash code, equal for equivalent keys
+     */
+    int hash(T key);
+
+    /**
+     * @param storedKey key of a cached value, never NULL
+     * @param searchKey search key, never NULL
+     * @return "true" if both keys designate the same value
+     */
+    boolean equivalent(T storedKey, T searchKey);
+
+    /**
+     * @param key cache key
+     * @return canonical form of the key, as stored in database. This should return the given instance when it is already canonical
+     */
+    T normalize(T key);
+
+    /**
+     * To build an immutable map that uses this comparison. Lookups do not allocate anything
+     * @param source values to copy. If several keys are equivalent, only one of them is kept. NULL keys and values are not supported
+     * @param <K> value type
+     * @return immutable map
+     */
+    default <K> Map<T, K> immutableMap(final Map<T, K> source) {
+        return new KeyEquivalenceMap<>(this, source);
+    }
+
+    /**
+     * @return case insensitive comparison of String keys. Canonical form is upper case
+     */
+    static CacheKeyEquivalence<String> caseInsensitive() {
+        return CaseInsensitiveKeyEquivalence.INSTANCE;
+    }
+
+    /**
+     * Case insensitive comparison of String keys, without creating new strings
+     */
+    final class CaseInsensitiveKeyEquivalence implements CacheKeyEquivalence<String> {
+
+        private static final CaseInsensitiveKeyEquivalence INSTANCE = new CaseInsensitiveKeyEquivalence();
+
+        private CaseInsensitiveKeyEquivalence() {
+            super();
+        }
+
+        @Override
+        public int hash(final String key) {
+            int hash = 0;
+            for (int i = 0; i < key.length(); i++) {
+                hash = 31 * hash + toUpperCase(key.charAt(i));
+            }
+            return hash;
+        }
+
+        @Override
+        public boolean equivalent(final String storedKey, final String searchKey) {
+            return storedKey.length() == searchKey.length() && storedKey.regionMatches(true, 0, searchKey, 0, searchKey.length());
+        }
+
+        @Override
+        public String normalize(final String key) {
+            for (int i = 0; i < key.length(); i++) {
+                if (toUpperCase(key.charAt(i)) != key.charAt(i)) {
+                    return key.toUpperCase();
+                }
+            }
+            // Already upper case
+            return key;
+        }
+
+        /**
+         * @param c character
+         * @return upper case character. ASCII fast path, same folding as {@link String#regionMatches(boolean, int, String, int, int)} otherwise
+         */
+        private static char toUpperCase(final char c) {
+            if (c < 128) {
+                return c >= 'a' && c <= 'z' ? (char) (c - ('a' - 'A')) : c;
+            }
+            return Character.toUpperCase(Character.toLowerCase(Character.toUpperCase(c)));
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package eu.daxiongmao.core.business.cache;
+
+import java.util.Optional;
+
+/**
+ * To retrieve a single value to cache, on demand
+ * @param <T> Cache key
+ * @param <K> Cache Value
+ * @author Guillaume Diaz
+ * @version 1.0
+ * @since 2020/04
+ */
+@FunctionalInterface
+public interface CacheKeyLoader<T, K> {
+
+    /**
+     * Dedicated function to retrieve the value of a particular key.
+     * @param key key to load
+     * @return corresponding value or EMPTY if it does not exist
+     * @throws Exception something went wrong
+     */
+    Optional<K> load(T key) throws Exception;
+
+}
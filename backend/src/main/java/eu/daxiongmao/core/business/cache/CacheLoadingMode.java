@@ -0,0 +1,17 @@
+package eu.daxiongmao.core.business.cache;
+
+/**
+ * How an inner cache gets its values
+ * @author Guillaume Diaz
+ * @version 1.0
+ * @since 2020/04
+ */
+public enum CacheLoadingMode {
+
+    /** All values are loaded at once and refreshed periodically. Best for small tables (parameters, labels) */
+    FULL_PRELOAD,
+
+    /** Values are loaded one by one on first access, then dropped on each refresh. Best for large or unbounded key spaces (users, etc.) */
+    PER_KEY
+
+}
@@ -0,0 +1,23 @@
+package eu.daxiongmao.core.business.cache;
+
+import java.util.Map;
+
+/**
+ * To be notified when the content of a cache changed, for instance to rebuild derived data once per refresh
+ * instead of on each read ({@link CacheLoadingMode#FULL_PRELOAD} mode only).
+ * @param <T> Cache key
+ * @param <K> Cache Value
+ * @author Guillaume Diaz
+ * @version 1.0
+ * @since 2020/04
+ */
+@FunctionalInterface
+public interface CacheRefreshListener<T, K> {
+
+    /**
+     * Called by the refreshing thread, right after the new content has been published
+     * @param previousValues previous cache content (immutable), empty on first load
+     * @param currentValues new cache content (immutable)
+     */
+    void onRefresh(Map<T, K> previousValues, Map<T, K> currentValues);
+}
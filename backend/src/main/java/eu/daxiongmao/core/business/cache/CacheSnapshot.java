@@ -0,0 +1,116 @@
+package eu.daxiongmao.core.business.cache;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Immutable view of the cache content at a given time.<br>
+ * A snapshot is never modified once published: a refresh builds a new one and replaces the previous reference.
+ * @param <T> Cache key
+ * @param <K> Cache Value
+ * @author Guillaume Diaz
+ * @version 1.1
+ * @since 2020/04
+ */
+@Getter
+@RequiredArgsConstructor(access = AccessLevel.PRIVATE)
+final class CacheSnapshot<T, K> {
+
+    /** Initial snapshot, before any successful load */
+    private static final CacheSnapshot<?, ?> NOT_LOADED = new CacheSnapshot<>(Map.of(), null, null, null);
+
+    /** Cached values (immutable) */
+    private final Map<T, K> values;
+
+    /** Moment of the load (UTC), NULL if nothing has ever been loaded */
+    private final LocalDateTime refreshTime;
+
+    /** Moment of the last full load (UTC), NULL if nothing has ever been loaded */
+    private final LocalDateTime fullLoadTime;
+
+    /** Most recent modification date among cached values, NULL if unknown. Only relevant for delta loading */
+    private final Date highWaterMark;
+
+    /**
+     * @param <T> Cache key
+     * @param <K> Cache value
+     * @return initial snapshot, before any successful load
+     */
+    @SuppressWarnings("unchecked")
+    static <T, K> CacheSnapshot<T, K> notLoaded() {
+        return (CacheSnapshot<T, K>) NOT_LOADED;
+    }
+
+    /**
+     * To create a new snapshot from freshly loaded values (full load)
+     * @param loadedValues values to cache. They are copied, later changes on the given map have no effect.
+     * @param highWaterMark most recent modification date among loaded values, NULL if unknown
+     * @param keyEquivalence how to compare keys, NULL to use {@link Object#equals(Object)}
+     * @param <T> Cache key
+     * @param <K> Cache value
+     * @return new snapshot
+     */
+    static <T, K> CacheSnapshot<T, K> of(final Map<T, K> loadedValues, final Date highWaterMark, final CacheKeyEquivalence<T> keyEquivalence) {
+        final LocalDateTime now = LocalDateTime.now(ZoneOffset.UTC);
+        return new CacheSnapshot<>(copyOf(loadedValues, keyEquivalence), now, now, highWaterMark);
+    }
+
+    /**
+     * To create a new snapshot that contains the current values updated with the given changes (delta load)
+     * @param changedValues values to add or replace
+     * @param newHighWaterMark most recent modification date after merge
+     * @param keyEquivalence how to compare keys, NULL to use {@link Object#equals(Object)}
+     * @return new snapshot. The current one is not modified
+     */
+    CacheSnapshot<T, K> merge(final Map<T, K> changedValues, final Date newHighWaterMark, final CacheKeyEquivalence<T> keyEquivalence) {
+        final LocalDateTime now = LocalDateTime.now(ZoneOffset.UTC);
+        if (changedValues.isEmpty()) {
+            // Nothing changed: keep the same content
+            return new CacheSnapshot<>(values, now, fullLoadTime, newHighWaterMark);
+        }
+        final Map<T, K> mergedValues = new HashMap<>(values);
+        mergedValues.putAll(changedValues);
+        return new CacheSnapshot<>(copyOf(mergedValues, keyEquivalence), now, fullLoadTime, newHighWaterMark);
+    }
+
+    /**
+     * To create a new snapshot that contains the current values updated with values written by the application itself.
+     * Refresh times and high water mark are kept, so the next delta load still reads changes made by others in between.
+     * @param changedValues values to add or replace
+     * @param keyEquivalence how to compare keys, NULL to use {@link Object#equals(Object)}
+     * @return new snapshot. The current one is not modified
+     */
+    CacheSnapshot<T, K> with(final Map<T, K> changedValues, final CacheKeyEquivalence<T> keyEquivalence) {
+        final Map<T, K> mergedValues = new HashMap<>(values);
+        mergedValues.putAll(changedValues);
+        return new CacheSnapshot<>(copyOf(mergedValues, keyEquivalence), refreshTime, fullLoadTime, highWaterMark);
+    }
+
+    /**
+     * @param values values to copy
+     * @param keyEquivalence how to compare keys, NULL to use {@link Object#equals(Object)}
+     * @param <T> Cache key
+     * @param <K> Cache value
+     * @return immutable copy of the values
+     */
+    private static <T, K> Map<T, K> copyOf(final Map<T, K> values, final CacheKeyEquivalence<T> keyEquivalence) {
+        if (keyEquivalence == null) {
+            return Map.copyOf(values);
+        }
+        return new KeyEquivalenceMap<>(keyEquivalence, values);
+    }
+
+    /**
+     * @return "true" if that snapshot comes from a successful load
+     */
+    boolean isLoaded() {
+        return refreshTime != null;
+    }
+}
@@ -0,0 +1,142 @@
+package eu.daxiongmao.core.business.cache;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Statistics of a cache: lookups and loads.<br>
+ * Technical note: all counters are striped ({@link LongAdder}) so that concurrent readers do not contend on the same memory location.
+ * Values are only summed when they are read, which is rare (monitoring).
+ * @author Guillaume Diaz
+ * @version 1.0
+ * @since 2020/04
+ */
+public class CacheStats {
+
+    /** Upper bounds of load latency histogram buckets, in milliseconds. Last bucket is unbounded */
+    private static final long[] LOAD_LATENCY_BUCKETS_IN_MS = { 1, 5, 10, 25, 50, 100, 250, 500, 1_000, 2_500, 5_000, 10_000 };
+
+    /** Number of lookups answered with a cached value */
+    private final LongAdder hitCount = new LongAdder();
+
+    /** Number of lookups answered by the negative cache (key known to be missing) */
+    private final LongAdder negativeHitCount = new LongAdder();
+
+    /** Number of lookups that were not answered from memory: missing key in a full snapshot, or load on demand */
+    private final LongAdder missCount = new LongAdder();
+
+    /** Number of successful loads (full, delta or single key) */
+    private final LongAdder loadSuccessCount = new LongAdder();
+
+    /** Number of failed loads */
+    private final LongAdder loadFailureCount = new LongAdder();
+
+    /** Total time spent loading values, in nanoseconds */
+    private final LongAdder totalLoadTimeInNanos = new LongAdder();
+
+    /** Number of loads per duration range, see {@link #LOAD_LATENCY_BUCKETS_IN_MS} */
+    private final LongAdder[] loadLatencyHistogram = new LongAdder[LOAD_LATENCY_BUCKETS_IN_MS.length + 1];
+
+    /**
+     * New statistics, all counters at zero
+     */
+    public CacheStats() {
+        for (int i = 0; i < loadLatencyHistogram.length; i++) {
+            loadLatencyHistogram[i] = new LongAdder();
+        }
+    }
+
+    void recordHit() {
+        hitCount.increment();
+    }
+
+    void recordNegativeHit() {
+        negativeHitCount.increment();
+    }
+
+    void recordMiss() {
+        missCount.increment();
+    }
+
+    /**
+     * @param loadTimeInNanos load duration
+     */
+    void recordLoadSuccess(final long loadTimeInNanos) {
+        loadSuccessCount.increment();
+        recordLoadTime(loadTimeInNanos);
+    }
+
+    /**
+     * @param loadTimeInNanos time spent until the failure
+     */
+    void recordLoadFailure(final long loadTimeInNanos) {
+        loadFailureCount.increment();
+        recordLoadTime(loadTimeInNanos);
+    }
+
+    private void recordLoadTime(final long loadTimeInNanos) {
+        totalLoadTimeInNanos.add(loadTimeInNanos);
+        final long loadTimeInMs = TimeUnit.NANOSECONDS.toMillis(loadTimeInNanos);
+        int bucket = 0;
+        while (bucket < LOAD_LATENCY_BUCKETS_IN_MS.length && loadTimeInMs > LOAD_LATENCY_BUCKETS_IN_MS[bucket]) {
+            bucket++;
+        }
+        loadLatencyHistogram[bucket].increment();
+    }
+
+    /**
+     * @return number of lookups answered with a cached value
+     */
+    public long getHitCount() {
+        return hitCount.sum();
+    }
+
+    /**
+     * @return number of lookups answered by the negative cache (key known to be missing, no database access)
+     */
+    public long getNegativeHitCount() {
+        return negativeHitCount.sum();
+    }
+
+    /**
+     * @return number of lookups that were not answered from memory
+     */
+    public long getMissCount() {
+        return missCount.sum();
+    }
+
+    /**
+     * @return number of successful loads
+     */
+    public long getLoadSuccessCount() {
+        return loadSuccessCount.sum();
+    }
+
+    /**
+     * @return number of failed loads
+     */
+    public long getLoadFailureCount() {
+        return loadFailureCount.sum();
+    }
+
+    /**
+     * @return total time spent loading values (successful or not), in milliseconds
+     */
+    public long getTotalLoadTimeInMs() {
+        return TimeUnit.NANOSECONDS.toMillis(totalLoadTimeInNanos.sum());
+    }
+
+    /**
+     * @return number of loads per duration range. Key: range upper bound (ex: "<=10ms"), in ascending order
+     */
+    public Map<String, Long> getLoadLatencyHistogram() {
+        final Map<String, Long> histogram = new LinkedHashMap<>();
+        for (int i = 0; i < LOAD_LATENCY_BUCKETS_IN_MS.length; i++) {
+            histogram.put("<=" + LOAD_LATENCY_BUCKETS_IN_MS[i] + "ms", loadLatencyHistogram[i].sum());
+        }
+        histogram.put(">" + LOAD_LATENCY_BUCKETS_IN_MS[LOAD_LATENCY_BUCKETS_IN_MS.length - 1] + "ms", loadLatencyHistogram[LOAD_LATENCY_BUCKETS_IN_MS.length].sum());
+        return histogram;
+    }
+}
@@ -0,0 +1,21 @@
+package eu.daxiongmao.core.business.cache;
+
+/**
+ * To compute the weight of a cache entry, for caches bounded by weight instead of number of entries
+ * @param <T> Cache key
+ * @param <K> Cache Value
+ * @author Guillaume Diaz
+ * @version 1.0
+ * @since 2020/04
+ */
+@FunctionalInterface
+public interface CacheWeigher<T, K> {
+
+    /**
+     * @param key cache key
+     * @param value cache value
+     * @return entry weight, must be positive or zero
+     */
+    int weigh(T key, K value);
+
+}
@@ -0,0 +1,59 @@
+package eu.daxiongmao.core.business.cache;
+
+import eu.daxiongmao.core.dao.CacheVersionRepository;
+import eu.daxiongmao.core.model.db.CacheVersion;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Invalidation channel based on the "CACHE_VERSIONS" table.<br>
+ * Polling is a single query on a table that has one row per cache.
+ * On Oracle, triggers also increment the generation on any change of the cached tables (including manual SQL updates).
+ * @author Guillaume Diaz
+ * @version 1.0
+ * @since 2020/04
+ */
+@Component
+@Log4j2
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "app.cache.invalidation.channel", havingValue = "database", matchIfMissing = true)
+public class DatabaseCacheInvalidationChannel implements CacheInvalidationChannel {
+
+    private final CacheVersionRepository cacheVersionRepository;
+
+    @Override
+    public Map<String, Long> getGenerations() {
+        final List<CacheVersion> versions = cacheVersionRepository.findAll();
+        final Map<String, Long> generations = new HashMap<>(versions.size());
+        versions.forEach((version) -> generations.put(version.getCacheName(), version.getGeneration()));
+        return generations;
+    }
+
+    /**
+     * {@inheritDoc}<br>
+     * Own transaction: this is typically called once the change itself has been committed
+     */
+    @Override
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public long publish(final String cacheName) {
+        if (cacheVersionRepository.incrementGeneration(cacheName) == 0) {
+            // First change of that cache
+            final CacheVersion version = new CacheVersion();
+            version.setCacheName(cacheName);
+            version.setGeneration(1);
+            cacheVersionRepository.save(version);
+            log.info("Cache {} declared for cross-node invalidation", cacheName);
+            return version.getGeneration();
+        }
+        // Row is locked by the increment until commit: this is our own generation
+        return cacheVersionRepository.findById(cacheName).map(CacheVersion::getGeneration).orElse(0L);
+    }
+}
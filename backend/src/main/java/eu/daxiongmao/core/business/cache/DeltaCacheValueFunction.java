@@ -0,0 +1,42 @@
+package eu.daxiongmao.core.business.cache;
+
+import java.util.Date;
+import java.util.Map;
+
+/**
+ * To retrieve values to cache, with incremental (delta) loading.<br>
+ * The full load ({@link #getValuesToCache()}) is only used on startup and at a slow cadence to catch deletions.
+ * In between, only the values changed since the last refresh are loaded and merged into the cache.
+ * Values are read again for a while after their modification (overlap window): a value is only merged if its version changed.
+ * @param <T> Cache key
+ * @param <K> Cache Value
+ * @author Guillaume Diaz
+ * @version 1.1
+ * @since 2020/04
+ */
+public interface DeltaCacheValueFunction<T, K> extends CacheValueFunction<T, K> {
+
+    /**
+     * Dedicated function to retrieve the values that changed since a given moment.
+     * @param highWaterMark most recent modification date known by the cache
+     * @return values changed since the given date (modification date greater or equal)
+     * @throws Exception something went wrong
+     */
+    Map<T, K> getValuesChangedSince(Date highWaterMark) throws Exception;
+
+    /**
+     * To retrieve the last modification date of a cached value
+     * @param value cached value
+     * @return last modification date, or NULL if unknown
+     */
+    Date getModificationDate(K value);
+
+    /**
+     * To retrieve the version of a cached value. Modification dates are not precise enough to detect changes
+     * (Oracle DATE: one second), the version is incremented on each change
+     * @param value cached value
+     * @return version
+     */
+    long getVersion(K value);
+
+}
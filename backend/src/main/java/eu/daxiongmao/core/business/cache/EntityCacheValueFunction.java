@@ -0,0 +1,74 @@
+package eu.daxiongmao.core.business.cache;
+
+import eu.daxiongmao.core.model.db.GenericEntity;
+import lombok.RequiredArgsConstructor;
+import org.apache.logging.log4j.Logger;
+
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * To cache database entities, with incremental loading based on entities modification date.
+ * Each entity is cached by a unique (upper-case) key.
+ * @param <E> Database entity
+ * @author Guillaume Diaz
+ * @version 1.1
+ * @since 2020/04
+ */
+@RequiredArgsConstructor
+public class EntityCacheValueFunction<E extends GenericEntity> implements DeltaCacheValueFunction<String, E> {
+
+    /** Logger to use to track loads */
+    private final Logger log;
+
+    /** Entities name, for logs (ex: Parameters) */
+    private final String entitiesName;
+
+    /** To retrieve all entities */
+    private final Supplier<List<E>> findAll;
+
+    /** To retrieve the entities modified since a given date */
+    private final Function<Date, List<E>> findModifiedSince;
+
+    /** To retrieve entity's unique key */
+    private final Function<E, String> keyExtractor;
+
+    @Override
+    public Map<String, E> getValuesToCache() {
+        // Get DB values
+        final List<E> dbValues = findAll.get();
+        final Map<String, E> valuesToCache = toCacheEntries(dbValues);
+        log.info("Initialization complete | {} {} have been cached in memory", dbValues.size(), entitiesName);
+        return valuesToCache;
+    }
+
+    @Override
+    public Map<String, E> getValuesChangedSince(Date highWaterMark) {
+        return toCacheEntries(findModifiedSince.apply(highWaterMark));
+    }
+
+    @Override
+    public Date getModificationDate(E value) {
+        return value.getModificationDate();
+    }
+
+    @Override
+    public long getVersion(E value) {
+        return value.getVersion();
+    }
+
+    /**
+     * @param dbValues database values
+     * @return corresponding cache entries
+     */
+    private Map<String, E> toCacheEntries(final List<E> dbValues) {
+        final Map<String, E> valuesToCache = new HashMap<>(dbValues.size());
+        // Each entity has an unique key, make it toUpperCase() for case insensitive search
+        dbValues.forEach((dbValue) -> valuesToCache.put(keyExtractor.apply(dbValue).toUpperCase(), dbValue));
+        return valuesToCache;
+    }
+}
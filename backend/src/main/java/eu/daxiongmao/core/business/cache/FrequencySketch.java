@@ -0,0 +1,138 @@
+package eu.daxiongmao.core.business.cache;
+
+/**
+ * Approximate access frequency of cache keys (Count-Min sketch with 4-bit counters).<br>
+ * Each key is mapped to 4 counters; its frequency is the minimum of them. Counters are halved periodically (aging)
+ * so that formerly popular keys do not stay in the cache forever.
+ * <p>Technical note: this is not thread-safe, it must be used under the cache eviction lock.</p>
+ * @author Guillaume Diaz
+ * @version 1.0
+ * @since 2020/04
+ */
+final class FrequencySketch {
+
+    /** Hash seeds, one per counter */
+    private static final long[] SEEDS = { 0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL, 0xcbf29ce484222325L };
+
+    /** To halve all 4-bit counters of a long at once */
+    private static final long RESET_MASK = 0x7777777777777777L;
+
+    /** To count odd counters (lost during halving) */
+    private static final long ONE_MASK = 0x1111111111111111L;
+
+    /** Maximum value of a counter */
+    private static final int MAX_FREQUENCY = 15;
+
+    /** Counters: each long holds 16 counters of 4 bits */
+    private final long[] table;
+
+    /** To compute table index */
+    private final int tableMask;
+
+    /** Number of increments before aging */
+    private final int sampleSize;
+
+    /** Number of increments since last aging */
+    private int size;
+
+    /**
+     * New sketch
+     * @param expectedNbOfEntries expected number of cache entries
+     */
+    FrequencySketch(final long expectedNbOfEntries) {
+        final int capacity = (int) Math.max(8, Math.min(expectedNbOfEntries, 1 << 24));
+        this.table = new long[ceilingPowerOfTwo(capacity)];
+        this.tableMask = table.length - 1;
+        this.sampleSize = 10 * capacity;
+    }
+
+    /**
+     * @param key cache key
+     * @return estimated number of accesses to the key, between 0 and 15
+     */
+    int frequency(final Object key) {
+        final int hash = spread(key.hashCode());
+        final int start = (hash & 3) << 2;
+        int frequency = MAX_FREQUENCY;
+        for (int i = 0; i < SEEDS.length; i++) {
+            final int index = indexOf(hash, i);
+            final int count = (int) ((table[index] >>> ((start + i) << 2)) & 0xfL);
+            frequency = Math.min(frequency, count);
+        }
+        return frequency;
+    }
+
+    /**
+     * To record an access to the given key
+     * @param key cache key
+     */
+    void increment(final Object key) {
+        final int hash = spread(key.hashCode());
+        final int start = (hash & 3) << 2;
+        boolean added = false;
+        for (int i = 0; i < SEEDS.length; i++) {
+            added |= incrementAt(indexOf(hash, i), start + i);
+        }
+        if (added && ++size == sampleSize) {
+            reset();
+        }
+    }
+
+    /**
+     * To increment a counter, unless it reached the maximum value
+     * @param index table index
+     * @param counterIndex counter index inside the long, between 0 and 15
+     * @return "true" if the counter has been incremented
+     */
+    private boolean incrementAt(final int index, final int counterIndex) {
+        final int offset = counterIndex << 2;
+        final long mask = 0xfL << offset;
+        if ((table[index] & mask) != mask) {
+            table[index] += 1L << offset;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Aging: halve all counters
+     */
+    private void reset() {
+        int nbOfOddCounters = 0;
+        for (int i = 0; i < table.length; i++) {
+            nbOfOddCounters += Long.bitCount(table[i] & ONE_MASK);
+            table[i] = (table[i] >>> 1) & RESET_MASK;
+        }
+        size = (size - (nbOfOddCounters >>> 2)) >>> 1;
+    }
+
+    /**
+     * @param hash key hash
+     * @param counterNumber counter number, between 0 and 3
+     * @return table index of the counter
+     */
+    private int indexOf(final int hash, final int counterNumber) {
+        long index = (hash + SEEDS[counterNumber]) * SEEDS[counterNumber];
+        index += index >>> 32;
+        return ((int) index) & tableMask;
+    }
+
+    /**
+     * To protect against poor hash functions
+     * @param hashCode key hash code
+     * @return better distributed hash
+     */
+    private static int spread(int hashCode) {
+        int hash = ((hashCode >>> 16) ^ hashCode) * 0x45d9f3b;
+        hash = ((hash >>> 16) ^ hash) * 0x45d9f3b;
+        return (hash >>> 16) ^ hash;
+    }
+
+    /**
+     * @param value positive value
+     * @return the smallest power of two greater or equal to the given value
+     */
+    static int ceilingPowerOfTwo(final int value) {
+        return 1 << -Integer.numberOfLeadingZeros(value - 1);
+    }
+}
@@ -0,0 +1,36 @@
+package eu.daxiongmao.core.business.cache;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-process invalidation channel: changes are only visible inside the current JVM.
+ * This is meant for tests and single node setups.
+ * @author Guillaume Diaz
+ * @version 1.0
+ * @since 2020/04
+ */
+@Component
+@ConditionalOnProperty(name = "app.cache.invalidation.channel", havingValue = "in-memory")
+public class InMemoryCacheInvalidationChannel implements CacheInvalidationChannel {
+
+    /** Generation by cache name */
+    private final Map<String, AtomicLong> generations = new ConcurrentHashMap<>();
+
+    @Override
+    public Map<String, Long> getGenerations() {
+        final Map<String, Long> currentGenerations = new HashMap<>(generations.size());
+        generations.forEach((cacheName, generation) -> currentGenerations.put(cacheName, generation.get()));
+        return currentGenerations;
+    }
+
+    @Override
+    public long publish(final String cacheName) {
+        return generations.computeIfAbsent(cacheName, (name) -> new AtomicLong()).incrementAndGet();
+    }
+}
@@ -1,79 +1,375 @@
 package eu.daxiongmao.core.business.cache;
 
-import lombok.RequiredArgsConstructor;
+import lombok.Getter;
+import lombok.Setter;
 import org.apache.logging.log4j.Logger;
 
 import java.time.Duration;
 import java.time.LocalDateTime;
 import java.time.ZoneOffset;
 import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
 
 /**
- * Cache utility class, this should be embedded in other classes.
+ * Cache utility class, this should be embedded in other classes.<br>
+ * Readers always work on an immutable snapshot: a refresh builds the new content aside and publishes it with a single reference swap,
+ * so a reader never sees an empty or partially loaded dictionary.<br>
+ * When registered with refresh-ahead (see {@link InnerCacheRegistry}) the cache is refreshed in background and readers never trigger any load.<br>
+ * When the caching function supports it (see {@link DeltaCacheValueFunction}) only the changed values are loaded on refresh;
+ * a full load is only done at a slower cadence, to catch deletions. Delta loads look back a little before the last known
+ * modification date, so that transactions committed late (or dated by another node clock) are not missed.<br>
+ * Failed refreshes are retried with an exponential backoff: while the database is unavailable the cache keeps serving the last good snapshot
+ * (or answers immediately with an empty one) and refreshes are skipped until the backoff delay is over.<br>
+ * In {@link CacheLoadingMode#PER_KEY} mode nothing is preloaded: each value is loaded on first access and dropped on refresh.
+ * Concurrent misses on the same key are coalesced: only one load is done, other callers wait for its result.
+ * Loaded values can be kept in a {@link BoundedCache} to cap memory usage (maximum size or weight, time to live).
+ * Unknown keys can be remembered as well (negative cache, see {@link #enableNegativeCache(long, Duration)}) so that repeated lookups
+ * of missing keys do not hit the database.<br>
+ * Keys can be compared with a custom strategy, for instance case insensitive (see {@link #setKeyEquivalence(CacheKeyEquivalence)}):
+ * callers do not have to normalize (and allocate) search keys.
  * @param <T> Cache key
  * @param <K> Cache Value
  * @author Guillaume Diaz
- * @version 1.0
+ * @version 1.5
  * @since 2020/03
  */
-@RequiredArgsConstructor
 public class InnerCache<T, K> {
 
     /** Maximum time to wait to get lock in seconds */
     private static final int MAX_TIME_TO_WAIT_TO_GET_LOCK_IN_SECONDS = 10;
 
+    /** Delay to wait after a first refresh failure, in seconds. It doubles on each consecutive failure */
+    private static final long INITIAL_BACKOFF_IN_SECONDS = 1;
+
+    /** Maximum delay to wait between 2 refresh attempts after failures, in seconds */
+    private static final long MAX_BACKOFF_IN_SECONDS = 300;
+
+    /**
+     * Delta loads read the values modified since the high water mark minus this window, in seconds.
+     * A modification date is set when the row is written (sysdate, or the node clock), not when it is committed:
+     * a transaction that commits after a refresh can be dated before the high water mark.
+     */
+    private static final long DELTA_LOAD_OVERLAP_IN_SECONDS = 60;
+
+    /** Cache name, for monitoring */
+    @Getter
+    private final String name;
+
     /** Logger to use to track exceptions */
     private final Logger log;
 
-    /** Delay to respect between 2 cache refresh, in seconds. This prevents multi-threads issues */
-    private final long delayBetweenRefreshInSeconds;
+    /** Delay to respect between 2 cache refresh, in seconds. This prevents multi-threads issues. Can be changed at runtime, next refresh will use it */
+    @Getter
+    @Setter
+    private volatile long delayBetweenRefreshInSeconds;
 
-    /** Way to retrieve values to cache periodically */
+    /** Delay to respect between 2 full loads, in seconds. Only relevant for delta loading */
+    @Getter
+    private final long delayBetweenFullReloadInSeconds;
+
+    /** Way to retrieve values to cache periodically. NULL in {@link CacheLoadingMode#PER_KEY} mode */
     private final CacheValueFunction<T, K> cachingFunction;
 
+    /** Way to retrieve a single value on demand. NULL in {@link CacheLoadingMode#FULL_PRELOAD} mode */
+    private final CacheKeyLoader<T, K> keyLoader;
+
+    /** How values are loaded */
+    @Getter
+    private final CacheLoadingMode loadingMode;
+
     /**
-     * Cache dictionary
+     * Current cache content
      * <ul>
      *     <li>Key: parameter name of type T</li>
      *     <li>Value: parameter value of type K</li>
      * </ul>
+     * The snapshot is immutable, it is replaced (never modified) on refresh.
      */
-    private final Map<T, K> cachedValues = new ConcurrentHashMap<>();
+    private volatile CacheSnapshot<T, K> snapshot = CacheSnapshot.notLoaded();
 
     /** To avoid concurrent DB operations */
     private final Lock lock = new ReentrantLock();
 
-    /** Moment of the last update. This avoid to avoid constant cache update. */
-    private LocalDateTime lastUpdateCacheTime;
+    /** Duration of the last successful load, in nanoseconds */
+    private volatile long lastLoadDurationInNanos;
+
+    /** Boolean flag. "true" when refreshes are done in background by {@link InnerCacheRegistry} */
+    private volatile boolean refreshAhead = false;
+
+    /** Number of consecutive refresh failures. "0" when the last refresh succeeded */
+    private final AtomicInteger consecutiveFailures = new AtomicInteger();
+
+    /** Moment (System.nanoTime) from which a new refresh can be attempted after failures */
+    private volatile long nextAttemptAllowedAtNanos;
+
+    /** Values loaded on demand ({@link CacheLoadingMode#PER_KEY} mode only). Unbounded by default */
+    private final BoundedCache<T, K> loadedValues;
+
+    /** Keys known to be missing ({@link CacheLoadingMode#PER_KEY} mode only). NULL when negative caching is disabled */
+    private volatile BoundedCache<T, Boolean> missingKeys;
+
+    /** How keys are compared. NULL to use {@link Object#equals(Object)} */
+    private volatile CacheKeyEquivalence<T> keyEquivalence;
+
+    /** To notify content changes ({@link CacheLoadingMode#FULL_PRELOAD} mode only) */
+    private final List<CacheRefreshListener<T, K>> refreshListeners = new CopyOnWriteArrayList<>();
+
+    /** Lookups and loads statistics */
+    @Getter
+    private final CacheStats stats = new CacheStats();
+
+    /** Loads in progress ({@link CacheLoadingMode#PER_KEY} mode only), to share a single load between concurrent callers */
+    private final Map<T, CompletableFuture<Optional<K>>> runningLoads = new ConcurrentHashMap<>();
+
+    /**
+     * New cache, each refresh is a full load
+     * @param name cache name, for monitoring
+     * @param log logger to use to track exceptions
+     * @param delayBetweenRefreshInSeconds delay to respect between 2 cache refresh, in seconds
+     * @param cachingFunction way to retrieve values to cache periodically
+     */
+    public InnerCache(String name, Logger log, long delayBetweenRefreshInSeconds, CacheValueFunction<T, K> cachingFunction) {
+        this(name, log, delayBetweenRefreshInSeconds, delayBetweenRefreshInSeconds, cachingFunction);
+    }
+
+    /**
+     * New cache with incremental refresh
+     * @param name cache name, for monitoring
+     * @param log logger to use to track exceptions
+     * @param delayBetweenRefreshInSeconds delay to respect between 2 cache refresh, in seconds
+     * @param delayBetweenFullReloadInSeconds delay to respect between 2 full loads, in seconds. In between, only changed values are loaded
+     * @param cachingFunction way to retrieve values to cache periodically
+     */
+    public InnerCache(String name, Logger log, long delayBetweenRefreshInSeconds, long delayBetweenFullReloadInSeconds, CacheValueFunction<T, K> cachingFunction) {
+        this.name = name;
+        this.log = log;
+        this.delayBetweenRefreshInSeconds = delayBetweenRefreshInSeconds;
+        this.delayBetweenFullReloadInSeconds = delayBetweenFullReloadInSeconds;
+        this.cachingFunction = cachingFunction;
+        this.keyLoader = null;
+        this.loadingMode = CacheLoadingMode.FULL_PRELOAD;
+        this.loadedValues = null;
+    }
+
+    /**
+     * New cache with per-key loading: each value is loaded on first access, then kept until next refresh
+     * @param name cache name, for monitoring
+     * @param log logger to use to track exceptions
+     * @param delayBetweenRefreshInSeconds delay to respect between 2 cache refresh, in seconds. On refresh all loaded values are dropped
+     * @param keyLoader way to retrieve a single value on demand
+     */
+    public InnerCache(String name, Logger log, long delayBetweenRefreshInSeconds, CacheKeyLoader<T, K> keyLoader) {
+        this(name, log, delayBetweenRefreshInSeconds, keyLoader, new BoundedCache<>());
+    }
+
+    /**
+     * New cache with per-key loading and a bounded storage: each value is loaded on first access, then kept until next refresh, eviction or expiration
+     * @param name cache name, for monitoring
+     * @param log logger to use to track exceptions
+     * @param delayBetweenRefreshInSeconds delay to respect between 2 cache refresh, in seconds.
+     *                                     On refresh expired values are removed; if values do not expire all loaded values are dropped
+     * @param keyLoader way to retrieve a single value on demand
+     * @param store where to keep loaded values
+     */
+    public InnerCache(String name, Logger log, long delayBetweenRefreshInSeconds, CacheKeyLoader<T, K> keyLoader, BoundedCache<T, K> store) {
+        this.name = name;
+        this.log = log;
+        this.delayBetweenRefreshInSeconds = delayBetweenRefreshInSeconds;
+        this.delayBetweenFullReloadInSeconds = delayBetweenRefreshInSeconds;
+        this.cachingFunction = null;
+        this.keyLoader = keyLoader;
+        this.loadingMode = CacheLoadingMode.PER_KEY;
+        this.loadedValues = store;
+    }
+
+    /**
+     * To retrieve a single value.
+     * <ul>
+     *     <li>{@link CacheLoadingMode#FULL_PRELOAD}: lock-free read of the current snapshot</li>
+     *     <li>{@link CacheLoadingMode#PER_KEY}: the value is loaded on first access. Concurrent callers of the same key share a single load</li>
+     * </ul>
+     * @param key search key
+     * @return corresponding value or NULL
+     */
+    public K get(final T key) {
+        if (key == null) {
+            return null;
+        }
+        if (loadingMode == CacheLoadingMode.FULL_PRELOAD) {
+            // Snapshot is complete: a missing key is not in the database either
+            final K value = getCachedValues().get(key);
+            if (value != null) {
+                stats.recordHit();
+            } else {
+                stats.recordMiss();
+            }
+            return value;
+        }
+        // Per-key store is a regular map: use the canonical form of the key
+        final T storeKey = keyEquivalence == null ? key : keyEquivalence.normalize(key);
+        final K value = loadedValues.get(storeKey);
+        if (value != null) {
+            stats.recordHit();
+            return value;
+        }
+        final BoundedCache<T, Boolean> currentMissingKeys = missingKeys;
+        if (currentMissingKeys != null && currentMissingKeys.get(storeKey) != null) {
+            stats.recordNegativeHit();
+            return null;
+        }
+        stats.recordMiss();
+        return loadKey(storeKey);
+    }
+
+    /**
+     * To compare keys with a custom strategy instead of {@link Object#equals(Object)}. This applies from the next refresh.
+     * <ul>
+     *     <li>{@link CacheLoadingMode#FULL_PRELOAD}: snapshots are built with the given strategy, lookups do not allocate</li>
+     *     <li>{@link CacheLoadingMode#PER_KEY}: search keys are converted to their canonical form</li>
+     * </ul>
+     * @param keyEquivalence how to compare keys, NULL to use {@link Object#equals(Object)}
+     */
+    public void setKeyEquivalence(final CacheKeyEquivalence<T> keyEquivalence) {
+        this.keyEquivalence = keyEquivalence;
+    }
+
+    /**
+     * To remember unknown keys for a while ({@link CacheLoadingMode#PER_KEY} mode only).
+     * Without this, every lookup of a missing key goes to the database. Known missing keys are all forgotten on refresh.
+     * @param maximumSize maximum number of missing keys to remember. Least used keys are forgotten first
+     * @param timeToLive how long a missing key is remembered. Keep it short: a key created meanwhile stays invisible until then
+     */
+    public void enableNegativeCache(final long maximumSize, final Duration timeToLive) {
+        if (loadingMode == CacheLoadingMode.PER_KEY) {
+            this.missingKeys = new BoundedCache<>(maximumSize, timeToLive);
+        }
+    }
+
+    /**
+     * To be notified each time the cache content changed ({@link CacheLoadingMode#FULL_PRELOAD} mode only).
+     * If values are already loaded the listener is notified immediately.
+     * @param listener listener to notify
+     */
+    public void addRefreshListener(final CacheRefreshListener<T, K> listener) {
+        refreshListeners.add(listener);
+        final CacheSnapshot<T, K> current = snapshot;
+        if (current.isLoaded()) {
+            notifyRefresh(listener, Map.of(), current.getValues());
+        }
+    }
+
+    /**
+     * @return number of cached values. This does not trigger any load
+     */
+    public int getSize() {
+        if (loadingMode == CacheLoadingMode.PER_KEY) {
+            return loadedValues.size();
+        }
+        return snapshot.getValues().size();
+    }
+
+    /**
+     * @return number of values evicted because of size limit or expiration ({@link CacheLoadingMode#PER_KEY} mode only)
+     */
+    public long getEvictionCount() {
+        if (loadingMode == CacheLoadingMode.PER_KEY) {
+            return loadedValues.getEvictionCount();
+        }
+        return 0;
+    }
 
     /**
-     * To retrieve the current cached values
-     * @return cached values
+     * To retrieve the current cached values.
+     * <ul>
+     *     <li>{@link CacheLoadingMode#FULL_PRELOAD}: this is lock-free, the returned map is the current immutable snapshot</li>
+     *     <li>{@link CacheLoadingMode#PER_KEY}: copy of the values loaded so far</li>
+     * </ul>
+     * @return cached values (read-only)
      */
     public Map<T, K> getCachedValues() {
-        if (cachedValues.isEmpty()) {
-            updateCache(false);
+        if (loadingMode == CacheLoadingMode.PER_KEY) {
+            return Collections.unmodifiableMap(loadedValues.asMap());
+        }
+        final CacheSnapshot<T, K> current = snapshot;
+        if (!current.isLoaded() && !refreshAhead && !isCircuitOpen()) {
+            // Initial load failed: retry, unless another thread is already doing it
+            refreshIfIdle();
+            return snapshot.getValues();
+        }
+        return current.getValues();
+    }
+
+    /**
+     * @return time elapsed since the last successful refresh, or EMPTY if nothing has been loaded yet
+     */
+    public Optional<Duration> getLastRefreshAge() {
+        final CacheSnapshot<T, K> current = snapshot;
+        if (!current.isLoaded()) {
+            return Optional.empty();
+        }
+        return Optional.of(Duration.between(current.getRefreshTime(), LocalDateTime.now(ZoneOffset.UTC)));
+    }
+
+    /**
+     * @return duration of the last successful load, or EMPTY if nothing has been loaded yet.
+     * Always EMPTY in {@link CacheLoadingMode#PER_KEY} mode: refreshes load nothing, see {@link #getStats()} for per-key loads
+     */
+    public Optional<Duration> getLastLoadDuration() {
+        if (!snapshot.isLoaded() || loadingMode == CacheLoadingMode.PER_KEY) {
+            return Optional.empty();
         }
-        return Collections.unmodifiableMap(cachedValues);
+        return Optional.of(Duration.ofNanos(lastLoadDurationInNanos));
+    }
+
+    /**
+     * @return "true" if refreshes are currently suspended because of previous failures (backoff delay is not over)
+     */
+    public boolean isCircuitOpen() {
+        return consecutiveFailures.get() > 0 && System.nanoTime() - nextAttemptAllowedAtNanos < 0;
+    }
+
+    /**
+     * @return number of consecutive refresh failures. "0" when the last refresh succeeded
+     */
+    public int getConsecutiveFailures() {
+        return consecutiveFailures.get();
+    }
+
+    /**
+     * To enable background refresh: readers will not trigger any load anymore.
+     * This is set by {@link InnerCacheRegistry}
+     */
+    void enableRefreshAhead() {
+        this.refreshAhead = true;
     }
 
     /**
      * To refresh the parameters cache.
-     * @param forceRefresh flag - "true" to force cache refresh no matter the previous refresh time ; else cache can only be refresh after seconds
+     * @param forceRefresh flag - "true" to force cache refresh no matter the previous refresh time or failures ; else cache can only be refresh after seconds
      */
     public void updateCache(boolean forceRefresh) {
+        if (!forceRefresh && isCircuitOpen()) {
+            // Previous refresh failed: do not hammer the database, wait for the backoff delay
+            return;
+        }
         // Avoid multi-thread issues: only 1 refresh at a time
         try {
             if (lock.tryLock(MAX_TIME_TO_WAIT_TO_GET_LOCK_IN_SECONDS, TimeUnit.SECONDS)) {
                 try {
-                    doCacheRefresh(forceRefresh);
-                } catch (Exception e) {
-                    log.error("Failed to refresh cache: inner algorithm failure", e);
+                    doCacheRefreshAndTrackFailures(forceRefresh);
                 } finally {
                     // Make sure to release the lock to avoid deadlock
                     lock.unlock();
@@ -81,28 +377,307 @@ public class InnerCache<T, K> {
             }
         } catch (InterruptedException e) {
             log.warn("Failed to refresh cache: cannot get lock");
+            Thread.currentThread().interrupt();
         }
     }
 
     /**
-     * To perform a cache refresh if required
+     * To refresh the cache only if no other refresh is running. This never waits for the lock.
+     */
+    private void refreshIfIdle() {
+        if (lock.tryLock()) {
+            try {
+                doCacheRefreshAndTrackFailures(false);
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * To perform a cache refresh and record the outcome, to compute the backoff delay on failure.
+     * The lock must be held by the caller.
      * @param forceRefresh flag - "true" to force cache refresh no matter the previous refresh time ; else cache can only be refresh after seconds
+     */
+    private void doCacheRefreshAndTrackFailures(boolean forceRefresh) {
+        final long startTime = System.nanoTime();
+        try {
+            doCacheRefresh(forceRefresh);
+            recordSuccess();
+        } catch (Exception e) {
+            stats.recordLoadFailure(System.nanoTime() - startTime);
+            recordFailure(e);
+        }
+    }
+
+    /**
+     * To record a successful load: this closes the circuit
+     */
+    private void recordSuccess() {
+        if (consecutiveFailures.get() == 0) {
+            return;
+        }
+        final int nbOfFailures = consecutiveFailures.getAndSet(0);
+        if (nbOfFailures > 0) {
+            log.info("Cache {} refreshed successfully after {} failure(s)", name, nbOfFailures);
+        }
+    }
+
+    /**
+     * To record a failed load: this opens the circuit for an exponential backoff delay
+     * @param e load failure
+     */
+    private void recordFailure(final Exception e) {
+        final int nbOfFailures = consecutiveFailures.incrementAndGet();
+        final long backoffInSeconds = Math.min(MAX_BACKOFF_IN_SECONDS, INITIAL_BACKOFF_IN_SECONDS << Math.min(nbOfFailures - 1, 30));
+        nextAttemptAllowedAtNanos = System.nanoTime() + TimeUnit.SECONDS.toNanos(backoffInSeconds);
+        if (nbOfFailures == 1) {
+            log.error("Failed to refresh cache {}: inner algorithm failure. Next attempt in {}s", name, backoffInSeconds, e);
+        } else {
+            log.warn("Failed to refresh cache {} ({} consecutive failures): {}. Next attempt in {}s", name, nbOfFailures, e.getMessage(), backoffInSeconds);
+        }
+    }
+
+    /**
+     * To load a single value ({@link CacheLoadingMode#PER_KEY} mode).
+     * Only one load per key is done at a time: concurrent callers wait for the running load result.
+     * @param key key to load
+     * @return corresponding value or NULL (not found, load failure or database unavailable)
+     */
+    private K loadKey(final T key) {
+        if (isCircuitOpen()) {
+            // Database is unavailable: fail fast
+            return null;
+        }
+        final CompletableFuture<Optional<K>> newLoad = new CompletableFuture<>();
+        final CompletableFuture<Optional<K>> runningLoad = runningLoads.putIfAbsent(key, newLoad);
+        if (runningLoad != null) {
+            return waitForLoad(key, runningLoad);
+        }
+
+        // This thread is in charge of the load
+        final long loadStartTime = System.nanoTime();
+        try {
+            // Another load may have completed in between
+            Optional<K> value = Optional.ofNullable(loadedValues.get(key));
+            if (value.isEmpty()) {
+                value = keyLoader.load(key);
+                stats.recordLoadSuccess(System.nanoTime() - loadStartTime);
+                if (value.isPresent()) {
+                    loadedValues.put(key, value.get());
+                } else if (missingKeys != null) {
+                    missingKeys.put(key, Boolean.TRUE);
+                }
+                recordSuccess();
+            }
+            newLoad.complete(value);
+            return value.orElse(null);
+        } catch (Exception e) {
+            stats.recordLoadFailure(System.nanoTime() - loadStartTime);
+            recordFailure(e);
+            newLoad.complete(Optional.empty());
+            return null;
+        } finally {
+            runningLoads.remove(key, newLoad);
+        }
+    }
+
+    /**
+     * To wait for the load of another thread
+     * @param key key being loaded
+     * @param runningLoad load in progress
+     * @return corresponding value or NULL
+     */
+    private K waitForLoad(final T key, final CompletableFuture<Optional<K>> runningLoad) {
+        try {
+            return runningLoad.get(MAX_TIME_TO_WAIT_TO_GET_LOCK_IN_SECONDS, TimeUnit.SECONDS).orElse(null);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        } catch (ExecutionException | TimeoutException e) {
+            log.warn("Cache {} | failed to wait for the load of key {}", name, key);
+            return null;
+        }
+    }
+
+    /**
+     * To perform a cache refresh if required
+     * @param forceRefresh flag - "true" to force cache refresh no matter the previous refresh time ; else cache can only be refresh after seconds.
+     *                     A forced refresh is always a full load.
      * @throws Exception something went wrong
      */
     private void doCacheRefresh(boolean forceRefresh) throws Exception {
         // Only refresh at periodic interval or user-request
-        final LocalDateTime updateTriggerTime = LocalDateTime.now(ZoneOffset.UTC).minus(Duration.ofSeconds(delayBetweenRefreshInSeconds));
+        final CacheSnapshot<T, K> current = snapshot;
+        final LocalDateTime now = LocalDateTime.now(ZoneOffset.UTC);
+        final LocalDateTime updateTriggerTime = now.minus(Duration.ofSeconds(delayBetweenRefreshInSeconds));
         if (forceRefresh
-                || cachedValues.isEmpty()
-                || lastUpdateCacheTime == null
-                || lastUpdateCacheTime.isBefore(updateTriggerTime)) {
-            // Get values to cache
-            Map<T, K> valuesToCache = cachingFunction.getValuesToCache();
+                || !current.isLoaded()
+                || current.getRefreshTime().isBefore(updateTriggerTime)) {
+            // Get values to cache and build the new content aside
+            final long loadStartTime = System.nanoTime();
+            final CacheSnapshot<T, K> newSnapshot;
+            if (loadingMode == CacheLoadingMode.PER_KEY) {
+                // Nothing is loaded here: values are loaded (and their loads recorded) on demand
+                if (missingKeys != null) {
+                    // Missing keys may have been created since
+                    missingKeys.invalidateAll();
+                }
+                if (loadedValues.isExpiring()) {
+                    // Values have their own time to live: only drop expired ones
+                    loadedValues.expireEntries();
+                } else {
+                    // Drop all values: they will be loaded again on demand
+                    loadedValues.invalidateAll();
+                }
+                newSnapshot = CacheSnapshot.of(Map.of(), null, null);
+            } else if (!forceRefresh && isDeltaLoadPossible(current, now)) {
+                newSnapshot = doDeltaLoad(current, (DeltaCacheValueFunction<T, K>) cachingFunction);
+            } else {
+                newSnapshot = doFullLoad();
+            }
+            final long refreshDurationInNanos = System.nanoTime() - loadStartTime;
+            if (loadingMode != CacheLoadingMode.PER_KEY) {
+                lastLoadDurationInNanos = refreshDurationInNanos;
+                stats.recordLoadSuccess(refreshDurationInNanos);
+            }
+
+            // Publish new content at once
+            snapshot = newSnapshot;
+            log.debug("Cache {} refreshed in {} ms", name, TimeUnit.NANOSECONDS.toMillis(refreshDurationInNanos));
+            if (newSnapshot.getValues() != current.getValues()) {
+                refreshListeners.forEach((listener) -> notifyRefresh(listener, current.getValues(), newSnapshot.getValues()));
+            }
+        }
+    }
+
+    /**
+     * To notify a listener. A listener failure does not break the refresh
+     * @param listener listener to notify
+     * @param previousValues previous content
+     * @param currentValues new content
+     */
+    private void notifyRefresh(final CacheRefreshListener<T, K> listener, final Map<T, K> previousValues, final Map<T, K> currentValues) {
+        try {
+            listener.onRefresh(previousValues, currentValues);
+        } catch (RuntimeException e) {
+            log.error("Cache {} | refresh listener failure", name, e);
+        }
+    }
 
-            // Update general cache and register refresh time
-            cachedValues.clear();
-            cachedValues.putAll(valuesToCache);
-            lastUpdateCacheTime = LocalDateTime.now(ZoneOffset.UTC);
+    /**
+     * To publish values that have just been saved by this node, without waiting for the next refresh nor reloading everything.<br>
+     * In {@link CacheLoadingMode#FULL_PRELOAD} mode a new snapshot is published and refresh listeners are notified.
+     * The high water mark is kept: the next delta load reads these values again, so that changes made by other nodes
+     * in between are not missed.
+     * @param changedValues values to add or replace. Keys must be the cache keys
+     */
+    public void publish(final Map<T, K> changedValues) {
+        if (changedValues == null || changedValues.isEmpty()) {
+            return;
+        }
+        if (loadingMode == CacheLoadingMode.PER_KEY) {
+            changedValues.forEach((key, value) -> {
+                final T storeKey = keyEquivalence == null ? key : keyEquivalence.normalize(key);
+                loadedValues.put(storeKey, value);
+                if (missingKeys != null) {
+                    missingKeys.remove(storeKey);
+                }
+            });
+            return;
+        }
+        try {
+            // Same lock as refresh: a running load must not overwrite the published values with older ones
+            if (lock.tryLock(MAX_TIME_TO_WAIT_TO_GET_LOCK_IN_SECONDS, TimeUnit.SECONDS)) {
+                try {
+                    final CacheSnapshot<T, K> current = snapshot;
+                    if (!current.isLoaded()) {
+                        // Values will come with the initial load
+                        return;
+                    }
+                    final CacheSnapshot<T, K> newSnapshot = current.with(changedValues, keyEquivalence);
+                    snapshot = newSnapshot;
+                    log.debug("Cache {} | {} value(s) published", name, changedValues.size());
+                    refreshListeners.forEach((listener) -> notifyRefresh(listener, current.getValues(), newSnapshot.getValues()));
+                } finally {
+                    lock.unlock();
+                }
+            } else {
+                log.warn("Cache {} | failed to publish values: cannot get lock. They will be loaded on next refresh", name);
+            }
+        } catch (InterruptedException e) {
+            log.warn("Cache {} | failed to publish values: cannot get lock", name);
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * To know if the next refresh can be incremental
+     * @param current current snapshot
+     * @param now current time (UTC)
+     * @return "true" if only changed values can be loaded ; "false" if a full load is required
+     */
+    private boolean isDeltaLoadPossible(final CacheSnapshot<T, K> current, final LocalDateTime now) {
+        return cachingFunction instanceof DeltaCacheValueFunction
+                && current.isLoaded()
+                && current.getHighWaterMark() != null
+                && !current.getFullLoadTime().isBefore(now.minus(Duration.ofSeconds(delayBetweenFullReloadInSeconds)));
+    }
+
+    /**
+     * To load all values
+     * @return new snapshot
+     * @throws Exception something went wrong
+     */
+    private CacheSnapshot<T, K> doFullLoad() throws Exception {
+        final Map<T, K> valuesToCache = cachingFunction.getValuesToCache();
+        Date highWaterMark = null;
+        if (cachingFunction instanceof DeltaCacheValueFunction) {
+            highWaterMark = getHighWaterMark((DeltaCacheValueFunction<T, K>) cachingFunction, valuesToCache, null);
+        }
+        return CacheSnapshot.of(valuesToCache, highWaterMark, keyEquivalence);
+    }
+
+    /**
+     * To load the values that changed since last refresh and merge them into current values
+     * @param current current snapshot
+     * @param deltaFunction way to retrieve changed values
+     * @return new snapshot
+     * @throws Exception something went wrong
+     */
+    private CacheSnapshot<T, K> doDeltaLoad(final CacheSnapshot<T, K> current, final DeltaCacheValueFunction<T, K> deltaFunction) throws Exception {
+        final Date since = new Date(current.getHighWaterMark().getTime() - TimeUnit.SECONDS.toMillis(DELTA_LOAD_OVERLAP_IN_SECONDS));
+        final Map<T, K> changedValues = deltaFunction.getValuesChangedSince(since);
+        // Rows modified in the overlap window are returned again: only keep actual changes.
+        // Versions are compared, not dates: 2 changes within the same second have the same date on Oracle
+        final Map<T, K> valuesToMerge = new HashMap<>(changedValues.size());
+        changedValues.forEach((key, value) -> {
+            final K cachedValue = current.getValues().get(key);
+            if (cachedValue == null || deltaFunction.getVersion(cachedValue) != deltaFunction.getVersion(value)) {
+                valuesToMerge.put(key, value);
+            }
+        });
+        if (!valuesToMerge.isEmpty()) {
+            log.info("Cache {} | {} changed values merged", name, valuesToMerge.size());
+        }
+        return current.merge(valuesToMerge, getHighWaterMark(deltaFunction, valuesToMerge, current.getHighWaterMark()), keyEquivalence);
+    }
+
+    /**
+     * To compute the most recent modification date
+     * @param deltaFunction way to retrieve values modification date
+     * @param values values to analyse
+     * @param previousHighWaterMark previous most recent modification date, NULL if unknown
+     * @return most recent modification date, NULL if unknown
+     */
+    private Date getHighWaterMark(final DeltaCacheValueFunction<T, K> deltaFunction, final Map<T, K> values, final Date previousHighWaterMark) {
+        Date highWaterMark = previousHighWaterMark;
+        for (K value : values.values()) {
+            final Date modificationDate = deltaFunction.getModificationDate(value);
+            if (modificationDate != null && (highWaterMark == null || modificationDate.after(highWaterMark))) {
+                highWaterMark = modificationDate;
+            }
         }
+        return highWaterMark;
     }
 }
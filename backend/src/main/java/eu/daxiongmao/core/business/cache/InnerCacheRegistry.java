@@ -0,0 +1,249 @@
+package eu.daxiongmao.core.business.cache;
+
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.ClassUtils;
+
+import javax.annotation.PreDestroy;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Registry of all application's inner caches.<br>
+ * When refresh-ahead is enabled, each registered cache is refreshed in background at its own interval
+ * by a shared scheduler. Readers always get the current snapshot and never pay the load latency.<br>
+ * When an invalidation channel is available (see {@link CacheInvalidationChannel}) the registry polls caches generations
+ * and reloads a cache as soon as its generation changed, so that all nodes see a change at about the same time
+ * without shortening the refresh interval.
+ * @author Guillaume Diaz
+ * @version 1.3
+ * @since 2020/04
+ */
+@Component
+@Log4j2
+public class InnerCacheRegistry {
+
+    /** Minimum delay between 2 background refresh, in seconds */
+    private static final long MIN_DELAY_BETWEEN_REFRESH_IN_SECONDS = 1;
+
+    /** Boolean flag. "true" to refresh caches in background ; "false" to only refresh on demand */
+    private final boolean refreshAheadEnabled;
+
+    /** Shared scheduler for all caches */
+    private final ScheduledExecutorService scheduler;
+
+    /**
+     * Registered caches
+     * <ul>
+     *     <li>Key: cache name</li>
+     *     <li>Value: cache</li>
+     * </ul>
+     */
+    private final Map<String, InnerCache<?, ?>> caches = new ConcurrentHashMap<>();
+
+    /** To detect changes made by other nodes. NULL if there is no cross-node invalidation */
+    private final CacheInvalidationChannel invalidationChannel;
+
+    /**
+     * Last known generation of each cache (cross-node invalidation)
+     * <ul>
+     *     <li>Key: cache name</li>
+     *     <li>Value: generation</li>
+     * </ul>
+     */
+    private final Map<String, Long> knownGenerations = new ConcurrentHashMap<>();
+
+    /**
+     * New registry, without cross-node invalidation
+     * @param refreshAheadEnabled boolean flag. "true" to refresh caches in background
+     * @param nbOfRefreshThreads number of threads dedicated to background refresh
+     */
+    public InnerCacheRegistry(boolean refreshAheadEnabled, int nbOfRefreshThreads) {
+        this(refreshAheadEnabled, nbOfRefreshThreads, Optional.empty(), 0);
+    }
+
+    /**
+     * New registry
+     * @param refreshAheadEnabled boolean flag. "true" to refresh caches in background
+     * @param nbOfRefreshThreads number of threads dedicated to background refresh
+     * @param invalidationChannel channel to detect changes made by other nodes, EMPTY if there is no cross-node invalidation
+     * @param invalidationPollIntervalInSeconds delay between 2 polls of the invalidation channel, in seconds
+     */
+    @Autowired
+    public InnerCacheRegistry(@Value("${app.cache.refresh-ahead.enabled:true}") boolean refreshAheadEnabled,
+                              @Value("${app.cache.refresh-ahead.threads:2}") int nbOfRefreshThreads,
+                              Optional<CacheInvalidationChannel> invalidationChannel,
+                              @Value("${app.cache.invalidation.poll-interval-in-seconds:5}") long invalidationPollIntervalInSeconds) {
+        this.refreshAheadEnabled = refreshAheadEnabled;
+        this.scheduler = Executors.newScheduledThreadPool(Math.max(1, nbOfRefreshThreads), new RefreshThreadFactory());
+        this.invalidationChannel = invalidationChannel.orElse(null);
+        if (this.invalidationChannel != null) {
+            final long pollInterval = Math.max(MIN_DELAY_BETWEEN_REFRESH_IN_SECONDS, invalidationPollIntervalInSeconds);
+            scheduler.scheduleWithFixedDelay(this::pollInvalidations, pollInterval, pollInterval, TimeUnit.SECONDS);
+            log.info("Cross-node cache invalidation enabled: {} polled every {}s", ClassUtils.getUserClass(this.invalidationChannel).getSimpleName(), pollInterval);
+        }
+    }
+
+    /**
+     * To register a cache. If refresh-ahead is enabled the cache will be refreshed in background from now on.
+     * @param cache cache to register
+     */
+    public void register(final InnerCache<?, ?> cache) {
+        if (cache == null) {
+            return;
+        }
+        caches.put(cache.getName(), cache);
+        if (invalidationChannel != null) {
+            // Current generation matches the content loaded so far
+            readGenerations().ifPresent((generations) -> {
+                final Long generation = generations.get(cache.getName());
+                if (generation != null) {
+                    knownGenerations.put(cache.getName(), generation);
+                }
+            });
+        }
+        if (refreshAheadEnabled) {
+            cache.enableRefreshAhead();
+            scheduleRefresh(cache);
+            log.info("Cache {} registered: background refresh every {}s", cache.getName(), getRefreshDelay(cache));
+        } else {
+            log.info("Cache {} registered: refresh on demand only", cache.getName());
+        }
+    }
+
+    /**
+     * @return all registered caches (read-only)
+     */
+    public Collection<InnerCache<?, ?>> getCaches() {
+        return Collections.unmodifiableCollection(caches.values());
+    }
+
+    /**
+     * @param name cache name
+     * @return corresponding cache, or EMPTY if there is no such cache
+     */
+    public Optional<InnerCache<?, ?>> getCache(final String name) {
+        if (name == null) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(caches.get(name));
+    }
+
+    /**
+     * To notify other nodes that a cache content changed. This must be called once the change is committed.
+     * Each node reloads the cache on its next poll, except this one: it is expected to have published the new values
+     * itself (see {@link InnerCache#publish(Map)}). Without invalidation channel this does nothing.
+     * <p>The generation cannot be predicted: on Oracle, triggers already incremented it during the write, once per statement.
+     * The new generation is read back instead. Changes committed by other nodes since the last poll are then picked up
+     * by the next background refresh (modified rows), not by the invalidation poll.</p>
+     * @param cacheName cache name
+     */
+    public void publishChange(final String cacheName) {
+        if (invalidationChannel == null) {
+            return;
+        }
+        try {
+            // Generation read back after our own increment: it includes all changes committed so far, ours included
+            final long generation = invalidationChannel.publish(cacheName);
+            knownGenerations.merge(cacheName, generation, Math::max);
+        } catch (RuntimeException e) {
+            // Other nodes will get the change on their next refresh
+            log.warn("Failed to publish change of cache {}: {}", cacheName, e.getMessage());
+        }
+    }
+
+    /**
+     * To reload the caches whose generation changed since last poll
+     */
+    private void pollInvalidations() {
+        readGenerations().ifPresent((generations) -> caches.values().forEach((cache) -> {
+            final Long generation = generations.get(cache.getName());
+            if (generation == null) {
+                return;
+            }
+            final Long knownGeneration = knownGenerations.get(cache.getName());
+            if (knownGeneration == null) {
+                knownGenerations.put(cache.getName(), generation);
+            } else if (knownGeneration.longValue() != generation.longValue() && !cache.isCircuitOpen()) {
+                log.info("Cache {} changed (generation {} -> {}): reload", cache.getName(), knownGeneration, generation);
+                cache.updateCache(true);
+                // Only move to the new generation once reloaded: on failure next poll will try again
+                if (cache.getConsecutiveFailures() == 0) {
+                    knownGenerations.put(cache.getName(), generation);
+                }
+            }
+        }));
+    }
+
+    /**
+     * @return current generation of each cache, or EMPTY if the channel is not available
+     */
+    private Optional<Map<String, Long>> readGenerations() {
+        try {
+            return Optional.of(invalidationChannel.getGenerations());
+        } catch (Exception e) {
+            log.warn("Failed to read caches generations: {}", e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * To schedule the next refresh of a cache.
+     * Each run schedules the next one, so the interval always follows the cache settings.
+     * @param cache cache to refresh
+     */
+    private void scheduleRefresh(final InnerCache<?, ?> cache) {
+        try {
+            scheduler.schedule(() -> {
+                try {
+                    cache.updateCache(false);
+                } catch (Exception e) {
+                    log.error("Background refresh of cache {} failed", cache.getName(), e);
+                } finally {
+                    scheduleRefresh(cache);
+                }
+            }, getRefreshDelay(cache), TimeUnit.SECONDS);
+        } catch (RejectedExecutionException e) {
+            // Application is shutting down
+            log.debug("Background refresh of cache {} cancelled", cache.getName());
+        }
+    }
+
+    /**
+     * @param cache cache to refresh
+     * @return delay to wait before next refresh, in seconds
+     */
+    private long getRefreshDelay(final InnerCache<?, ?> cache) {
+        return Math.max(MIN_DELAY_BETWEEN_REFRESH_IN_SECONDS, cache.getDelayBetweenRefreshInSeconds());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+    }
+
+    /**
+     * To create daemon threads with explicit names
+     */
+    private static class RefreshThreadFactory implements ThreadFactory {
+        private final AtomicInteger threadNumber = new AtomicInteger(1);
+
+        @Override
+        public Thread newThread(Runnable task) {
+            final Thread thread = new Thread(task, "inner-cache-refresh-" + threadNumber.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
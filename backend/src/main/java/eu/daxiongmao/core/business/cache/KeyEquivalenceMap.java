@@ -0,0 +1,141 @@
+package eu.daxiongmao.core.business.cache;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * Immutable map that compares keys with a {@link CacheKeyEquivalence} (ex: case insensitive) instead of {@link Object#equals(Object)}.<br>
+ * Technical note: open addressing with linear probing, keys and values are stored in flat arrays.
+ * A lookup does not allocate anything, this is meant for caches snapshots.
+ * @param <T> Cache key
+ * @param <K> Cache Value
+ * @author Guillaume Diaz
+ * @version 1.0
+ * @since 2020/04
+ */
+final class KeyEquivalenceMap<T, K> extends AbstractMap<T, K> {
+
+    /** Maximum share of used slots */
+    private static final double LOAD_FACTOR = 0.5;
+
+    private final CacheKeyEquivalence<T> equivalence;
+    private final Object[] keys;
+    private final Object[] values;
+    private final int mask;
+    private final int size;
+
+    /**
+     * New map
+     * @param equivalence keys comparison
+     * @param source values to copy. If several keys are equivalent, only one of them is kept
+     */
+    KeyEquivalenceMap(final CacheKeyEquivalence<T> equivalence, final Map<T, K> source) {
+        this.equivalence = equivalence;
+        final int capacity = FrequencySketch.ceilingPowerOfTwo((int) Math.max(2, Math.ceil(source.size() / LOAD_FACTOR)));
+        this.keys = new Object[capacity];
+        this.values = new Object[capacity];
+        this.mask = capacity - 1;
+        int nbOfEntries = 0;
+        for (Map.Entry<T, K> entry : source.entrySet()) {
+            if (entry.getKey() == null || entry.getValue() == null) {
+                throw new NullPointerException("Null keys and values are not supported");
+            }
+            final int index = indexOf(entry.getKey());
+            if (keys[index] == null) {
+                nbOfEntries++;
+            }
+            keys[index] = entry.getKey();
+            values[index] = entry.getValue();
+        }
+        this.size = nbOfEntries;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public K get(final Object key) {
+        if (key == null) {
+            return null;
+        }
+        final int index;
+        try {
+            index = indexOf((T) key);
+        } catch (ClassCastException e) {
+            return null;
+        }
+        return (K) values[index];
+    }
+
+    @Override
+    public boolean containsKey(final Object key) {
+        return get(key) != null;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public Set<Entry<T, K>> entrySet() {
+        return new AbstractSet<>() {
+            @Override
+            public Iterator<Entry<T, K>> iterator() {
+                return new EntryIterator();
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+
+    /**
+     * @param key search key
+     * @return slot of the key, or first empty slot if the key is missing
+     */
+    @SuppressWarnings("unchecked")
+    private int indexOf(final T key) {
+        final int hash = equivalence.hash(key);
+        int index = (hash ^ (hash >>> 16)) & mask;
+        while (keys[index] != null && !equivalence.equivalent((T) keys[index], key)) {
+            index = (index + 1) & mask;
+        }
+        return index;
+    }
+
+    /**
+     * To iterate over used slots
+     */
+    private final class EntryIterator implements Iterator<Entry<T, K>> {
+        private int nextIndex = findNext(0);
+
+        private int findNext(final int from) {
+            int index = from;
+            while (index < keys.length && keys[index] == null) {
+                index++;
+            }
+            return index;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return nextIndex < keys.length;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public Entry<T, K> next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            final Entry<T, K> entry = new SimpleImmutableEntry<>((T) keys[nextIndex], (K) values[nextIndex]);
+            nextIndex = findNext(nextIndex + 1);
+            return entry;
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package eu.daxiongmao.core.dao;
+
+import eu.daxiongmao.core.model.db.CacheVersion;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+/**
+ * To interact with "cache_versions" table
+ * @author Guillaume Diaz
+ * @version 1.0 2020/04
+ * @since application creation
+ */
+@Repository
+public interface CacheVersionRepository extends JpaRepository<CacheVersion, String> {
+
+    /**
+     * To increment the generation of a cache
+     * @param cacheName cache name
+     * @return number of updated rows: "0" if the cache is not declared in database
+     */
+    @Modifying
+    @Query("UPDATE CacheVersion v SET v.generation = v.generation + 1, v.modificationDate = CURRENT_TIMESTAMP WHERE v.cacheName = :cacheName")
+    int incrementGeneration(@Param("cacheName") String cacheName);
+}
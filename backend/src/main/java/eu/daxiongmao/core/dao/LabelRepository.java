@@ -1,15 +1,19 @@
 package eu.daxiongmao.core.dao;
 
 import eu.daxiongmao.core.model.db.Label;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
 import java.util.Optional;
 
 /**
  * To interact with "labels" table
  * @author Guillaume Diaz
- * @version 1.0 2020/03
+ * @version 1.2 2020/04
  * @since application creation
  */
 @Repository
@@ -21,4 +25,36 @@ public interface LabelRepository extends JpaRepository<Label, Long> {
      * @return corresponding label
      */
     Optional<Label> findByCode(String code);
+
+    /**
+     * To retrieve several labels at once
+     * @param codes search codes (upper case). Oracle users: no more than 1000 codes at once
+     * @return corresponding labels
+     */
+    List<Label> findByCodeIn(Collection<String> codes);
+
+    /**
+     * To retrieve the labels modified since a given date. This is used for incremental cache refresh.
+     * @param modificationDate search date (inclusive)
+     * @return labels modified at or after the given date
+     */
+    List<Label> findByModificationDateGreaterThanEqual(Date modificationDate);
+
+    /**
+     * To retrieve the first page of labels, in code order. Next pages: see {@link #findByCodeGreaterThanOrderByCodeAsc(String, Pageable)}
+     * @param pageable page size (page number must be 0)
+     * @return first labels, sorted by code
+     */
+    List<Label> findAllByOrderByCodeAsc(Pageable pageable);
+
+    /**
+     * To retrieve labels page by page, in code order (keyset pagination: each page starts after the last code of the previous one).
+     * Unlike offset pagination, each page costs the same, whatever its position.
+     * <p>This cannot give the first page: Oracle treats "" as NULL, and nothing is greater than NULL.
+     * Use {@link #findAllByOrderByCodeAsc(Pageable)} instead.</p>
+     * @param code code of the last label of the previous page, not empty
+     * @param pageable page size (page number must be 0)
+     * @return labels whose code is greater than the given one, sorted by code
+     */
+    List<Label> findByCodeGreaterThanOrderByCodeAsc(String code, Pageable pageable);
 }
@@ -4,6 +4,9 @@ import eu.daxiongmao.core.model.db.Parameter;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
 import java.util.Optional;
 
 /**
@@ -22,4 +25,17 @@ public interface ParameterRepository extends JpaRepository<Parameter, Long> {
      */
     Optional<Parameter> findParameterByParamName(String paramName);
 
+    /**
+     * To retrieve the parameters modified since a given date. This is used for incremental cache refresh.
+     * @param modificationDate search date (inclusive)
+     * @return parameters modified at or after the given date
+     */
+    List<Parameter> findByModificationDateGreaterThanEqual(Date modificationDate);
+
+    /**
+     * To find several parameters at once
+     * @param paramNames search parameters names (upper-case)
+     * @return existing parameters
+     */
+    List<Parameter> findByParamNameIn(Collection<String> paramNames);
 }
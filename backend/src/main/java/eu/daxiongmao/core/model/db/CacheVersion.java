@@ -0,0 +1,46 @@
+package eu.daxiongmao.core.model.db;
+
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Table;
+import javax.persistence.Temporal;
+import javax.persistence.TemporalType;
+import java.io.Serializable;
+import java.util.Date;
+
+/**
+ * Generation of a cached table. It is incremented on each change so that every node can detect it and reload its cache.
+ * @version 1.0 - 2020/04
+ * @author Guillaume Diaz
+ * @since version 1.0
+ */
+@Getter
+@Setter
+@ToString(of = { "cacheName", "generation", "modificationDate" })
+@EqualsAndHashCode(of = { "cacheName" })
+@Entity
+@Table(name = "CACHE_VERSIONS")
+public class CacheVersion implements Serializable {
+
+    private static final long serialVersionUID = 20200401L;
+
+    /** Inner cache name (PARAMETERS, LABELS, etc.) */
+    @Id
+    @Column(name = "CACHE_NAME", nullable = false, length = 50)
+    private String cacheName;
+
+    /** Incremented on each change of the cached data */
+    @Column(name = "GENERATION", nullable = false)
+    private long generation;
+
+    /** Date-time of the last change */
+    @Column(name = "MODIFICATION_DATE", nullable = false)
+    @Temporal(TemporalType.TIMESTAMP)
+    private Date modificationDate = new Date();
+}
@@ -5,12 +5,12 @@ import lombok.*;
 import org.apache.commons.lang3.StringUtils;
 
 import javax.persistence.*;
-import javax.validation.constraints.Max;
 import javax.validation.constraints.NotBlank;
+import javax.validation.constraints.Size;
 
 /**
  * Label (text available in many languages)
- * @version 1.0 - 2020/03
+ * @version 1.1 - 2020/04
  * @author Guillaume Diaz
  * @since version 1.0
  */
@@ -22,7 +22,8 @@ import javax.validation.constraints.NotBlank;
 @Table(name = "LABELS", indexes = {
         @Index(name = "LABELS_CODE_IDX", unique = true, columnList = "CODE"),
         @Index(name = "LABELS_ACTIVE_CODE_IDX", columnList = "CODE, IS_ACTIVE"),
-        @Index(name = "LABELS_ACTIVE_IDX", columnList = "IS_ACTIVE")
+        @Index(name = "LABELS_ACTIVE_IDX", columnList = "IS_ACTIVE"),
+        @Index(name = "LABELS_MODIFICATION_DATE_IDX", columnList = "MODIFICATION_DATE")
 })
 public class Label extends GenericEntity {
 
@@ -30,12 +31,14 @@ public class Label extends GenericEntity {
 
     @Id
     @Column(name = "LABEL_ID")
-    @SequenceGenerator(name = "seqLabels", sequenceName = "SEQ_LABELS", allocationSize = 1, initialValue = 1)
+    // Ids are reserved by blocks of 50 (pooled-lo optimizer, see application.properties): bulk inserts do not query the sequence for each row.
+    // The sequence must be incremented by the same value, see migration V7_0_0
+    @SequenceGenerator(name = "seqLabels", sequenceName = "SEQ_LABELS", allocationSize = 50, initialValue = 1)
     @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "seqLabels")
     private Long id;
 
     @NotBlank
-    @Max(250)
+    @Size(max = 250)
     @Column(name = "CODE", nullable = false, length = 250)
     private String code;
     public void setCode(String code) {
@@ -46,21 +49,21 @@ public class Label extends GenericEntity {
         }
     }
 
-    @Max(2000)
+    @Size(max = 2000)
     @Column(name = "LANG_ZH", length = 2000)
     private String chinese;
     public void setChinese(String text) {
         setLang(AppLang.CHINESE, text);
     }
 
-    @Max(2000)
+    @Size(max = 2000)
     @Column(name = "LANG_EN", length = 2000)
     private String english;
     public void setEnglish(String text) {
         setLang(AppLang.ENGLISH, text);
     }
 
-    @Max(2000)
+    @Size(max = 2000)
     @Column(name = "LANG_FR", length = 2000)
     private String french;
     public void setFrench(String text) {
@@ -15,8 +15,8 @@ import javax.persistence.Id;
 import javax.persistence.Index;
 import javax.persistence.SequenceGenerator;
 import javax.persistence.Table;
-import javax.validation.constraints.Max;
 import javax.validation.constraints.NotBlank;
+import javax.validation.constraints.Size;
 
 
 /**
@@ -33,7 +33,8 @@ import javax.validation.constraints.NotBlank;
 @Table(name = "PARAMETERS", indexes = {
         @Index(name = "PARAMS_PARAM_NAME_IDX", unique = true, columnList = "PARAM_NAME"),
         @Index(name = "PARAMS_ACTIVE_PARAM_IDX", unique = true, columnList = "PARAM_NAME, IS_ACTIVE"),
-        @Index(name = "PARAMS_ACTIVE_IDX", columnList = "IS_ACTIVE")
+        @Index(name = "PARAMS_ACTIVE_IDX", columnList = "IS_ACTIVE"),
+        @Index(name = "PARAMS_MODIFICATION_DATE_IDX", columnList = "MODIFICATION_DATE")
 })
 public class Parameter extends GenericEntity {
 
@@ -46,7 +47,7 @@ public class Parameter extends GenericEntity {
     private Long id;
 
     @NotBlank
-    @Max(100)
+    @Size(max = 100)
     @Column(name = "PARAM_NAME", nullable = false, length = 100)
     private String paramName;
     public void setParamName(String paramName) {
@@ -58,13 +59,13 @@ public class Parameter extends GenericEntity {
     }
 
     @NotBlank
-    @Max(255)
+    @Size(max = 255)
     @Column(name = "PARAM_VALUE", nullable = false, length = 255)
     private String paramValue;
 
     /** Parameter type (java class, full qualified name: java.lang.String, java.lang.Integer, custom enum etc.) */
     @NotBlank
-    @Max(200)
+    @Size(max = 200)
     @Column(name = "PARAM_TYPE", nullable = false, length = 200)
     private String paramType;
     public Class getParamTypeClass() {
@@ -72,7 +73,7 @@ public class Parameter extends GenericEntity {
             return null;
         }
         try {
-            return Class.forName(this.paramType);
+            return StringToClassUtils.forName(this.paramType);
         } catch (ClassCastException | ClassNotFoundException e) {
             throw new IllegalStateException("Failed to cast parameter type to Java Class", e);
         }
@@ -82,7 +83,7 @@ public class Parameter extends GenericEntity {
     @Column(name = "IS_SENSITIVE", nullable = false)
     private Boolean isSensitive = false;
 
-    @Max(1500)
+    @Size(max = 1500)
     @Column(name = "DESCRIPTION", length = 1500)
     private String description;
 
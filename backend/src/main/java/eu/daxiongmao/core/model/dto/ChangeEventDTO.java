@@ -0,0 +1,39 @@
+package eu.daxiongmao.core.model.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+
+import java.io.Serializable;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Changes of a cached table (parameters, labels, etc.) between 2 consecutive cache contents
+ * @version 1.0 - 2020/04
+ * @author Guillaume Diaz
+ * @since version 1.0
+ */
+@Getter
+@Setter
+@ToString(of = { "id", "source", "removed" })
+@NoArgsConstructor
+@AllArgsConstructor
+public class ChangeEventDTO implements Serializable {
+
+    private static final long serialVersionUID = 20200421L;
+
+    /** Event id, increasing. To resume a stream after the last received event */
+    private long id;
+
+    /** What changed: cache name (ex: PARAMETERS, LABELS) */
+    private String source;
+
+    /** New or modified values, by key. Sensitive values are never included */
+    private Map<String, Object> changed;
+
+    /** Keys that are no longer available (deleted, disabled or restricted) */
+    private List<String> removed;
+}
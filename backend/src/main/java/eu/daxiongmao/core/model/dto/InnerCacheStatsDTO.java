@@ -0,0 +1,70 @@
+package eu.daxiongmao.core.model.dto;
+
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
+
+import java.io.Serializable;
+import java.util.Map;
+
+/**
+ * Inner cache statistics, for monitoring
+ * @version 1.0 - 2020/04
+ * @author Guillaume Diaz
+ * @since version 1.0
+ */
+@Getter
+@Setter
+@ToString(of = { "name", "loadingMode", "size", "snapshotAgeInSeconds", "hitCount", "missCount", "loadFailureCount" })
+public class InnerCacheStatsDTO implements Serializable {
+
+    private static final long serialVersionUID = 20200401L;
+
+    /** Cache name */
+    private String name;
+
+    /** How values are loaded (FULL_PRELOAD, PER_KEY) */
+    private String loadingMode;
+
+    /** Number of cached values */
+    private int size;
+
+    /** Time elapsed since last successful refresh, in seconds. NULL if nothing has been loaded yet */
+    private Long snapshotAgeInSeconds;
+
+    /** Duration of the last successful refresh, in milliseconds. NULL if nothing has been loaded yet */
+    private Long lastLoadDurationInMs;
+
+    /** Number of lookups answered with a cached value */
+    private long hitCount;
+
+    /** Number of lookups answered by the negative cache (key known to be missing) */
+    private long negativeHitCount;
+
+    /** Number of lookups not answered from memory */
+    private long missCount;
+
+    /** Share of lookups answered from memory (positive or negative hits), between 0 and 1. NULL if there was no lookup */
+    private Double hitRatio;
+
+    /** Number of successful loads */
+    private long loadSuccessCount;
+
+    /** Number of failed loads */
+    private long loadFailureCount;
+
+    /** Total time spent loading values, in milliseconds */
+    private long totalLoadTimeInMs;
+
+    /** Number of loads per duration range */
+    private Map<String, Long> loadLatencyHistogram;
+
+    /** Number of values evicted because of size limit or expiration */
+    private long evictionCount;
+
+    /** Number of consecutive refresh failures */
+    private int consecutiveFailures;
+
+    /** Boolean flag. "true" if refreshes are suspended because of previous failures */
+    private boolean circuitOpen;
+}
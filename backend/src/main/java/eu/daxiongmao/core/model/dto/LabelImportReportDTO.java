@@ -0,0 +1,35 @@
+package eu.daxiongmao.core.model.dto;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+
+import java.io.Serializable;
+
+/**
+ * Result of a labels import: what happened to each row of the file
+ * @version 1.0 - 2020/04
+ * @author Guillaume Diaz
+ * @since version 1.0
+ */
+@Getter
+@Setter
+@ToString
+@NoArgsConstructor
+public class LabelImportReportDTO implements Serializable {
+
+    private static final long serialVersionUID = 20200425L;
+
+    /** Number of new labels */
+    private long nbOfInserted;
+
+    /** Number of existing labels whose texts changed */
+    private long nbOfUpdated;
+
+    /** Number of existing labels with the same texts: nothing to do */
+    private long nbOfUnchanged;
+
+    /** Number of invalid rows (missing or too long code, too long text, duplicate code) */
+    private long nbOfRejected;
+}
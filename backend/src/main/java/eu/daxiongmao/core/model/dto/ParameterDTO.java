@@ -1,7 +1,8 @@
 package eu.daxiongmao.core.model.dto;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
 import eu.daxiongmao.core.utils.StringToClassUtils;
-import lombok.AllArgsConstructor;
 import lombok.EqualsAndHashCode;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
@@ -9,14 +10,16 @@ import lombok.Setter;
 import lombok.ToString;
 import org.apache.commons.lang3.StringUtils;
 
-import javax.validation.constraints.Max;
 import javax.validation.constraints.NotBlank;
+import javax.validation.constraints.Size;
 import java.io.Serializable;
 
 
 /**
- * Application parameter
- * @version 1.0 - 2019/12
+ * Application parameter.<br>
+ * JSON also gives the derived "paramTypeClass" and "value" (read-only). They are NULL when the type or value is invalid:
+ * a single bad parameter must not fail a whole response
+ * @version 1.2 - 2020/04
  * @author Guillaume Diaz
  * @since version 1.0
  */
@@ -25,27 +28,27 @@ import java.io.Serializable;
 @ToString(callSuper = true, of = { "paramName", "paramValue", "paramType", "description" })
 @EqualsAndHashCode(of = {"paramName", "paramValue", "paramType"})
 @NoArgsConstructor
-@AllArgsConstructor
 public class ParameterDTO implements Serializable {
 
     private static final long serialVersionUID = 20191205L;
 
     @NotBlank
-    @Max(200)
+    @Size(max = 200)
     private String paramType;
+    @JsonIgnore
     public Class getParamTypeClass() {
         if (this.paramType == null) {
             return null;
         }
         try {
-            return Class.forName(this.paramType);
+            return StringToClassUtils.forName(this.paramType);
         } catch (ClassCastException | ClassNotFoundException e) {
             throw new IllegalStateException("Failed to cast parameter type to Java Class", e);
         }
     }
 
     @NotBlank
-    @Max(100)
+    @Size(max = 100)
     private String paramName;
     public void setParamName(String paramName) {
         if (StringUtils.isNotBlank(paramName)) {
@@ -56,15 +59,38 @@ public class ParameterDTO implements Serializable {
     }
 
     @NotBlank
-    @Max(255)
+    @Size(max = 255)
     private String paramValue;
 
-    @Max(1500)
+    @Size(max = 1500)
     private String description;
 
     /** Boolean flag. MANDATORY. "1" to use the object, "0" to block usage */
     private Boolean isActive;
 
+    /** Version of the parameter when it was read. MANDATORY for updates: a change based on an outdated version is rejected */
+    private Long version;
+
+    /**
+     * Same constructor as before the version was added: the version remains NULL
+     */
+    public ParameterDTO(String paramType, String paramName, String paramValue, String description, Boolean isActive) {
+        this.paramType = paramType;
+        this.paramName = paramName;
+        this.paramValue = paramValue;
+        this.description = description;
+        this.isActive = isActive;
+    }
+
+    /**
+     * Copy constructor
+     * @param other DTO to copy
+     */
+    public ParameterDTO(final ParameterDTO other) {
+        this(other.paramType, other.paramName, other.paramValue, other.description, other.isActive);
+        this.version = other.version;
+    }
+
     /**
      * To convert a given String value into a particular output type
      * @param clazz output class to convert the String into
@@ -85,7 +111,32 @@ public class ParameterDTO implements Serializable {
      * @throws IllegalStateException no converter available for the requested output type
      * @throws ClassCastException requested class does not exists
      */
+    @JsonIgnore
     public Object getValue() {
         return StringToClassUtils.getValue(this.paramValue, this.paramType);
     }
+
+    /**
+     * @return JSON "paramTypeClass": see {@link #getParamTypeClass()}, NULL if the type cannot be resolved
+     */
+    @JsonProperty(value = "paramTypeClass", access = JsonProperty.Access.READ_ONLY)
+    private Class getJsonParamTypeClass() {
+        try {
+            return getParamTypeClass();
+        } catch (RuntimeException e) {
+            return null;
+        }
+    }
+
+    /**
+     * @return JSON "value": see {@link #getValue()}, NULL if the value cannot be converted
+     */
+    @JsonProperty(value = "value", access = JsonProperty.Access.READ_ONLY)
+    private Object getJsonValue() {
+        try {
+            return getValue();
+        } catch (RuntimeException e) {
+            return null;
+        }
+    }
 }
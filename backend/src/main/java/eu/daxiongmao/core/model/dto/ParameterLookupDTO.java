@@ -0,0 +1,35 @@
+package eu.daxiongmao.core.model.dto;
+
+import eu.daxiongmao.core.model.enums.ParameterLookupStatus;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+
+import java.io.Serializable;
+
+/**
+ * Result of a parameter lookup, when several parameters are retrieved at once
+ * @version 1.0 - 2020/04
+ * @author Guillaume Diaz
+ * @since version 1.0
+ */
+@Getter
+@Setter
+@ToString(of = { "paramName", "status" })
+@NoArgsConstructor
+@AllArgsConstructor
+public class ParameterLookupDTO implements Serializable {
+
+    private static final long serialVersionUID = 20200420L;
+
+    /** Requested parameter name (upper case) */
+    private String paramName;
+
+    /** Lookup result */
+    private ParameterLookupStatus status;
+
+    /** Parameter, only set if it has been {@link ParameterLookupStatus#FOUND} */
+    private ParameterDTO parameter;
+}
@@ -0,0 +1,20 @@
+package eu.daxiongmao.core.model.enums;
+
+/**
+ * Result of a parameter lookup, when several parameters are retrieved at once
+ * @author Guillaume Diaz
+ * @version 1.0
+ * @since 2020/04
+ */
+public enum ParameterLookupStatus {
+
+    /** Parameter exists and can be viewed */
+    FOUND,
+
+    /** Parameter does not exist or is disabled */
+    MISSING,
+
+    /** Parameter exists but it is sensitive: it cannot be viewed */
+    RESTRICTED;
+
+}
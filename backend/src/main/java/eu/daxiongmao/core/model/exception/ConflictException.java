@@ -0,0 +1,14 @@
+package eu.daxiongmao.core.model.exception;
+
+/**
+ * To trigger a conflict event: the data has been modified by someone else since it was read
+ * @author Guillaume Diaz
+ * @version 1.0
+ * @since 2020/04
+ */
+public class ConflictException extends RuntimeException {
+
+    public ConflictException(String message) {
+        super(message);
+    }
+}
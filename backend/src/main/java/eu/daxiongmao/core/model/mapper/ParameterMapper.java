@@ -23,6 +23,7 @@ public class ParameterMapper implements AbstractMapper<Parameter, ParameterDTO>
         dto.setParamName(dbEntity.getParamName());
         dto.setParamType(dbEntity.getParamType());
         dto.setParamValue(dbEntity.getParamValue());
+        dto.setVersion(dbEntity.getVersion());
         return dto;
     }
 
@@ -36,6 +37,9 @@ public class ParameterMapper implements AbstractMapper<Parameter, ParameterDTO>
         dbEntity.setParamName(dtoObject.getParamName());
         dbEntity.setParamType(dtoObject.getParamType());
         dbEntity.setParamValue(dtoObject.getParamValue());
+        if (dtoObject.getVersion() != null) {
+            dbEntity.setVersion(dtoObject.getVersion());
+        }
         return dbEntity;
     }
 }
@@ -0,0 +1,73 @@
+package eu.daxiongmao.core.utils;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+
+/**
+ * To compute content fingerprints, for instance HTTP entity tags (ETag) or cache-busting URLs.<br>
+ * Fingerprints only depend on the content: all nodes compute the same value for the same data, even after a restart.
+ * @author Guillaume Diaz
+ * @version 1.0
+ * @since 2020/04
+ */
+public final class ContentHashUtils {
+
+    /** Digest algorithm. Always available in the JDK */
+    private static final String ALGORITHM = "SHA-256";
+
+    /** Separator between values, so that ("ab", "c") and ("a", "bc") do not collide */
+    private static final byte SEPARATOR = 0;
+
+    /** Marker of a NULL value, so that NULL and "" do not collide */
+    private static final byte NULL_MARKER = 1;
+
+    private ContentHashUtils() {
+        // utility class
+    }
+
+    /**
+     * @param values values to fingerprint, in order. NULL values are allowed
+     * @return fingerprint of the values (URL-safe, without padding)
+     */
+    public static String hash(final String... values) {
+        final MessageDigest digest = newDigest();
+        for (String value : values) {
+            if (value == null) {
+                digest.update(NULL_MARKER);
+            } else {
+                digest.update(value.getBytes(StandardCharsets.UTF_8));
+            }
+            digest.update(SEPARATOR);
+        }
+        return encode(digest.digest());
+    }
+
+    /**
+     * @param content content to fingerprint
+     * @return fingerprint of the content (URL-safe, without padding)
+     */
+    public static String hash(final byte[] content) {
+        return encode(newDigest().digest(content));
+    }
+
+    /**
+     * @return new digest
+     */
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance(ALGORITHM);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(ALGORITHM + " is not available", e);
+        }
+    }
+
+    /**
+     * @param digest raw digest
+     * @return URL-safe text
+     */
+    private static String encode(final byte[] digest) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(digest);
+    }
+}
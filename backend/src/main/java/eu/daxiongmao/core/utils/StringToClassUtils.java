@@ -1,17 +1,27 @@
 package eu.daxiongmao.core.utils;
 
-import eu.daxiongmao.core.model.enums.Environment;
 import org.apache.commons.lang3.StringUtils;
 
-import java.util.HashMap;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Function;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 /**
  * Utility class to convert a String input into a particular output on runtime.
- * This is a trick to compensate static language to allow dynamic things during execution.
+ * This is a trick to compensate static language to allow dynamic things during execution.<br>
+ * Supported types: String, Boolean, numbers (Integer, Long, Short, Double, Float, BigDecimal), Duration, any enum,
+ * comma-separated lists ("java.util.List&lt;java.lang.Integer&gt;") and any type registered with {@link #registerConverter(Class, Function)}.
+ * <p>Technical note: class names resolution is cached (failures too) so that {@link Class#forName(String)},
+ * which goes through a synchronized class loader, is only called once per type.</p>
  * @author Guillaume Diaz
- * @version 1.0 (2020/01)
+ * @version 1.1 (2020/04)
  */
 public class StringToClassUtils {
 
@@ -26,9 +36,27 @@ public class StringToClassUtils {
 
     // ------------------ Class settings ------------------
     /** List of available converters. <br>
-     * Because Java isn't dynamic, you must create a dedicated converter for each object type you'd like to convert from X (String) to Y (convert class)
+     * Because Java isn't dynamic, you must create a dedicated converter for each object type you'd like to convert from X (String) to Y (convert class).
+     * Enums converters are generated on first use.
      */
-    private final Map<Class<?>, Function<String,?>> converters = new HashMap<>();
+    private final Map<Class<?>, Function<String,?>> converters = new ConcurrentHashMap<>();
+
+    /** Class names resolution, including failures
+     * <ul>
+     *     <li>Key: full qualified class name, or list type (ex: java.util.List&lt;java.lang.Integer&gt;)</li>
+     *     <li>Value: corresponding converter, or a function that throws the resolution failure</li>
+     * </ul>
+     */
+    private final Map<String, Function<String,?>> convertersByClassName = new ConcurrentHashMap<>();
+
+    /** Class names resolution, including failures. Value: resolved class or {@link ClassNotFoundException} */
+    private final Map<String, Object> classesByName = new ConcurrentHashMap<>();
+
+    /** List type name, ex: java.util.List&lt;java.lang.Integer&gt; */
+    private static final Pattern LIST_TYPE_PATTERN = Pattern.compile("^java\\.util\\.List<\\s*([\\w.$]+)\\s*>$");
+
+    /** Separator of list items */
+    private static final String LIST_SEPARATOR = ",";
 
     /**
      * Default constructor.<br>
@@ -52,14 +80,18 @@ public class StringToClassUtils {
 
         // Numbers
         addConverter(Integer.class, Integer::valueOf);
+        addConverter(Long.class, Long::valueOf);
         addConverter(Double.class, Double::valueOf);
         addConverter(Float.class, Float::valueOf);
         addConverter(Short.class, Short::valueOf);
+        addConverter(BigDecimal.class, BigDecimal::new);
 
-        // Enum
-        addConverter(Environment.class, (String input) -> {
-            final String upperCaseInput = input.toUpperCase();
-            return Environment.valueOf(upperCaseInput);
+        // Duration: ISO-8601 (PT30S, PT5M, P1D) or number of seconds
+        addConverter(Duration.class, (String input) -> {
+            if (input.chars().allMatch(Character::isDigit)) {
+                return Duration.ofSeconds(Long.parseLong(input));
+            }
+            return Duration.parse(input.toUpperCase());
         });
     }
 
@@ -71,6 +103,8 @@ public class StringToClassUtils {
      */
     private <T> void addConverter(Class<T> clazz, Function<String,T> func) {
         this.converters.put(clazz, func);
+        // Previous resolutions may have failed because of the missing converter
+        this.convertersByClassName.clear();
     }
 
     /**
@@ -79,14 +113,89 @@ public class StringToClassUtils {
      * @param clazz output class (= result type)
      * @return function to apply to convert from a String into requested type
      */
+    @SuppressWarnings("unchecked")
     private <T> Function<String,T> getConverter(Class<T> clazz) {
         Function<String,T> func = (Function<String,T>) this.converters.get(clazz);
+        if (func == null && clazz.isEnum()) {
+            func = (Function<String,T>) this.converters.computeIfAbsent(clazz, StringToClassUtils::newEnumConverter);
+        }
         if (func == null) {
             throw new IllegalStateException("Missing converter for type " + clazz);
         }
         return func;
     }
 
+    /**
+     * @param enumClass enum type
+     * @return converter from enum constant name (case insensitive)
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static Function<String,?> newEnumConverter(final Class<?> enumClass) {
+        return (String input) -> Enum.valueOf((Class<? extends Enum>) enumClass, input.toUpperCase());
+    }
+
+    /**
+     * To resolve a class name. Results are cached, failures too.
+     * @param className full qualified class name
+     * @return corresponding class
+     * @throws ClassNotFoundException class does not exists
+     */
+    private Class<?> resolveClass(final String className) throws ClassNotFoundException {
+        final Object resolution = classesByName.computeIfAbsent(className, (name) -> {
+            try {
+                return Class.forName(name);
+            } catch (ClassNotFoundException e) {
+                return e;
+            }
+        });
+        if (resolution instanceof ClassNotFoundException) {
+            throw new ClassNotFoundException(className);
+        }
+        return (Class<?>) resolution;
+    }
+
+    /**
+     * To resolve the converter of a type name. Results are cached, failures too.
+     * @param className full qualified class name, or list type (ex: java.util.List&lt;java.lang.Integer&gt;)
+     * @return function to apply to convert from a String into requested type. It throws the resolution failure if any
+     */
+    private Function<String,?> getConverter(final String className) {
+        return convertersByClassName.computeIfAbsent(className, (name) -> {
+            try {
+                final Matcher listType = LIST_TYPE_PATTERN.matcher(name);
+                if (listType.matches()) {
+                    final Function<String,?> itemConverter = getConverter(resolveClass(listType.group(1)));
+                    return (String input) -> toList(input, itemConverter);
+                }
+                return getConverter(resolveClass(name));
+            } catch (ClassNotFoundException e) {
+                return (String input) -> {
+                    throw new ClassCastException("Failed to convert value '" + input + "' as: " + name);
+                };
+            } catch (IllegalStateException e) {
+                return (String input) -> {
+                    throw new IllegalStateException(e.getMessage());
+                };
+            }
+        });
+    }
+
+    /**
+     * @param input comma-separated values
+     * @param itemConverter converter of each value
+     * @param <T> items type
+     * @return converted items (immutable). Blank items are skipped
+     */
+    private static <T> List<T> toList(final String input, final Function<String,T> itemConverter) {
+        final List<T> items = new ArrayList<>();
+        for (String item : input.split(LIST_SEPARATOR)) {
+            if (StringUtils.isNotBlank(item)) {
+                items.add(itemConverter.apply(item.trim()));
+            }
+        }
+        return Collections.unmodifiableList(items);
+    }
+
 
     /**
      * To convert a given String value into a particular output type
@@ -112,21 +221,23 @@ public class StringToClassUtils {
     /**
      * To convert a String into an object of a particular class
      * @param valueToConvert value to convert
-     * @param className full qualified class name (ex: java.lang.String, java.lang.Integer)
+     * @param className full qualified class name (ex: java.lang.String, java.lang.Integer) or list type (ex: java.util.List&lt;java.lang.Integer&gt;)
      * @return given String input into requested class or NULL
      * @throws IllegalArgumentException bad input: requested output type is missing
      * @throws IllegalStateException no converter available for the requested output type
      * @throws ClassCastException requested class does not exists
      */
     private Object convertValue(final String valueToConvert, final String className) {
-        try {
-            // Get class
-            final Class<?> classDefinition = Class.forName(className);
-            // Convert value
-            return convertValue(valueToConvert, classDefinition);
-        } catch (ClassNotFoundException e) {
-            throw new ClassCastException("Failed to convert value '" + valueToConvert + "' as: " + className);
+        // Arg check
+        if (className == null) {
+            throw new IllegalArgumentException("You must provide a valid target class to convert the input to");
+        }
+        // Resolve converter first: unknown types are reported even for empty values
+        final Function<String,?> converter = getConverter(className);
+        if (StringUtils.isBlank(valueToConvert)) {
+            return null;
         }
+        return converter.apply(valueToConvert.trim());
     }
 
     /**
@@ -145,7 +256,7 @@ public class StringToClassUtils {
     /**
      * To convert a String into an object of a particular class
      * @param valueToConvert value to convert
-     * @param className full qualified class name (ex: java.lang.String, java.lang.Integer)
+     * @param className full qualified class name (ex: java.lang.String, java.lang.Integer) or list type (ex: java.util.List&lt;java.lang.Integer&gt;)
      * @return given String input into requested class or NULL
      * @throws IllegalArgumentException bad input: requested output type is missing
      * @throws IllegalStateException no converter available for the requested output type
@@ -154,4 +265,47 @@ public class StringToClassUtils {
     public static Object getValue(final String valueToConvert, final String className) {
         return getInstance().convertValue(valueToConvert, className);
     }
+
+    /**
+     * To convert comma-separated values into a list of a particular class
+     * @param valueToConvert comma-separated values (ex: "1, 2, 3")
+     * @param clazz class of each item
+     * @param <T> items class
+     * @return converted items (immutable), empty list if the input is blank
+     * @throws IllegalArgumentException bad input: requested output type is missing
+     * @throws IllegalStateException no converter available for the requested output type
+     */
+    public static <T> List<T> getValues(final String valueToConvert, final Class<T> clazz) {
+        if (clazz == null) {
+            throw new IllegalArgumentException("You must provide a valid target class to convert the input to");
+        }
+        if (StringUtils.isBlank(valueToConvert)) {
+            return List.of();
+        }
+        return toList(valueToConvert, getInstance().getConverter(clazz));
+    }
+
+    /**
+     * To resolve a class by its name. This is cached: unlike {@link Class#forName(String)} repeated calls are cheap, failures included.
+     * @param className full qualified class name
+     * @return corresponding class
+     * @throws ClassNotFoundException class does not exists
+     */
+    public static Class<?> forName(final String className) throws ClassNotFoundException {
+        return getInstance().resolveClass(className);
+    }
+
+    /**
+     * To support a new type (or replace a converter). This should be done on startup.
+     * @param clazz output class (= result type)
+     * @param converter function to apply to transform a String into the requested output class.
+     *                  Input is never blank and already trimmed
+     * @param <T> output class
+     */
+    public static <T> void registerConverter(final Class<T> clazz, final Function<String,T> converter) {
+        if (clazz == null || converter == null) {
+            throw new IllegalArgumentException("You must provide a target class and its converter");
+        }
+        getInstance().addConverter(clazz, converter);
+    }
 }
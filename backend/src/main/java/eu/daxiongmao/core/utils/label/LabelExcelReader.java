@@ -3,17 +3,34 @@ package eu.daxiongmao.core.utils.label;
 import eu.daxiongmao.core.model.db.Label;
 import eu.daxiongmao.core.model.enums.AppLang;
 import lombok.extern.log4j.Log4j2;
+import org.apache.poi.ooxml.util.SAXHelper;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
 import org.apache.poi.ss.usermodel.*;
+import org.apache.poi.ss.util.CellReference;
+import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.apache.poi.xssf.eventusermodel.XSSFSheetXMLHandler;
+import org.apache.poi.xssf.usermodel.XSSFComment;
 import org.springframework.stereotype.Service;
+import org.xml.sax.InputSource;
+import org.xml.sax.XMLReader;
 
+import java.io.InputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
 
 /**
  * To import a label file into the application database
- * @version 1.0
+ * <ul>
+ *     <li>{@link #importLabelsFromFile(Path)}: whole workbook in memory, for small files (XLS or XLSX)</li>
+ *     <li>{@link #importLabelsFromFile(Path, int, Consumer)}: streaming, for large files (XLSX only).
+ *     Memory does not depend on the number of rows</li>
+ * </ul>
+ * @version 1.2
  * @since 2020/04
  * @author Guillaume Diaz
  */
@@ -43,8 +60,8 @@ public class LabelExcelReader {
             return Optional.empty();
         }
 
-        // Open workbook
-        try (final Workbook wb = WorkbookFactory.create(excelFile.toFile())) {
+        // Open workbook, read-only: closing it must not write the file back
+        try (final Workbook wb = WorkbookFactory.create(excelFile.toFile(), null, true)) {
             // Get sheet
             final Sheet labelsSheet = getLabelsSheet(wb);
             // Get labels
@@ -57,6 +74,78 @@ public class LabelExcelReader {
         }
     }
 
+    /**
+     * To import labels from a large Excel file (XLSX), without loading the whole workbook in memory.<br>
+     * Rows are parsed on the fly (SAX) and given to the consumer by chunks, in file order. Duplicates are not removed:
+     * this is up to the consumer.
+     * <p>Technical note: only the shared strings table is loaded in memory, rows are never kept after their chunk is consumed.</p>
+     * @param excelFile path of the excel file to process
+     * @param chunkSize maximum number of labels given at once to the consumer
+     * @param chunkConsumer to process each chunk of labels. On failure, chunks that were already consumed are not rolled back
+     * @return number of labels given to the consumer, or EMPTY if the file cannot be processed
+     * @throws RuntimeException any consumer failure, as it is: reading stops at the failing chunk
+     */
+    public Optional<Long> importLabelsFromFile(final Path excelFile, final int chunkSize, final Consumer<List<Label>> chunkConsumer) {
+        // arg check
+        if (excelFile == null) {
+            log.warn("Cannot import labels, no file given.");
+            return Optional.empty();
+        }
+        if (Files.notExists(excelFile)) {
+            log.warn("Cannot import labels, requested file {} does not exist.", excelFile.toAbsolutePath());
+            return Optional.empty();
+        }
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException("Chunk size must be positive: " + chunkSize);
+        }
+
+        // Open package (read only: the file must not be modified)
+        try (final OPCPackage excelPackage = OPCPackage.open(excelFile.toFile(), PackageAccess.READ)) {
+            final XSSFReader reader = new XSSFReader(excelPackage);
+            final int labelsSheetIndex = getLabelsSheetIndex(reader);
+            final LabelRowsHandler rowsHandler = new LabelRowsHandler(chunkSize, chunkConsumer);
+            final XSSFReader.SheetIterator sheets = (XSSFReader.SheetIterator) reader.getSheetsData();
+            for (int sheetIndex = 0; sheets.hasNext(); sheetIndex++) {
+                try (final InputStream sheetContent = sheets.next()) {
+                    if (sheetIndex == labelsSheetIndex) {
+                        final XMLReader sheetParser = SAXHelper.newXMLReader();
+                        sheetParser.setContentHandler(new XSSFSheetXMLHandler(reader.getStylesTable(), null,
+                                new ReadOnlySharedStringsTable(excelPackage), rowsHandler, new DataFormatter(), false));
+                        sheetParser.parse(new InputSource(sheetContent));
+                        break;
+                    }
+                }
+            }
+            rowsHandler.flush();
+            log.info("Successfully streamed {} labels from file {}", rowsHandler.nbOfLabels, excelFile.toAbsolutePath());
+            return Optional.of(rowsHandler.nbOfLabels);
+        } catch (ChunkConsumerException e) {
+            // Not a file issue: the caller must get the actual failure
+            throw e.getCause();
+        } catch (Exception e) {
+            log.warn("Failed to process label file '{}'", excelFile.toAbsolutePath(), e);
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * To retrieve the position of the "LABELS" sheet. If not found => fallback to 1st sheet
+     * @param reader excel workbook to analyse
+     * @return "LABELS" sheet index or 0 as fallback
+     * @throws Exception the workbook cannot be read
+     */
+    private int getLabelsSheetIndex(final XSSFReader reader) throws Exception {
+        final XSSFReader.SheetIterator sheets = (XSSFReader.SheetIterator) reader.getSheetsData();
+        for (int sheetIndex = 0; sheets.hasNext(); sheetIndex++) {
+            try (final InputStream ignored = sheets.next()) {
+                if (sheets.getSheetName().toUpperCase().equals(LABEL_SHEET_NAME)) {
+                    return sheetIndex;
+                }
+            }
+        }
+        return 0;
+    }
+
     /**
      * To retrieve the "LABELS" sheet. If not found => fallback to 1st sheet
      * @param wb excel workbook to analyse
@@ -142,6 +231,98 @@ public class LabelExcelReader {
         return label;
     }
 
+    /**
+     * SAX rows handler: same rules as {@link #parseLabelsSheet(Sheet)}, one row at a time
+     */
+    private static final class LabelRowsHandler implements XSSFSheetXMLHandler.SheetContentsHandler {
+
+        private final int chunkSize;
+        private final Consumer<List<Label>> chunkConsumer;
+        private final Map<Integer, AppLang> columnsLang = new HashMap<>();
+        private List<Label> chunk;
+        private Label currentLabel;
+        private int currentRowNum;
+        private long nbOfLabels;
+
+        private LabelRowsHandler(final int chunkSize, final Consumer<List<Label>> chunkConsumer) {
+            this.chunkSize = chunkSize;
+            this.chunkConsumer = chunkConsumer;
+            this.chunk = new ArrayList<>(chunkSize);
+        }
+
+        @Override
+        public void startRow(final int rowNum) {
+            currentRowNum = rowNum;
+            // Row 0: headers
+            currentLabel = rowNum == 0 ? null : new Label();
+        }
+
+        @Override
+        public void cell(final String cellReference, final String formattedValue, final XSSFComment comment) {
+            if (cellReference == null || formattedValue == null) {
+                return;
+            }
+            final int columnIndex = new CellReference(cellReference).getCol();
+            if (currentRowNum == 0) {
+                if (columnIndex > 0) {
+                    AppLang.getLanguageForCode(formattedValue).ifPresent((lang) -> columnsLang.put(columnIndex, lang));
+                }
+            } else if (columnIndex == 0) {
+                currentLabel.setCode(formattedValue);
+            } else {
+                currentLabel.setLang(columnsLang.get(columnIndex), formattedValue);
+            }
+        }
+
+        @Override
+        public void endRow(final int rowNum) {
+            if (currentLabel == null) {
+                return;
+            }
+            chunk.add(currentLabel);
+            currentLabel = null;
+            if (chunk.size() >= chunkSize) {
+                flush();
+            }
+        }
+
+        @Override
+        public void headerFooter(final String text, final boolean isHeader, final String tagName) {
+            // not used
+        }
+
+        /**
+         * To give the pending labels to the consumer
+         */
+        private void flush() {
+            if (chunk.isEmpty()) {
+                return;
+            }
+            nbOfLabels += chunk.size();
+            try {
+                chunkConsumer.accept(chunk);
+            } catch (RuntimeException e) {
+                throw new ChunkConsumerException(e);
+            }
+            // New list: the consumer may keep the previous one
+            chunk = new ArrayList<>(chunkSize);
+        }
+    }
+
+    /**
+     * Consumer failure, to tell it apart from file failures while the sheet is parsed
+     */
+    private static final class ChunkConsumerException extends RuntimeException {
 
+        private static final long serialVersionUID = 20200401L;
 
+        private ChunkConsumerException(final RuntimeException cause) {
+            super(cause);
+        }
+
+        @Override
+        public synchronized RuntimeException getCause() {
+            return (RuntimeException) super.getCause();
+        }
+    }
 }
@@ -6,20 +6,25 @@ import lombok.extern.log4j.Log4j2;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.poi.ss.usermodel.Row;
 import org.apache.poi.ss.usermodel.Sheet;
-import org.apache.poi.ss.usermodel.Workbook;
-import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
 import org.springframework.stereotype.Service;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
+import java.util.Iterator;
 import java.util.List;
+import java.util.NoSuchElementException;
 import java.util.Optional;
+import java.util.function.Function;
 
 /**
- * To export database labels to Excel file
- * @version 1.0
+ * To export database labels to Excel file.<br>
+ * The workbook is streamed (SXSSF): only a window of rows is kept in memory, whatever the number of labels.
+ * @version 1.1
  * @since 2020/04
  * @author Guillaume Diaz
  */
@@ -29,6 +34,9 @@ public class LabelExcelWriter {
 
     private static final String LABEL_SHEET_NAME = "LABELS";
 
+    /** Number of rows kept in memory. Older rows are flushed to POI's compressed buffer */
+    private static final int ROWS_WINDOW_SIZE = 100;
+
     protected LabelExcelWriter() {
         // package factory
     }
@@ -45,26 +53,14 @@ public class LabelExcelWriter {
             return Optional.empty();
         }
 
-        // Create new workbook in 2003+ format
-        final Workbook wb = new XSSFWorkbook();
-        final Sheet labelSheet = wb.createSheet(LABEL_SHEET_NAME);
-        createHeaderRow(wb, labelSheet);
-
-        // Populate file
-        int rowNumber = 1;
-        for (Label label : dbLabels) {
-            Optional<Row> contentRow = createContentRow(label, wb, labelSheet, rowNumber);
-            if (contentRow.isPresent()) {
-                rowNumber++;
-            }
-        }
-
         // Save file
         LocalDate date = LocalDate.now();
         DateTimeFormatter formatter = DateTimeFormatter.ISO_LOCAL_DATE;
         try {
             Path excelFile = Files.createTempFile(date.format(formatter), ".xlsx");
-            wb.write(Files.newOutputStream(excelFile));
+            try (OutputStream output = Files.newOutputStream(excelFile)) {
+                writeWorkbook(dbLabels.iterator(), output);
+            }
             log.info("Successfully wrote {} labels to file {}", dbLabels.size(), excelFile.toAbsolutePath());
             return Optional.of(excelFile);
         } catch (Exception e) {
@@ -73,18 +69,65 @@ public class LabelExcelWriter {
         }
     }
 
+    /**
+     * To export labels page by page, directly to the given output (ex: HTTP response).
+     * Only the current page of labels is in memory: each page is requested after the previous one has been written.
+     * @param pageAfterCode to retrieve the next page of labels, sorted by code. Input: code of the last exported label,
+     *                      NULL for the first page. An empty page ends the export
+     * @param output where to write the workbook. It is not closed
+     * @return number of exported labels
+     * @throws IOException failed to write the output
+     */
+    public long exportLabels(final Function<String, List<Label>> pageAfterCode, final OutputStream output) throws IOException {
+        final long nbOfLabels = writeWorkbook(new KeysetIterator(pageAfterCode), output);
+        log.info("Successfully streamed {} labels", nbOfLabels);
+        return nbOfLabels;
+    }
+
+    /**
+     * To write all labels as an Excel workbook
+     * @param labels labels to write
+     * @param output where to write the workbook. It is not closed
+     * @return number of written labels
+     * @throws IOException failed to write the output
+     */
+    private long writeWorkbook(final Iterator<Label> labels, final OutputStream output) throws IOException {
+        // Create new workbook in 2007+ format. Strings are inlined: no shared strings table to keep in memory
+        final SXSSFWorkbook wb = new SXSSFWorkbook(ROWS_WINDOW_SIZE);
+        wb.setCompressTempFiles(true);
+        try {
+            final Sheet labelSheet = wb.createSheet(LABEL_SHEET_NAME);
+            createHeaderRow(labelSheet);
+
+            // Populate file
+            int rowNumber = 1;
+            while (labels.hasNext()) {
+                Optional<Row> contentRow = createContentRow(labels.next(), labelSheet, rowNumber);
+                if (contentRow.isPresent()) {
+                    rowNumber++;
+                }
+            }
+            wb.write(output);
+            output.flush();
+            return rowNumber - 1L;
+        } finally {
+            // Delete POI's rows buffer
+            wb.dispose();
+            wb.close();
+        }
+    }
+
     /**
      * To create headers row
-     * @param wb Excel workbook
      * @param sheet excel sheet to update
      * @return Headers row
      */
-    private Row createHeaderRow(Workbook wb, Sheet sheet) {
+    private Row createHeaderRow(Sheet sheet) {
         Row headersRow = sheet.createRow(0);
         int columnNumber = 0;
-        headersRow.createCell(columnNumber++).setCellValue(wb.getCreationHelper().createRichTextString("CODE"));
+        headersRow.createCell(columnNumber++).setCellValue("CODE");
         for (AppLang appLang : AppLang.values()) {
-            headersRow.createCell(columnNumber++).setCellValue(wb.getCreationHelper().createRichTextString(appLang.getLanguageCode()));
+            headersRow.createCell(columnNumber++).setCellValue(appLang.getLanguageCode());
         }
         return headersRow;
     }
@@ -93,19 +136,63 @@ public class LabelExcelWriter {
      * To create content row
      * @return content row
      */
-    private Optional<Row> createContentRow(Label label, Workbook wb, Sheet sheet, int rowNumber) {
+    private Optional<Row> createContentRow(Label label, Sheet sheet, int rowNumber) {
         if (StringUtils.isBlank(label.getCode())) {
             return Optional.empty();
         }
         // Create content row
         Row contentRow = sheet.createRow(rowNumber);
         int columnNumber = 0;
-        contentRow.createCell(columnNumber++).setCellValue(wb.getCreationHelper().createRichTextString(label.getCode()));
+        contentRow.createCell(columnNumber++).setCellValue(label.getCode());
         for (AppLang appLang : AppLang.values()) {
             String langText = label.getLang(appLang);
             String langContent = StringUtils.isNotBlank(langText) ? langText : "";
-            contentRow.createCell(columnNumber++).setCellValue(wb.getCreationHelper().createRichTextString(langContent));
+            contentRow.createCell(columnNumber++).setCellValue(langContent);
         }
         return Optional.of(contentRow);
     }
+
+    /**
+     * Labels of all pages, see {@link #exportLabels(Function, OutputStream)}. Next page is only requested when the current one is consumed
+     */
+    private static final class KeysetIterator implements Iterator<Label> {
+
+        private final Function<String, List<Label>> pageAfterCode;
+        private Iterator<Label> currentPage;
+        /** NULL until the first page is read */
+        private String lastCode;
+        private boolean lastPage = false;
+
+        private KeysetIterator(final Function<String, List<Label>> pageAfterCode) {
+            this.pageAfterCode = pageAfterCode;
+            this.currentPage = List.<Label>of().iterator();
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (!currentPage.hasNext() && !lastPage) {
+                final List<Label> page = pageAfterCode.apply(lastCode);
+                if (page == null || page.isEmpty()) {
+                    lastPage = true;
+                } else {
+                    final String pageLastCode = page.get(page.size() - 1).getCode();
+                    if (pageLastCode == null || (lastCode != null && pageLastCode.compareTo(lastCode) <= 0)) {
+                        // Pages must move forward, otherwise the export would never end
+                        throw new IllegalStateException("Labels page is not sorted by code, after: " + lastCode);
+                    }
+                    lastCode = pageLastCode;
+                    currentPage = page.iterator();
+                }
+            }
+            return currentPage.hasNext();
+        }
+
+        @Override
+        public Label next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            return currentPage.next();
+        }
+    }
 }
@@ -0,0 +1,3 @@
+-- UNDO script
+DROP INDEX LABELS_MODIFICATION_DATE_IDX;
+DROP INDEX PARAMS_MODIFICATION_DATE_IDX;
\ No newline at end of file
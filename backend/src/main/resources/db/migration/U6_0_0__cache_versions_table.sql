@@ -0,0 +1,3 @@
+-- UNDO script
+DELETE FROM CACHE_VERSIONS;
+DROP TABLE CACHE_VERSIONS;
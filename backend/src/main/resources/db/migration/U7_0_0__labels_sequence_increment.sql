@@ -0,0 +1,2 @@
+-- UNDO script
+ALTER SEQUENCE SEQ_LABELS INCREMENT BY 1;
@@ -0,0 +1,4 @@
+-- UNDO script
+DELETE FROM LABELS WHERE CODE IN (
+      'HTTP_409_CONFLICT'
+);
@@ -0,0 +1,5 @@
+-- Incremental cache refresh
+-- Parameters and labels caches only load the rows modified since their last refresh
+--
+CREATE INDEX PARAMS_MODIFICATION_DATE_IDX    ON PARAMETERS (MODIFICATION_DATE);
+CREATE INDEX LABELS_MODIFICATION_DATE_IDX    ON LABELS (MODIFICATION_DATE);
@@ -0,0 +1,21 @@
+-- Cross-node cache invalidation
+-- Each cached table has a generation number, incremented on every change.
+-- Nodes poll this (tiny) table and only reload a cache when its generation changed.
+CREATE TABLE CACHE_VERSIONS
+(
+    CACHE_NAME                  VARCHAR2(50)                       CONSTRAINT "C_NN_CACHE_VERSIONS_NAME" NOT NULL,
+    GENERATION                  NUMBER(19,0)     DEFAULT 0         CONSTRAINT "C_NN_CACHE_VERSIONS_GEN" NOT NULL,
+    MODIFICATION_DATE           TIMESTAMP        DEFAULT SYSDATE   CONSTRAINT "C_NN_CACHE_VERSIONS_MOD_DATE" NOT NULL,
+    CONSTRAINT CACHE_VERSIONS_PK PRIMARY KEY (CACHE_NAME)
+);
+
+INSERT INTO CACHE_VERSIONS (CACHE_NAME, GENERATION) VALUES ('PARAMETERS', 0);
+INSERT INTO CACHE_VERSIONS (CACHE_NAME, GENERATION) VALUES ('LABELS', 0);
+
+
+-- *************
+-- Description
+-- *************
+COMMENT ON COLUMN CACHE_VERSIONS.CACHE_NAME          IS 'Name of the inner cache (PARAMETERS, LABELS, etc.)';
+COMMENT ON COLUMN CACHE_VERSIONS.GENERATION          IS 'Incremented on each change of the cached data. Nodes reload their cache when it changes';
+COMMENT ON COLUMN CACHE_VERSIONS.MODIFICATION_DATE   IS 'Date-time of the last change';
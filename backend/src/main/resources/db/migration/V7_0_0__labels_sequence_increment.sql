@@ -0,0 +1,5 @@
+-- Bulk labels import
+-- Hibernate reserves labels ids by blocks of 50 (pooled-lo optimizer): one sequence call for 50 inserts instead of one per insert.
+-- The sequence increment MUST match the entity allocation size (Label#id)
+--
+ALTER SEQUENCE SEQ_LABELS INCREMENT BY 50;
@@ -0,0 +1,3 @@
+-- HTTP 409 error code (optimistic locking: the resource has been modified by someone else)
+INSERT INTO LABELS(LABEL_ID, CODE, LANG_FR, LANG_EN, LANG_ZH, VERSION)
+    VALUES (SEQ_LABELS.nextval, 'HTTP_409_CONFLICT', 'Erreur HTTP 409 : la ressource a été modifiée par quelqu''un d''autre entre-temps, veuillez la recharger et réessayer', 'HTTP error 409: the resource has been modified by someone else in the meantime, please reload it and try again', 'HTTP 409错误', 1);
@@ -0,0 +1,6 @@
+-- H2 specific code
+-- Label codes are unique: imports and concurrent writes cannot create duplicates.
+-- This fails if duplicate codes already exist. They must be reviewed and removed manually first, see:
+--   SELECT CODE, COUNT(*) FROM LABELS GROUP BY CODE HAVING COUNT(*) > 1;
+DROP INDEX LABELS_CODE_IDX;
+CREATE UNIQUE INDEX LABELS_CODE_IDX        ON LABELS (CODE);
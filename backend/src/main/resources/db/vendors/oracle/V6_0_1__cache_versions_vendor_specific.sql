@@ -0,0 +1,14 @@
+-- Specific Oracle PL/SQL code
+
+-- Cross-node cache invalidation: any change on cached tables (application or manual SQL) bumps the cache generation
+CREATE OR REPLACE TRIGGER PARAMETERS_TRIGGER_CACHE_VERSION AFTER INSERT OR UPDATE OR DELETE ON PARAMETERS
+    begin
+        UPDATE CACHE_VERSIONS SET GENERATION = GENERATION + 1, MODIFICATION_DATE = sysdate WHERE CACHE_NAME = 'PARAMETERS';
+    end;
+/
+
+CREATE OR REPLACE TRIGGER LABELS_TRIGGER_CACHE_VERSION AFTER INSERT OR UPDATE OR DELETE ON LABELS
+    begin
+        UPDATE CACHE_VERSIONS SET GENERATION = GENERATION + 1, MODIFICATION_DATE = sysdate WHERE CACHE_NAME = 'LABELS';
+    end;
+/
@@ -0,0 +1,7 @@
+-- Specific Oracle PL/SQL code
+
+-- Label codes are unique, no matter the case: imports and concurrent writes cannot create duplicates.
+-- This fails if duplicate codes already exist. They must be reviewed and removed manually first, see:
+--   SELECT UPPER(CODE), COUNT(*) FROM LABELS GROUP BY UPPER(CODE) HAVING COUNT(*) > 1;
+DROP INDEX LABELS_CODE_IDX;
+CREATE UNIQUE INDEX LABELS_CODE_IDX        ON LABELS (UPPER(CODE));
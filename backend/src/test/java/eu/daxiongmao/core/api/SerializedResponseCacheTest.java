@@ -0,0 +1,39 @@
+package eu.daxiongmao.core.api;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.util.Map;
+
+public class SerializedResponseCacheTest {
+
+    @Test
+    public void acceptsGzip() {
+        Assertions.assertTrue(SerializedResponseCache.acceptsGzip("gzip"));
+        Assertions.assertTrue(SerializedResponseCache.acceptsGzip("deflate, GZIP;q=0.5"));
+        Assertions.assertTrue(SerializedResponseCache.acceptsGzip("*"));
+        Assertions.assertFalse(SerializedResponseCache.acceptsGzip(null));
+        Assertions.assertFalse(SerializedResponseCache.acceptsGzip("identity"));
+        Assertions.assertFalse(SerializedResponseCache.acceptsGzip("br, gzip;q=0"));
+        Assertions.assertFalse(SerializedResponseCache.acceptsGzip("gzip; q=0.0"));
+    }
+
+    @Test
+    public void preparedResponse() {
+        final SerializedResponseCache cache = new SerializedResponseCache(new ObjectMapper(), 1024 * 1024);
+        cache.prepare("test", "hash1", () -> Map.of("KEY", "value"));
+
+        // Already serialized: the body is not retrieved again
+        final ServletWebRequest request = new ServletWebRequest(new MockHttpServletRequest(), new MockHttpServletResponse());
+        final byte[] body = cache.getResponse("test", "hash1", () -> Assertions.fail("Response already prepared"), request).getBody();
+        Assertions.assertEquals("{\"KEY\":\"value\"}", new String(body));
+
+        // New content: serialized again
+        final ServletWebRequest otherRequest = new ServletWebRequest(new MockHttpServletRequest(), new MockHttpServletResponse());
+        Assertions.assertEquals("{}", new String(cache.getResponse("test", "hash2", Map::of, otherRequest).getBody()));
+    }
+}
@@ -0,0 +1,72 @@
+package eu.daxiongmao.core.api.v1;
+
+import eu.daxiongmao.core.DaxiongmaoApplicationTest;
+import eu.daxiongmao.core.api.AdminAccessInterceptor;
+import eu.daxiongmao.core.api.ExceptionHandlingController;
+import eu.daxiongmao.core.business.LabelService;
+import eu.daxiongmao.core.business.cache.InnerCacheRegistry;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.nio.file.Files;
+import java.nio.file.Paths;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.multipart;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+public class AdminLabelControllerTest extends DaxiongmaoApplicationTest {
+
+    @Autowired
+    private AdminLabelController adminLabelController;
+
+    @Autowired
+    private AdminAccessInterceptor adminAccessInterceptor;
+
+    @Autowired
+    private ExceptionHandlingController exceptionHandlingController;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private InnerCacheRegistry cacheRegistry;
+
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    public void setup() {
+        mockMvc = MockMvcBuilders.standaloneSetup(adminLabelController).setControllerAdvice(exceptionHandlingController)
+                .addMappedInterceptors(new String[] { AdminAccessInterceptor.ADMIN_PATH_PATTERN }, adminAccessInterceptor).build();
+    }
+
+    @Test
+    public void importRequiresAdminKey() throws Exception {
+        final MockMultipartFile file = new MockMultipartFile("file", "labels.xlsx", null,
+                Files.readAllBytes(Paths.get("src", "test", "resources", "labels", "labels_single_tab.xlsx")));
+        final long nbOfLabels = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM LABELS", Long.class);
+        final long maxLabelId = jdbcTemplate.queryForObject("SELECT MAX(LABEL_ID) FROM LABELS", Long.class);
+
+        // Missing or wrong key
+        mockMvc.perform(multipart("/v1/admin/labels/import").file(file)).andExpect(status().isForbidden());
+        mockMvc.perform(multipart("/v1/admin/labels/import").file(file).header(AdminAccessInterceptor.API_KEY_HEADER, "wrong-key"))
+                .andExpect(status().isForbidden());
+        Assertions.assertEquals(nbOfLabels, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM LABELS", Long.class));
+
+        // Administrator
+        try {
+            mockMvc.perform(multipart("/v1/admin/labels/import").file(file).header(AdminAccessInterceptor.API_KEY_HEADER, "test-admin-key"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.nbOfInserted").value(26));
+        } finally {
+            jdbcTemplate.update("DELETE FROM LABELS WHERE LABEL_ID > ?", maxLabelId);
+            cacheRegistry.getCache(LabelService.CACHE_NAME).orElseThrow().updateCache(true);
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package eu.daxiongmao.core.api.v1;
+
+import eu.daxiongmao.core.DaxiongmaoApplicationTest;
+import eu.daxiongmao.core.api.AdminAccessInterceptor;
+import eu.daxiongmao.core.api.ExceptionHandlingController;
+import eu.daxiongmao.core.business.ParameterService;
+import eu.daxiongmao.core.model.dto.ParameterDTO;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.util.List;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+public class AdminParameterControllerTest extends DaxiongmaoApplicationTest {
+
+    private static final String PARAM_NAME = "APP.VERSION";
+
+    @Autowired
+    private AdminParameterController adminParameterController;
+
+    @Autowired
+    private AdminAccessInterceptor adminAccessInterceptor;
+
+    @Autowired
+    private ExceptionHandlingController exceptionHandlingController;
+
+    @Autowired
+    private ParameterService parameterService;
+
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    public void setup() {
+        mockMvc = MockMvcBuilders.standaloneSetup(adminParameterController).setControllerAdvice(exceptionHandlingController)
+                .addMappedInterceptors(new String[] { AdminAccessInterceptor.ADMIN_PATH_PATTERN }, adminAccessInterceptor).build();
+    }
+
+    @Test
+    public void updateAllRequiresAdminKey() throws Exception {
+        final ParameterDTO current = parameterService.getParamByName(PARAM_NAME, false, false).orElseThrow();
+        final String change = "[{\"paramName\": \"" + PARAM_NAME + "\", \"paramValue\": \"9.9\", \"version\": " + current.getVersion() + "}]";
+
+        // Missing or wrong key
+        mockMvc.perform(put("/v1/admin/parameters/updateAll").contentType(MediaType.APPLICATION_JSON).content(change))
+                .andExpect(status().isForbidden());
+        mockMvc.perform(put("/v1/admin/parameters/updateAll").contentType(MediaType.APPLICATION_JSON).content(change)
+                .header(AdminAccessInterceptor.API_KEY_HEADER, "wrong-key"))
+                .andExpect(status().isForbidden());
+        Assertions.assertEquals(current.getParamValue(), parameterService.getParamByName(PARAM_NAME, false, false).orElseThrow().getParamValue());
+
+        // Administrator
+        try {
+            mockMvc.perform(put("/v1/admin/parameters/updateAll").contentType(MediaType.APPLICATION_JSON).content(change)
+                    .header(AdminAccessInterceptor.API_KEY_HEADER, "test-admin-key"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$[0].paramValue").value("9.9"));
+            Assertions.assertEquals("9.9", parameterService.getParamByName(PARAM_NAME, false, false).orElseThrow().getParamValue());
+
+            // Sensitive parameters cannot be changed, even by administrators
+            mockMvc.perform(put("/v1/admin/parameters/updateAll").contentType(MediaType.APPLICATION_JSON)
+                    .content("[{\"paramName\": \"APP.DB.PASSWORD\", \"paramValue\": \"newPassword\", \"version\": 1}]")
+                    .header(AdminAccessInterceptor.API_KEY_HEADER, "test-admin-key"))
+                    .andExpect(status().isForbidden());
+        } finally {
+            final ParameterDTO restore = new ParameterDTO();
+            restore.setParamName(PARAM_NAME);
+            restore.setParamValue(current.getParamValue());
+            restore.setVersion(parameterService.getParamByName(PARAM_NAME, false, false).orElseThrow().getVersion());
+            parameterService.updateAll(List.of(restore));
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package eu.daxiongmao.core.api.v1;
+
+import com.jayway.jsonpath.JsonPath;
+import eu.daxiongmao.core.DaxiongmaoApplicationTest;
+import eu.daxiongmao.core.api.ExceptionHandlingController;
+import eu.daxiongmao.core.dao.LabelRepository;
+import eu.daxiongmao.core.model.db.Label;
+import eu.daxiongmao.core.utils.label.LabelExcelReader;
+import org.hamcrest.Matchers;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Set;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+public class LabelControllerTest extends DaxiongmaoApplicationTest {
+
+    @Autowired
+    private LabelController labelController;
+
+    @Autowired
+    private ExceptionHandlingController exceptionHandlingController;
+
+    @Autowired
+    private LabelExcelReader labelExcelReader;
+
+    @Autowired
+    private LabelRepository labelRepository;
+
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    public void setup() {
+        mockMvc = MockMvcBuilders.standaloneSetup(labelController).setControllerAdvice(exceptionHandlingController).setUseSuffixPatternMatch(false).build();
+    }
+
+    @Test
+    public void manifestAndBundles() throws Exception {
+        // Manifest: to be revalidated on each use
+        final MvcResult manifestCall = mockMvc.perform(get("/v1/labels/manifest"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.EN").isNotEmpty())
+                .andExpect(jsonPath("$.FR").isNotEmpty())
+                .andReturn();
+        Assertions.assertEquals("no-cache", manifestCall.getResponse().getHeader(HttpHeaders.CACHE_CONTROL));
+        final String manifestEtag = manifestCall.getResponse().getHeader(HttpHeaders.ETAG);
+        mockMvc.perform(get("/v1/labels/manifest").header(HttpHeaders.IF_NONE_MATCH, manifestEtag)).andExpect(status().isNotModified());
+
+        // Bundle: cached forever
+        final String contentHash = JsonPath.read(manifestCall.getResponse().getContentAsString(), "$.FR");
+        final MvcResult bundleCall = mockMvc.perform(get("/v1/labels/bundles/fr/" + contentHash))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.HTTP_404_NOT_FOUND").value(Matchers.startsWith("Erreur HTTP 404")))
+                .andReturn();
+        Assertions.assertTrue(bundleCall.getResponse().getHeader(HttpHeaders.CACHE_CONTROL).contains("immutable"));
+
+        // Filtered bundle
+        mockMvc.perform(get("/v1/labels/bundles/FR/" + contentHash).param("prefix", "http_40"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.HTTP_404_NOT_FOUND").exists())
+                .andExpect(jsonPath("$.HTTP_500_INTERNAL_SERVER_ERROR").doesNotExist());
+
+        // Outdated fingerprint: redirected to the current bundle
+        final MvcResult outdatedCall = mockMvc.perform(get("/v1/labels/bundles/FR/outdated").param("prefix", "http_40"))
+                .andExpect(status().isFound()).andReturn();
+        Assertions.assertTrue(outdatedCall.getResponse().getHeader(HttpHeaders.LOCATION)
+                .endsWith("/v1/labels/bundles/FR/" + contentHash + "?prefix=HTTP_40"));
+
+        // Unknown language
+        mockMvc.perform(get("/v1/labels/bundles/XX/" + contentHash)).andExpect(status().isBadRequest());
+    }
+
+    @Test
+    public void exportLabels() throws Exception {
+        final MvcResult asyncCall = mockMvc.perform(get("/v1/labels/export")).andExpect(request().asyncStarted()).andReturn();
+        final MvcResult exportCall = mockMvc.perform(asyncDispatch(asyncCall)).andExpect(status().isOk()).andReturn();
+        Assertions.assertTrue(exportCall.getResponse().getHeader(HttpHeaders.CONTENT_DISPOSITION).startsWith("attachment"));
+
+        // Same labels as the database
+        final Path tempFile = Files.createTempFile("labels", ".xlsx");
+        try {
+            Files.write(tempFile, exportCall.getResponse().getContentAsByteArray());
+            final Set<Label> labels = labelExcelReader.importLabelsFromFile(tempFile).orElseThrow();
+            Assertions.assertEquals(labelRepository.count(), labels.size());
+        } finally {
+            Files.delete(tempFile);
+        }
+    }
+}
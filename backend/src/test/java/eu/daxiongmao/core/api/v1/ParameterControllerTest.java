@@ -0,0 +1,123 @@
+package eu.daxiongmao.core.api.v1;
+
+import eu.daxiongmao.core.DaxiongmaoApplicationTest;
+import eu.daxiongmao.core.model.enums.param.BusinessParam;
+import org.hamcrest.Matchers;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.io.ByteArrayInputStream;
+import java.util.zip.GZIPInputStream;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+public class ParameterControllerTest extends DaxiongmaoApplicationTest {
+
+    @Autowired
+    private ParameterController parameterController;
+
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    public void setup() {
+        // Same path matching as the application: parameter names contain dots
+        mockMvc = MockMvcBuilders.standaloneSetup(parameterController).setUseSuffixPatternMatch(false).build();
+    }
+
+    @Test
+    public void getAllWithETag() throws Exception {
+        final MvcResult firstCall = mockMvc.perform(get("/v1/parameters/getAll")).andExpect(status().isOk()).andReturn();
+        final String etag = firstCall.getResponse().getHeader(HttpHeaders.ETAG);
+        Assertions.assertNotNull(etag);
+        Assertions.assertFalse(firstCall.getResponse().getContentAsString().isEmpty());
+
+        // Client already has the current content
+        final MvcResult secondCall = mockMvc.perform(get("/v1/parameters/getAll").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified()).andReturn();
+        Assertions.assertTrue(secondCall.getResponse().getContentAsString().isEmpty());
+
+        // Outdated content
+        mockMvc.perform(get("/v1/parameters/getAll").header(HttpHeaders.IF_NONE_MATCH, "\"outdated\"")).andExpect(status().isOk());
+    }
+
+    @Test
+    public void getByNameWithETag() throws Exception {
+        final String url = "/v1/parameters/getByName/" + BusinessParam.APP_DEFAULT_LANGUAGE.getParamName().toLowerCase();
+        final String etag = mockMvc.perform(get(url)).andExpect(status().isOk()).andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        Assertions.assertNotNull(etag);
+        mockMvc.perform(get(url).header(HttpHeaders.IF_NONE_MATCH, etag)).andExpect(status().isNotModified());
+
+        // Each parameter has its own tag
+        final String otherEtag = mockMvc.perform(get("/v1/parameters/getAll")).andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        Assertions.assertNotEquals(etag, otherEtag);
+    }
+
+    @Test
+    public void getByNameMissingWithETag() throws Exception {
+        // "Not found" answers are cached too
+        final String url = "/v1/parameters/getByName/test.missing.param";
+        final MvcResult firstCall = mockMvc.perform(get(url)).andExpect(status().isOk()).andReturn();
+        final String etag = firstCall.getResponse().getHeader(HttpHeaders.ETAG);
+        Assertions.assertNotNull(etag);
+        Assertions.assertEquals("null", firstCall.getResponse().getContentAsString());
+        mockMvc.perform(get(url).header(HttpHeaders.IF_NONE_MATCH, etag)).andExpect(status().isNotModified());
+
+        // Each missing parameter has its own tag
+        final String otherEtag = mockMvc.perform(get(url + ".other")).andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        Assertions.assertNotEquals(etag, otherEtag);
+    }
+
+    @Test
+    public void getAllSerializedOnce() throws Exception {
+        final MvcResult plainCall = mockMvc.perform(get("/v1/parameters/getAll")).andExpect(status().isOk()).andReturn();
+        final byte[] plainBody = plainCall.getResponse().getContentAsByteArray();
+        Assertions.assertNull(plainCall.getResponse().getHeader(HttpHeaders.CONTENT_ENCODING));
+
+        // Same bytes for next requests
+        Assertions.assertArrayEquals(plainBody, mockMvc.perform(get("/v1/parameters/getAll")).andReturn().getResponse().getContentAsByteArray());
+
+        // Compressed variant
+        final MvcResult gzipCall = mockMvc.perform(get("/v1/parameters/getAll").header(HttpHeaders.ACCEPT_ENCODING, "deflate, gzip;q=0.8"))
+                .andExpect(status().isOk()).andReturn();
+        Assertions.assertEquals("gzip", gzipCall.getResponse().getHeader(HttpHeaders.CONTENT_ENCODING));
+        Assertions.assertEquals(HttpHeaders.ACCEPT_ENCODING, gzipCall.getResponse().getHeader(HttpHeaders.VARY));
+        try (GZIPInputStream gzipStream = new GZIPInputStream(new ByteArrayInputStream(gzipCall.getResponse().getContentAsByteArray()))) {
+            Assertions.assertArrayEquals(plainBody, gzipStream.readAllBytes());
+        }
+
+        // Each content coding has its own entity tag
+        final String plainEtag = plainCall.getResponse().getHeader(HttpHeaders.ETAG);
+        final String gzipEtag = gzipCall.getResponse().getHeader(HttpHeaders.ETAG);
+        Assertions.assertNotEquals(plainEtag, gzipEtag);
+        final MvcResult notModifiedCall = mockMvc.perform(get("/v1/parameters/getAll").header(HttpHeaders.ACCEPT_ENCODING, "gzip")
+                .header(HttpHeaders.IF_NONE_MATCH, gzipEtag)).andExpect(status().isNotModified()).andReturn();
+        Assertions.assertEquals(HttpHeaders.ACCEPT_ENCODING, notModifiedCall.getResponse().getHeader(HttpHeaders.VARY));
+        mockMvc.perform(get("/v1/parameters/getAll").header(HttpHeaders.IF_NONE_MATCH, gzipEtag)).andExpect(status().isOk());
+    }
+
+    @Test
+    public void getByNames() throws Exception {
+        mockMvc.perform(post("/v1/parameters/getByNames").contentType(MediaType.APPLICATION_JSON)
+                .content("[\"app.default_lang\", \"APP.DB.PASSWORD\", \"TEST.UNKNOWN\", \"APP.DEFAULT_LANG\"]"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(3))
+                .andExpect(jsonPath("$[0].paramName").value("APP.DEFAULT_LANG"))
+                .andExpect(jsonPath("$[0].status").value("FOUND"))
+                .andExpect(jsonPath("$[0].parameter.paramValue").exists())
+                .andExpect(jsonPath("$[0].parameter.paramTypeClass").value("java.lang.String"))
+                .andExpect(jsonPath("$[0].parameter.value").value(Matchers.equalToIgnoringCase("en")))
+                .andExpect(jsonPath("$[1].status").value("RESTRICTED"))
+                .andExpect(jsonPath("$[1].parameter").doesNotExist())
+                .andExpect(jsonPath("$[2].status").value("MISSING"));
+    }
+}
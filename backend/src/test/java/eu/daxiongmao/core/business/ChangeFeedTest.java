@@ -0,0 +1,103 @@
+package eu.daxiongmao.core.business;
+
+import eu.daxiongmao.core.model.dto.ChangeEventDTO;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Changes feed test
+ * @author Guillaume Diaz
+ * @version 1.1
+ * @since 2020/04
+ */
+public class ChangeFeedTest {
+
+    @Test
+    public void publishAndResume() {
+        final ChangeFeed feed = new ChangeFeed(3);
+        final List<Long> resets = new ArrayList<>();
+
+        // New subscriber: reset, then live events
+        final List<ChangeEventDTO> received = new ArrayList<>();
+        final Consumer<ChangeEventDTO> subscriber = received::add;
+        feed.subscribe(null, subscriber, resets::add);
+        Assertions.assertEquals(1, resets.size());
+        final long startId = resets.get(0);
+
+        feed.publish("PARAMETERS", Map.of("A", "1"), List.of());
+        feed.publish("PARAMETERS", Map.of(), List.of());
+        feed.publish("LABELS", Map.of(), List.of("B"));
+        Assertions.assertEquals(2, received.size());
+        Assertions.assertEquals(startId + 1, received.get(0).getId());
+        Assertions.assertEquals("1", received.get(0).getChanged().get("A"));
+        Assertions.assertEquals(List.of("B"), received.get(1).getRemoved());
+        feed.unsubscribe(subscriber);
+        Assertions.assertEquals(0, feed.getNbOfSubscribers());
+
+        // Resume: missed events only, in order
+        final List<ChangeEventDTO> resumed = new ArrayList<>();
+        feed.subscribe(startId + 1, resumed::add, resets::add);
+        Assertions.assertEquals(1, resets.size());
+        Assertions.assertEquals(1, resumed.size());
+        Assertions.assertEquals(startId + 2, resumed.get(0).getId());
+
+        // Up to date: nothing to replay
+        final List<ChangeEventDTO> upToDate = new ArrayList<>();
+        feed.subscribe(startId + 2, upToDate::add, resets::add);
+        Assertions.assertTrue(upToDate.isEmpty());
+        Assertions.assertEquals(1, resets.size());
+
+        // Events no longer in history, or unknown id: reset
+        feed.publish("LABELS", Map.of("C", "3"), List.of());
+        feed.publish("LABELS", Map.of("D", "4"), List.of());
+        feed.subscribe(startId, (event) -> Assertions.fail("No replay expected"), resets::add);
+        feed.subscribe(startId + 100, (event) -> Assertions.fail("No replay expected"), resets::add);
+        Assertions.assertEquals(List.of(startId, startId + 4, startId + 4), resets);
+        Assertions.assertEquals(3, resumed.size());
+    }
+
+    @Test
+    public void subscriberFailure() {
+        final ChangeFeed feed = new ChangeFeed(10);
+        final List<ChangeEventDTO> received = new ArrayList<>();
+        feed.subscribe(null, (event) -> {
+            throw new IllegalStateException("test");
+        }, (id) -> { });
+        feed.subscribe(null, received::add, (id) -> { });
+
+        feed.publish("PARAMETERS", Map.of("A", "1"), List.of());
+        Assertions.assertEquals(1, received.size());
+    }
+
+    @Test
+    public void nodeLocalEventIds() {
+        // 2 nodes: each has its own feed
+        final ChangeFeed node1 = new ChangeFeed(10);
+        final ChangeFeed node2 = new ChangeFeed(10);
+        final List<Long> resets = new ArrayList<>();
+        final List<ChangeEventDTO> received = new ArrayList<>();
+        node1.subscribe(null, received::add, resets::add);
+        node1.publish("LABELS", Map.of("A", "1"), List.of());
+        node2.publish("LABELS", Map.of("A", "1"), List.of());
+        node2.publish("PARAMETERS", Map.of("B", "2"), List.of());
+        Assertions.assertEquals(1, received.size());
+
+        // Resume on the other node: reset, never a partial replay
+        node2.subscribe(received.get(0).getId(), (event) -> Assertions.fail("No replay expected"), resets::add);
+        Assertions.assertEquals(2, resets.size());
+        Assertions.assertNotEquals(resets.get(0), resets.get(1));
+
+        // Resume on the same node
+        final List<ChangeEventDTO> resumed = new ArrayList<>();
+        node1.publish("PARAMETERS", Map.of("B", "2"), List.of());
+        node1.subscribe(received.get(0).getId(), resumed::add, resets::add);
+        Assertions.assertEquals(2, resets.size());
+        Assertions.assertEquals(1, resumed.size());
+        Assertions.assertEquals(received.get(0).getId() + 1, resumed.get(0).getId());
+    }
+}
@@ -0,0 +1,115 @@
+package eu.daxiongmao.core.business;
+
+import eu.daxiongmao.core.DaxiongmaoApplicationTest;
+import eu.daxiongmao.core.api.error.ApiErrorCodesEnum;
+import eu.daxiongmao.core.business.cache.InnerCache;
+import eu.daxiongmao.core.business.cache.InnerCacheRegistry;
+import eu.daxiongmao.core.model.dto.LabelImportReportDTO;
+import eu.daxiongmao.core.model.enums.AppLang;
+import eu.daxiongmao.core.model.exception.BadRequestException;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Date;
+import java.util.Optional;
+
+public class LabelServiceTest extends DaxiongmaoApplicationTest {
+
+    private static final String LABEL_CODE = "HTTP_404_NOT_FOUND";
+
+    @Autowired
+    private LabelService labelService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private InnerCacheRegistry cacheRegistry;
+
+    @Test
+    public void getByCodeAndLanguage() {
+        final String english = labelService.getByCodeAndLanguage(LABEL_CODE, AppLang.ENGLISH).orElseThrow();
+        Assertions.assertTrue(english.startsWith("HTTP error 404"));
+        Assertions.assertTrue(labelService.getByCodeAndLanguage(LABEL_CODE, AppLang.FRENCH).orElseThrow().startsWith("Erreur HTTP 404"));
+        Assertions.assertTrue(labelService.getByCodeAndLanguage(ApiErrorCodesEnum.HTTP_409_CONFLICT.name(), AppLang.ENGLISH).orElseThrow().startsWith("HTTP error 409"));
+        // Case insensitive codes
+        Assertions.assertEquals(Optional.of(english), labelService.getByCodeAndLanguage(LABEL_CODE.toLowerCase(), AppLang.ENGLISH));
+        // Unknown code
+        Assertions.assertTrue(labelService.getByCodeAndLanguage("UNKNOWN.LABEL", AppLang.ENGLISH).isEmpty());
+        Assertions.assertTrue(labelService.getByCodeAndLanguage(" ", AppLang.ENGLISH).isEmpty());
+    }
+
+    @Test
+    public void defaultLanguageFallback() {
+        final InnerCache<?, ?> labelsCache = cacheRegistry.getCache(LabelService.CACHE_NAME).orElseThrow();
+        final String chinese = labelService.getByCodeAndLanguage(LABEL_CODE, AppLang.CHINESE).orElseThrow();
+        final String defaultText = labelService.getByCodeAndLanguage(LABEL_CODE, labelService.getDefaultLanguage()).orElseThrow();
+        try {
+            // Missing translation: default language text
+            updateLabelText(null);
+            labelsCache.updateCache(true);
+            Assertions.assertEquals(Optional.of(defaultText), labelService.getByCodeAndLanguage(LABEL_CODE, AppLang.CHINESE));
+        } finally {
+            updateLabelText(chinese);
+            labelsCache.updateCache(true);
+        }
+        Assertions.assertEquals(Optional.of(chinese), labelService.getByCodeAndLanguage(LABEL_CODE, AppLang.CHINESE));
+    }
+
+    @Test
+    public void importLabels() {
+        final InnerCache<?, ?> labelsCache = cacheRegistry.getCache(LabelService.CACHE_NAME).orElseThrow();
+        final Path excelFile = Paths.get("src", "test", "resources", "labels", "labels_single_tab.xlsx");
+        final long maxLabelId = jdbcTemplate.queryForObject("SELECT MAX(LABEL_ID) FROM LABELS", Long.class);
+        final Object importChunkSize = ReflectionTestUtils.getField(labelService, "importChunkSize");
+        try {
+            // Several chunks, each committed and published on its own
+            ReflectionTestUtils.setField(labelService, "importChunkSize", 10);
+
+            // New labels, available once committed
+            final LabelImportReportDTO firstImport = labelService.importLabels(excelFile);
+            Assertions.assertEquals(26, firstImport.getNbOfInserted());
+            Assertions.assertEquals(0, firstImport.getNbOfUpdated());
+            Assertions.assertEquals(0, firstImport.getNbOfUnchanged());
+            Assertions.assertTrue(labelService.getByCodeAndLanguage("HTTP_405", AppLang.ENGLISH).orElseThrow().startsWith("405 Method Not Allowed"));
+
+            // Same file: nothing to write
+            final LabelImportReportDTO secondImport = labelService.importLabels(excelFile);
+            Assertions.assertEquals(0, secondImport.getNbOfInserted());
+            Assertions.assertEquals(0, secondImport.getNbOfUpdated());
+            Assertions.assertEquals(26, secondImport.getNbOfUnchanged());
+            Assertions.assertEquals(1, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM LABELS WHERE CODE = 'HTTP_405'", Long.class));
+            Assertions.assertThrows(DataIntegrityViolationException.class, () ->
+                    jdbcTemplate.update("INSERT INTO LABELS (LABEL_ID, CODE) VALUES (SEQ_LABELS.nextval, 'HTTP_405')"));
+
+            // Changed texts are restored
+            jdbcTemplate.update("UPDATE LABELS SET LANG_EN = 'changed', MODIFICATION_DATE = ?, VERSION = VERSION + 1 WHERE CODE = 'HTTP_405'", new Date());
+            final LabelImportReportDTO thirdImport = labelService.importLabels(excelFile);
+            Assertions.assertEquals(1, thirdImport.getNbOfUpdated());
+            Assertions.assertEquals(25, thirdImport.getNbOfUnchanged());
+            Assertions.assertTrue(labelService.getByCodeAndLanguage("HTTP_405", AppLang.ENGLISH).orElseThrow().startsWith("405 Method Not Allowed"));
+            Assertions.assertEquals(1, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM LABELS WHERE CODE = 'HTTP_405' AND LANG_EN <> 'changed'", Long.class));
+        } finally {
+            ReflectionTestUtils.setField(labelService, "importChunkSize", importChunkSize);
+            jdbcTemplate.update("DELETE FROM LABELS WHERE LABEL_ID > ?", maxLabelId);
+            labelsCache.updateCache(true);
+        }
+        Assertions.assertTrue(labelService.getByCodeAndLanguage("HTTP_405", AppLang.ENGLISH).isEmpty());
+    }
+
+    @Test
+    public void importInvalidFile() {
+        final Path excelFile = Paths.get("src", "test", "resources", "labels", "unknown.xlsx");
+        Assertions.assertThrows(BadRequestException.class, () -> labelService.importLabels(excelFile));
+    }
+
+    private void updateLabelText(final String chineseText) {
+        jdbcTemplate.update("UPDATE LABELS SET LANG_ZH = ?, MODIFICATION_DATE = ?, VERSION = VERSION + 1 WHERE CODE = ?", chineseText, new Date(), LABEL_CODE);
+    }
+}
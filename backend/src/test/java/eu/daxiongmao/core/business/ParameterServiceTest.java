@@ -1,17 +1,31 @@
 package eu.daxiongmao.core.business;
 
 import eu.daxiongmao.core.DaxiongmaoApplicationTest;
+import eu.daxiongmao.core.business.cache.InnerCache;
+import eu.daxiongmao.core.business.cache.InnerCacheRegistry;
+import eu.daxiongmao.core.model.db.Parameter;
+import eu.daxiongmao.core.model.dto.ChangeEventDTO;
 import eu.daxiongmao.core.model.dto.ParameterDTO;
+import eu.daxiongmao.core.model.enums.Environment;
 import eu.daxiongmao.core.model.enums.param.BusinessParam;
+import eu.daxiongmao.core.model.enums.param.TechnicalParam;
+import eu.daxiongmao.core.model.exception.BadRequestException;
+import eu.daxiongmao.core.model.exception.ConflictException;
+import eu.daxiongmao.core.model.exception.UnauthorizedException;
 import eu.daxiongmao.core.utils.StringToClassUtils;
 import lombok.extern.log4j.Log4j2;
 import org.apache.commons.lang3.StringUtils;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
 
+import java.util.ArrayList;
+import java.util.Date;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
 
 @Log4j2
 public class ParameterServiceTest extends DaxiongmaoApplicationTest {
@@ -19,6 +33,15 @@ public class ParameterServiceTest extends DaxiongmaoApplicationTest {
     @Autowired
     private ParameterService parameterService;
 
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private InnerCacheRegistry cacheRegistry;
+
+    @Autowired
+    private ChangeFeed changeFeed;
+
     @Test
     public void getAll() {
         final List<ParameterDTO> publicParams = parameterService.getAll(false, false);
@@ -32,6 +55,27 @@ public class ParameterServiceTest extends DaxiongmaoApplicationTest {
         Assertions.assertTrue(allParams.size() > publicParams.size());
     }
 
+    @Test
+    public void getAllViewsAreImmutable() {
+        // Same content until next refresh
+        final List<ParameterDTO> publicParams = parameterService.getAll(false, false);
+        Assertions.assertEquals(publicParams, parameterService.getAll(false, false));
+        Assertions.assertThrows(UnsupportedOperationException.class, () -> publicParams.add(new ParameterDTO()));
+
+        // Each caller gets its own DTOs: changing them does not affect the cache
+        final String paramValue = publicParams.get(0).getParamValue();
+        final Long version = publicParams.get(0).getVersion();
+        publicParams.get(0).setParamValue("changed by caller");
+        Assertions.assertEquals(paramValue, parameterService.getAll(false, false).get(0).getParamValue());
+        Assertions.assertEquals(version, parameterService.getAll(false, false).get(0).getVersion());
+
+        // Each view applies its own filter
+        Assertions.assertTrue(publicParams.stream().allMatch(ParameterDTO::getIsActive));
+        Assertions.assertTrue(parameterService.getAll(true, false).stream().allMatch(ParameterDTO::getIsActive));
+        Assertions.assertTrue(parameterService.getAll(true, false).size() > publicParams.size());
+        Assertions.assertTrue(parameterService.getAll(true, true).size() >= parameterService.getAll(false, true).size());
+    }
+
     @Test
     public void getLabel() {
         Optional<ParameterDTO> param = parameterService.getParam(BusinessParam.APP_DEFAULT_LANGUAGE);
@@ -47,4 +91,156 @@ public class ParameterServiceTest extends DaxiongmaoApplicationTest {
         Assertions.assertTrue(StringUtils.isNotBlank(paramValue2));
         Assertions.assertEquals(paramValue1, paramValue2);
     }
+
+    @Test
+    public void getTypedValue() {
+        // Value is already converted into its type
+        final Optional<Object> value = parameterService.getValue(TechnicalParam.MIN_TIME_IN_SECONDS_BETWEEN_CACHE_REFRESH);
+        Assertions.assertTrue(value.isPresent());
+        Assertions.assertTrue(value.get() instanceof Integer);
+        Assertions.assertSame(value.get(), parameterService.getValue(TechnicalParam.MIN_TIME_IN_SECONDS_BETWEEN_CACHE_REFRESH).get());
+    }
+
+    @Test
+    public void primitiveAccessors() {
+        final Integer delay = (Integer) parameterService.getValue(TechnicalParam.MIN_TIME_IN_SECONDS_BETWEEN_CACHE_REFRESH).orElseThrow();
+        Assertions.assertEquals(delay.intValue(), parameterService.getInt(TechnicalParam.MIN_TIME_IN_SECONDS_BETWEEN_CACHE_REFRESH, -1));
+        Assertions.assertEquals(delay.longValue(), parameterService.getLong(TechnicalParam.MIN_TIME_IN_SECONDS_BETWEEN_CACHE_REFRESH, -1L));
+        // Wrong type: default value
+        Assertions.assertEquals(-1, parameterService.getInt(BusinessParam.APP_DEFAULT_LANGUAGE, -1));
+        Assertions.assertTrue(parameterService.getBoolean(BusinessParam.APP_DEFAULT_LANGUAGE, true));
+        Assertions.assertEquals(Environment.DEV, parameterService.getEnum(BusinessParam.APP_DEFAULT_LANGUAGE, Environment.class, Environment.DEV));
+        // Slot lookup and name lookup return the same value
+        Assertions.assertEquals(parameterService.getValueByName(BusinessParam.APP_DEFAULT_LANGUAGE.getParamName().toLowerCase(), false, false),
+                parameterService.getValue(BusinessParam.APP_DEFAULT_LANGUAGE));
+    }
+
+    @Test
+    public void invalidValueIsDetectedOnLoad() {
+        final Parameter parameter = new Parameter();
+        parameter.setParamName("TEST.INVALID");
+        parameter.setParamType(Integer.class.getName());
+        parameter.setParamValue("not a number");
+        parameter.setIsActive(true);
+        final CachedParameter cachedParameter = new CachedParameter(parameter);
+        Assertions.assertFalse(cachedParameter.isValid());
+        Assertions.assertNull(cachedParameter.getValue());
+        Assertions.assertNotNull(cachedParameter.getConversionError());
+
+        parameter.setParamValue(" 42 ");
+        Assertions.assertEquals(42, new CachedParameter(parameter).getValue());
+    }
+
+    @Test
+    public void changeListeners() {
+        final InnerCache<?, ?> parametersCache = cacheRegistry.getCache(ParameterService.CACHE_NAME).orElseThrow();
+        final InnerCache<?, ?> labelsCache = cacheRegistry.getCache(LabelService.CACHE_NAME).orElseThrow();
+        final List<Integer> receivedValues = new ArrayList<>();
+        final List<ChangeEventDTO> receivedEvents = new ArrayList<>();
+        final Consumer<ChangeEventDTO> feedSubscriber = receivedEvents::add;
+        changeFeed.subscribe(null, feedSubscriber, (id) -> { });
+
+        // Current value is given on subscription
+        parameterService.<Integer>onChange(TechnicalParam.MIN_TIME_IN_SECONDS_BETWEEN_CACHE_REFRESH, receivedValues::add);
+        final int initialDelay = parameterService.getInt(TechnicalParam.MIN_TIME_IN_SECONDS_BETWEEN_CACHE_REFRESH, -1);
+        Assertions.assertEquals(List.of(initialDelay), receivedValues);
+
+        // Refresh without change: nothing to notify
+        parametersCache.updateCache(true);
+        Assertions.assertEquals(1, receivedValues.size());
+        Assertions.assertTrue(receivedEvents.isEmpty());
+
+        try {
+            // Change is pushed to listeners, including the labels cache refresh interval
+            updateParamValue(TechnicalParam.MIN_TIME_IN_SECONDS_BETWEEN_CACHE_REFRESH.getParamName(), String.valueOf(initialDelay + 5));
+            parametersCache.updateCache(true);
+            Assertions.assertEquals(List.of(initialDelay, initialDelay + 5), receivedValues);
+            Assertions.assertEquals(initialDelay + 5, labelsCache.getDelayBetweenRefreshInSeconds());
+            // Change is also published on the changes feed
+            Assertions.assertEquals(1, receivedEvents.size());
+            Assertions.assertEquals(ParameterService.CACHE_NAME, receivedEvents.get(0).getSource());
+            Assertions.assertEquals(Set.of(TechnicalParam.MIN_TIME_IN_SECONDS_BETWEEN_CACHE_REFRESH.getParamName()),
+                    receivedEvents.get(0).getChanged().keySet());
+        } finally {
+            updateParamValue(TechnicalParam.MIN_TIME_IN_SECONDS_BETWEEN_CACHE_REFRESH.getParamName(), String.valueOf(initialDelay));
+            parametersCache.updateCache(true);
+        }
+        Assertions.assertEquals(List.of(initialDelay, initialDelay + 5, initialDelay), receivedValues);
+        Assertions.assertEquals(initialDelay, labelsCache.getDelayBetweenRefreshInSeconds());
+        changeFeed.unsubscribe(feedSubscriber);
+
+        // A failing listener does not break the refresh
+        parameterService.<Integer>onChange(TechnicalParam.MIN_TIME_IN_SECONDS_BETWEEN_CACHE_REFRESH, (value) -> {
+            throw new IllegalStateException("test");
+        });
+        parametersCache.updateCache(true);
+        Assertions.assertEquals(initialDelay, parameterService.getInt(TechnicalParam.MIN_TIME_IN_SECONDS_BETWEEN_CACHE_REFRESH, -1));
+    }
+
+    @Test
+    public void updateAll() {
+        final String paramName = TechnicalParam.MIN_TIME_IN_SECONDS_BETWEEN_CACHE_REFRESH.getParamName();
+        final ParameterDTO current = parameterService.getParamByName(paramName, false, false).orElseThrow();
+        final int initialDelay = Integer.parseInt(current.getParamValue());
+        final ParameterViews.View<List<ParameterDTO>> allView = parameterService.getAllView(false, false);
+        final ParameterViews.View<ParameterDTO> paramView = parameterService.getViewByName(paramName, false, false);
+
+        // Change is visible right after commit, without reload
+        final ParameterDTO change = new ParameterDTO();
+        change.setParamName(paramName);
+        change.setParamValue(String.valueOf(initialDelay + 1));
+        change.setVersion(current.getVersion());
+        final List<ParameterDTO> updatedParams = parameterService.updateAll(List.of(change));
+        Assertions.assertEquals(1, updatedParams.size());
+        Assertions.assertEquals(current.getVersion() + 1, updatedParams.get(0).getVersion());
+        Assertions.assertEquals(initialDelay + 1, parameterService.getInt(TechnicalParam.MIN_TIME_IN_SECONDS_BETWEEN_CACHE_REFRESH, -1));
+        Assertions.assertEquals(updatedParams.get(0).getVersion(), parameterService.getParamByName(paramName, false, false).orElseThrow().getVersion());
+
+        // Views keep the content they were read from: fingerprint and content always match
+        Assertions.assertEquals(current.getVersion(), paramView.getContent().getVersion());
+        Assertions.assertTrue(allView.getContent().stream().anyMatch((param) -> current.getVersion().equals(param.getVersion()) && paramName.equals(param.getParamName())));
+        Assertions.assertNotEquals(paramView.getContentHash(), parameterService.getViewByName(paramName, false, false).getContentHash());
+        Assertions.assertNotEquals(allView.getContentHash(), parameterService.getAllView(false, false).getContentHash());
+
+        // Change based on an outdated version is rejected
+        Assertions.assertThrows(ConflictException.class, () -> parameterService.updateAll(List.of(change)));
+        Assertions.assertEquals(initialDelay + 1, parameterService.getInt(TechnicalParam.MIN_TIME_IN_SECONDS_BETWEEN_CACHE_REFRESH, -1));
+
+        // Invalid requests
+        final ParameterDTO badValue = new ParameterDTO();
+        badValue.setParamName(paramName);
+        badValue.setParamValue("not a number");
+        badValue.setVersion(updatedParams.get(0).getVersion());
+        Assertions.assertThrows(BadRequestException.class, () -> parameterService.updateAll(List.of(badValue)));
+        final ParameterDTO unknown = new ParameterDTO();
+        unknown.setParamName("TEST.UNKNOWN");
+        unknown.setParamValue("1");
+        unknown.setVersion(1L);
+        Assertions.assertThrows(BadRequestException.class, () -> parameterService.updateAll(List.of(unknown)));
+        Assertions.assertThrows(BadRequestException.class, () -> parameterService.updateAll(List.of()));
+        final ParameterDTO deactivation = new ParameterDTO();
+        deactivation.setParamName(paramName);
+        deactivation.setParamValue(String.valueOf(initialDelay));
+        deactivation.setIsActive(false);
+        deactivation.setVersion(updatedParams.get(0).getVersion());
+        Assertions.assertThrows(BadRequestException.class, () -> parameterService.updateAll(List.of(deactivation)));
+
+        // Sensitive parameters cannot be changed
+        final ParameterDTO sensitive = new ParameterDTO();
+        sensitive.setParamName("APP.DB.PASSWORD");
+        sensitive.setParamValue("newPassword");
+        sensitive.setVersion(1L);
+        Assertions.assertThrows(UnauthorizedException.class, () -> parameterService.updateAll(List.of(sensitive)));
+        Assertions.assertEquals(Optional.of("fakePassword"), parameterService.getValueByName("APP.DB.PASSWORD", true, false));
+
+        // Restore
+        change.setParamValue(String.valueOf(initialDelay));
+        change.setVersion(updatedParams.get(0).getVersion());
+        parameterService.updateAll(List.of(change));
+        Assertions.assertEquals(initialDelay, parameterService.getInt(TechnicalParam.MIN_TIME_IN_SECONDS_BETWEEN_CACHE_REFRESH, -1));
+    }
+
+    private void updateParamValue(final String paramName, final String paramValue) {
+        jdbcTemplate.update("UPDATE PARAMETERS SET PARAM_VALUE = ?, MODIFICATION_DATE = ? WHERE PARAM_NAME = ?", paramValue, new Date(), paramName);
+    }
 }
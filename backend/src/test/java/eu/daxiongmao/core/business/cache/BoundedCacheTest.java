@@ -0,0 +1,173 @@
+package eu.daxiongmao.core.business.cache;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bounded cache test
+ * @author Guillaume Diaz
+ * @version 1.0
+ * @since 2020/04
+ */
+public class BoundedCacheTest {
+
+    @Test
+    public void unbounded() {
+        final BoundedCache<String, String> cache = new BoundedCache<>();
+        for (int i = 0; i < 10_000; i++) {
+            cache.put("KEY_" + i, "VALUE_" + i);
+        }
+        Assertions.assertEquals(10_000, cache.size());
+        Assertions.assertEquals("VALUE_42", cache.get("KEY_42"));
+        Assertions.assertEquals(0, cache.getEvictionCount());
+
+        cache.remove("KEY_42");
+        Assertions.assertNull(cache.get("KEY_42"));
+        cache.invalidateAll();
+        Assertions.assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void maximumSize() {
+        final BoundedCache<String, String> cache = new BoundedCache<>(100, null);
+        for (int i = 0; i < 1_000; i++) {
+            cache.put("KEY_" + i, "VALUE_" + i);
+            Assertions.assertTrue(cache.size() <= 100);
+        }
+        Assertions.assertEquals(100, cache.size());
+        Assertions.assertEquals(100, cache.getWeightedSize());
+        Assertions.assertEquals(900, cache.getEvictionCount());
+
+        // Replace an existing value: no eviction
+        final String existingKey = cache.asMap().keySet().iterator().next();
+        cache.put(existingKey, "NEW_VALUE");
+        Assertions.assertEquals("NEW_VALUE", cache.get(existingKey));
+        Assertions.assertEquals(100, cache.size());
+        Assertions.assertEquals(900, cache.getEvictionCount());
+    }
+
+    @Test
+    public void hotEntriesSurviveScan() {
+        final BoundedCache<String, String> cache = new BoundedCache<>(100, null);
+        for (int i = 0; i < 10; i++) {
+            cache.put("HOT_" + i, "VALUE_" + i);
+        }
+        for (int access = 0; access < 20; access++) {
+            for (int i = 0; i < 10; i++) {
+                Assertions.assertNotNull(cache.get("HOT_" + i));
+            }
+        }
+
+        // Scan: many keys accessed only once, while hot keys are still in use
+        for (int i = 0; i < 10_000; i++) {
+            cache.put("SCAN_" + i, "VALUE_" + i);
+            Assertions.assertNotNull(cache.get("HOT_" + (i % 10)));
+        }
+
+        Assertions.assertEquals(100, cache.size());
+        for (int i = 0; i < 10; i++) {
+            Assertions.assertEquals("VALUE_" + i, cache.get("HOT_" + i));
+        }
+    }
+
+    @Test
+    public void maximumWeight() {
+        final BoundedCache<String, String> cache = new BoundedCache<>(100, (key, value) -> value.length(), null);
+        for (int i = 0; i < 50; i++) {
+            cache.put("KEY_" + i, "0123456789");
+        }
+        Assertions.assertEquals(10, cache.size());
+        Assertions.assertEquals(100, cache.getWeightedSize());
+
+        // A single heavy entry evicts several light ones
+        cache.put("HEAVY", "0123456789".repeat(5));
+        Assertions.assertTrue(cache.getWeightedSize() <= 100);
+    }
+
+    @Test
+    public void timeToLive() throws InterruptedException {
+        final BoundedCache<String, String> cache = new BoundedCache<>(100, Duration.ofMillis(50));
+        cache.put("KEY_1", "VALUE_1");
+        cache.put("KEY_2", "VALUE_2");
+        Assertions.assertEquals("VALUE_1", cache.get("KEY_1"));
+
+        Thread.sleep(100);
+
+        // Lazy expiration on read
+        Assertions.assertNull(cache.get("KEY_1"));
+        Assertions.assertEquals(1, cache.size());
+
+        // Eager expiration
+        cache.expireEntries();
+        Assertions.assertEquals(0, cache.size());
+        Assertions.assertEquals(0, cache.getWeightedSize());
+        Assertions.assertEquals(2, cache.getEvictionCount());
+    }
+
+    @Test
+    public void weightedSizeUnderConcurrentAccess() throws Exception {
+        final BoundedCache<String, String> cache = new BoundedCache<>(200, (key, value) -> value.length(), null);
+        runConcurrently(cache);
+
+        // Eviction policy and entries must agree, and the bound must hold
+        final long entriesWeight = cache.asMap().values().stream().mapToLong(String::length).sum();
+        Assertions.assertEquals(entriesWeight, cache.getWeightedSize());
+        Assertions.assertTrue(cache.getWeightedSize() <= 200);
+    }
+
+    @Test
+    public void weightedSizeUnderConcurrentExpiration() throws Exception {
+        final BoundedCache<String, String> cache = new BoundedCache<>(200, (key, value) -> value.length(), Duration.ofMillis(5));
+        runConcurrently(cache);
+        Assertions.assertTrue(cache.getWeightedSize() <= 200);
+
+        // Once everything expired, nothing must remain in the eviction policy
+        Thread.sleep(20);
+        cache.expireEntries();
+        Assertions.assertEquals(0, cache.size());
+        Assertions.assertEquals(0, cache.getWeightedSize());
+    }
+
+    /**
+     * To put, read and remove random keys from several threads at once
+     * @param cache cache to use
+     */
+    private void runConcurrently(final BoundedCache<String, String> cache) throws Exception {
+        final int nbOfThreads = 8;
+        final ExecutorService executor = Executors.newFixedThreadPool(nbOfThreads);
+        try {
+            final List<Future<?>> tasks = new ArrayList<>();
+            for (int thread = 0; thread < nbOfThreads; thread++) {
+                tasks.add(executor.submit(() -> {
+                    final ThreadLocalRandom random = ThreadLocalRandom.current();
+                    for (int i = 0; i < 20_000; i++) {
+                        final String key = "KEY_" + random.nextInt(500);
+                        final int operation = random.nextInt(10);
+                        if (operation < 5) {
+                            cache.get(key);
+                        } else if (operation < 9) {
+                            cache.put(key, "X".repeat(1 + random.nextInt(5)));
+                        } else {
+                            cache.remove(key);
+                        }
+                    }
+                }));
+            }
+            for (Future<?> task : tasks) {
+                // Rethrows any failure, such as out of sync weights
+                task.get(1, TimeUnit.MINUTES);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package eu.daxiongmao.core.business.cache;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Case insensitive lookup: allocation rate of "toUpperCase() + Map.get()" (previous behaviour) versus {@link KeyEquivalenceMap}.<br>
+ * Run {@link #main(String[])}: the GC profiler reports the allocation rate ("gc.alloc.rate.norm", bytes per operation).
+ * This is not a unit test, it is not executed during the build.
+ * @author Guillaume Diaz
+ * @version 1.0
+ * @since 2020/04
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CaseInsensitiveLookupBenchmark {
+
+    private static final int NB_OF_KEYS = 500;
+
+    private Map<String, String> upperCaseMap;
+    private Map<String, String> caseInsensitiveMap;
+    private String[] searchKeys;
+    private int index;
+
+    @Setup
+    public void setup() {
+        final Map<String, String> values = new HashMap<>();
+        for (int i = 0; i < NB_OF_KEYS; i++) {
+            values.put("WEB-SERVICES.JSON.PARAMETER_" + i, "value " + i);
+        }
+        upperCaseMap = Map.copyOf(values);
+        caseInsensitiveMap = new KeyEquivalenceMap<>(CacheKeyEquivalence.caseInsensitive(), values);
+        // Callers use both upper case and mixed case names
+        searchKeys = new String[NB_OF_KEYS];
+        for (int i = 0; i < NB_OF_KEYS; i++) {
+            searchKeys[i] = (i % 2 == 0 ? "WEB-SERVICES.JSON.PARAMETER_" : "web-services.json.Parameter_") + i;
+        }
+    }
+
+    private String nextKey() {
+        index = (index + 1) % NB_OF_KEYS;
+        return searchKeys[index];
+    }
+
+    @Benchmark
+    public String upperCaseThenGet() {
+        return upperCaseMap.get(nextKey().toUpperCase());
+    }
+
+    @Benchmark
+    public String caseInsensitiveGet() {
+        return caseInsensitiveMap.get(nextKey());
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        final Options options = new OptionsBuilder()
+                .include(CaseInsensitiveLookupBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build();
+        new Runner(options).run();
+    }
+}
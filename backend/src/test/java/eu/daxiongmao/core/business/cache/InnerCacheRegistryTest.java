@@ -0,0 +1,106 @@
+package eu.daxiongmao.core.business.cache;
+
+import lombok.extern.log4j.Log4j2;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Inner cache registry (background refresh) test
+ * @author Guillaume Diaz
+ * @version 1.0
+ * @since 2020/04
+ */
+@Log4j2
+public class InnerCacheRegistryTest {
+
+    @Test
+    public void backgroundRefresh() throws InterruptedException {
+        final InnerCacheRegistry registry = new InnerCacheRegistry(true, 1);
+        try {
+            final AtomicInteger nbOfLoads = new AtomicInteger();
+            final InnerCache<String, Integer> cache = new InnerCache<>("TEST", log, 1, () -> Map.of("KEY", nbOfLoads.incrementAndGet()));
+            cache.updateCache(true);
+            registry.register(cache);
+            Assertions.assertEquals(1, registry.getCaches().size());
+            Assertions.assertTrue(cache.getLastLoadDuration().isPresent());
+
+            // Wait for background refresh
+            Thread.sleep(2_500);
+            Assertions.assertTrue(nbOfLoads.get() > 1);
+            Assertions.assertEquals(nbOfLoads.get(), cache.getCachedValues().get("KEY"));
+            Assertions.assertTrue(cache.getLastRefreshAge().orElseThrow().getSeconds() < 2);
+        } finally {
+            registry.shutdown();
+        }
+    }
+
+    @Test
+    public void readersDoNotLoadWithRefreshAhead() {
+        final InnerCacheRegistry registry = new InnerCacheRegistry(true, 1);
+        try {
+            final AtomicInteger nbOfLoads = new AtomicInteger();
+            final InnerCache<String, Integer> cache = new InnerCache<>("TEST", log, 3600, () -> Map.of("KEY", nbOfLoads.incrementAndGet()));
+            registry.register(cache);
+
+            // Nothing loaded yet: reader gets an empty snapshot immediately
+            Assertions.assertTrue(cache.getCachedValues().isEmpty());
+            Assertions.assertEquals(0, nbOfLoads.get());
+            Assertions.assertTrue(cache.getLastRefreshAge().isEmpty());
+        } finally {
+            registry.shutdown();
+        }
+    }
+
+    @Test
+    public void crossNodeInvalidation() throws InterruptedException {
+        final InMemoryCacheInvalidationChannel channel = new InMemoryCacheInvalidationChannel();
+        channel.publish("TEST");
+        final InnerCacheRegistry registry = new InnerCacheRegistry(true, 1, Optional.of(channel), 1);
+        try {
+            final AtomicInteger nbOfLoads = new AtomicInteger();
+            final InnerCache<String, Integer> cache = new InnerCache<>("TEST", log, 3600, () -> Map.of("KEY", nbOfLoads.incrementAndGet()));
+            cache.updateCache(true);
+            registry.register(cache);
+
+            // Same generation: no reload
+            Thread.sleep(1_500);
+            Assertions.assertEquals(1, nbOfLoads.get());
+
+            // Change on another node: reload on next poll
+            channel.publish("TEST");
+            Thread.sleep(1_500);
+            Assertions.assertEquals(2, nbOfLoads.get());
+            Assertions.assertEquals(2, cache.getCachedValues().get("KEY"));
+        } finally {
+            registry.shutdown();
+        }
+    }
+
+    @Test
+    public void ownChangeIsNotReloaded() throws InterruptedException {
+        final InMemoryCacheInvalidationChannel channel = new InMemoryCacheInvalidationChannel();
+        channel.publish("TEST");
+        final InnerCacheRegistry registry = new InnerCacheRegistry(true, 1, Optional.of(channel), 1);
+        try {
+            final AtomicInteger nbOfLoads = new AtomicInteger();
+            final InnerCache<String, Integer> cache = new InnerCache<>("TEST", log, 3600, () -> Map.of("KEY", nbOfLoads.incrementAndGet()));
+            cache.updateCache(true);
+            registry.register(cache);
+
+            // Local write: database triggers increment the generation during the transaction (once per statement), then the change is published
+            channel.publish("TEST");
+            channel.publish("TEST");
+            registry.publishChange("TEST");
+
+            // This node already has its own values: no reload
+            Thread.sleep(1_500);
+            Assertions.assertEquals(1, nbOfLoads.get());
+        } finally {
+            registry.shutdown();
+        }
+    }
+}
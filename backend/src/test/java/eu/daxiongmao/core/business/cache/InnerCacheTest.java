@@ -0,0 +1,387 @@
+package eu.daxiongmao.core.business.cache;
+
+import lombok.extern.log4j.Log4j2;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Inner cache test
+ * @author Guillaume Diaz
+ * @version 1.0
+ * @since 2020/04
+ */
+@Log4j2
+public class InnerCacheTest {
+
+    private static final int NB_OF_VALUES = 1_000;
+
+    /**
+     * @param version value prefix, to identify each load
+     * @return values to cache
+     */
+    private static Map<String, String> buildValues(final int version) {
+        final Map<String, String> values = new HashMap<>(NB_OF_VALUES);
+        for (int i = 0; i < NB_OF_VALUES; i++) {
+            values.put("KEY_" + i, version + "_" + i);
+        }
+        return values;
+    }
+
+    @Test
+    public void loadAndRefresh() {
+        final AtomicInteger nbOfLoads = new AtomicInteger();
+        final InnerCache<String, String> cache = new InnerCache<>("TEST", log, 3600, () -> buildValues(nbOfLoads.incrementAndGet()));
+
+        // Lazy load on first read
+        Assertions.assertEquals(NB_OF_VALUES, cache.getCachedValues().size());
+        Assertions.assertEquals("1_5", cache.getCachedValues().get("KEY_5"));
+        Assertions.assertEquals(1, nbOfLoads.get());
+
+        // Throttled refresh: nothing happens
+        cache.updateCache(false);
+        Assertions.assertEquals(1, nbOfLoads.get());
+
+        // Forced refresh: new content
+        cache.updateCache(true);
+        Assertions.assertEquals(2, nbOfLoads.get());
+        Assertions.assertEquals("2_5", cache.getCachedValues().get("KEY_5"));
+    }
+
+    @Test
+    public void snapshotIsReadOnly() {
+        final InnerCache<String, String> cache = new InnerCache<>("TEST", log, 3600, () -> buildValues(1));
+        Assertions.assertThrows(UnsupportedOperationException.class, () -> cache.getCachedValues().put("KEY", "VALUE"));
+    }
+
+    @Test
+    public void failedRefreshKeepsPreviousValues() {
+        final AtomicBoolean failure = new AtomicBoolean(false);
+        final InnerCache<String, String> cache = new InnerCache<>("TEST", log, 3600, () -> {
+            if (failure.get()) {
+                throw new IllegalStateException("Database is down");
+            }
+            return buildValues(1);
+        });
+        cache.updateCache(true);
+
+        failure.set(true);
+        cache.updateCache(true);
+        Assertions.assertEquals(NB_OF_VALUES, cache.getCachedValues().size());
+    }
+
+    @Test
+    public void backoffOnFailures() {
+        final AtomicInteger nbOfLoads = new AtomicInteger();
+        final InnerCache<String, String> cache = new InnerCache<>("TEST", log, 0, () -> {
+            nbOfLoads.incrementAndGet();
+            throw new IllegalStateException("Database is down");
+        });
+
+        // First failure opens the circuit
+        cache.updateCache(false);
+        Assertions.assertEquals(1, nbOfLoads.get());
+        Assertions.assertEquals(1, cache.getConsecutiveFailures());
+        Assertions.assertTrue(cache.isCircuitOpen());
+
+        // Readers and periodic refreshes do not reach the database while the circuit is open
+        Assertions.assertTrue(cache.getCachedValues().isEmpty());
+        cache.updateCache(false);
+        Assertions.assertEquals(1, nbOfLoads.get());
+
+        // Forced refresh is always attempted
+        cache.updateCache(true);
+        Assertions.assertEquals(2, nbOfLoads.get());
+        Assertions.assertEquals(2, cache.getConsecutiveFailures());
+    }
+
+    @Test
+    public void readersNeverSeeEmptyCacheDuringRefresh() throws InterruptedException {
+        final AtomicInteger nbOfLoads = new AtomicInteger();
+        final InnerCache<String, String> cache = new InnerCache<>("TEST", log, 0, () -> buildValues(nbOfLoads.incrementAndGet()));
+        cache.updateCache(true);
+
+        final AtomicBoolean running = new AtomicBoolean(true);
+        final AtomicInteger nbOfInvalidReads = new AtomicInteger();
+        final Thread reader = new Thread(() -> {
+            while (running.get()) {
+                final Map<String, String> values = cache.getCachedValues();
+                if (values.size() != NB_OF_VALUES || values.get("KEY_0") == null) {
+                    nbOfInvalidReads.incrementAndGet();
+                }
+            }
+        });
+        reader.start();
+        for (int i = 0; i < 200; i++) {
+            cache.updateCache(true);
+        }
+        running.set(false);
+        reader.join();
+
+        Assertions.assertEquals(0, nbOfInvalidReads.get());
+        Assertions.assertEquals(201, nbOfLoads.get());
+    }
+
+    @Test
+    public void deltaRefresh() {
+        final Map<String, Row> table = new ConcurrentHashMap<>();
+        table.put("A", new Row("A1", new Date(1_000), 1));
+        table.put("B", new Row("B1", new Date(2_000), 1));
+        final AtomicInteger nbOfFullLoads = new AtomicInteger();
+        final AtomicInteger nbOfDeltaLoads = new AtomicInteger();
+        final DeltaCacheValueFunction<String, Row> function = new DeltaCacheValueFunction<>() {
+            @Override
+            public Map<String, Row> getValuesChangedSince(Date highWaterMark) {
+                nbOfDeltaLoads.incrementAndGet();
+                final Map<String, Row> changes = new HashMap<>();
+                table.forEach((key, row) -> {
+                    if (!row.modificationDate.before(highWaterMark)) {
+                        changes.put(key, row);
+                    }
+                });
+                return changes;
+            }
+
+            @Override
+            public Date getModificationDate(Row value) {
+                return value.modificationDate;
+            }
+
+            @Override
+            public long getVersion(Row value) {
+                return value.version;
+            }
+
+            @Override
+            public Map<String, Row> getValuesToCache() {
+                nbOfFullLoads.incrementAndGet();
+                return new HashMap<>(table);
+            }
+        };
+        final InnerCache<String, Row> cache = new InnerCache<>("TEST", log, 0, 3600, function);
+        cache.updateCache(true);
+        Assertions.assertEquals(1, nbOfFullLoads.get());
+
+        // Update + deletion
+        table.put("A", new Row("A2", new Date(3_000), 2));
+        table.remove("B");
+        cache.updateCache(false);
+        Assertions.assertEquals(1, nbOfFullLoads.get());
+        Assertions.assertEquals(1, nbOfDeltaLoads.get());
+        Assertions.assertEquals("A2", cache.getCachedValues().get("A").value);
+        // Deletion is not visible until next full load
+        Assertions.assertNotNull(cache.getCachedValues().get("B"));
+
+        // Nothing changed
+        final Map<String, Row> previousValues = cache.getCachedValues();
+        cache.updateCache(false);
+        Assertions.assertEquals(2, nbOfDeltaLoads.get());
+        Assertions.assertSame(previousValues, cache.getCachedValues());
+
+        // Second change within the same second: same modification date, new version
+        table.put("A", new Row("A3", new Date(3_000), 3));
+        cache.updateCache(false);
+        Assertions.assertEquals("A3", cache.getCachedValues().get("A").value);
+
+        // Transaction committed late, dated before the high water mark
+        table.put("C", new Row("C1", new Date(2_500), 1));
+        cache.updateCache(false);
+        Assertions.assertEquals("C1", cache.getCachedValues().get("C").value);
+
+        // Forced refresh is a full load
+        cache.updateCache(true);
+        Assertions.assertEquals(2, nbOfFullLoads.get());
+        Assertions.assertNull(cache.getCachedValues().get("B"));
+    }
+
+    @Test
+    public void perKeyLoading() throws Exception {
+        final Map<String, AtomicInteger> nbOfLoadsPerKey = new ConcurrentHashMap<>();
+        final CountDownLatch releaseLoad = new CountDownLatch(1);
+        final InnerCache<String, String> cache = new InnerCache<>("TEST", log, 3600, (String key) -> {
+            nbOfLoadsPerKey.computeIfAbsent(key, (k) -> new AtomicInteger()).incrementAndGet();
+            releaseLoad.await(5, TimeUnit.SECONDS);
+            return "UNKNOWN".equals(key) ? Optional.empty() : Optional.of("value of " + key);
+        });
+        Assertions.assertEquals(CacheLoadingMode.PER_KEY, cache.getLoadingMode());
+
+        // Many concurrent misses on the same key: a single load
+        final int nbOfThreads = 16;
+        final ExecutorService executor = Executors.newFixedThreadPool(nbOfThreads);
+        try {
+            final List<Future<String>> results = new ArrayList<>();
+            for (int i = 0; i < nbOfThreads; i++) {
+                results.add(executor.submit(() -> cache.get("KEY")));
+            }
+            Thread.sleep(200);
+            releaseLoad.countDown();
+            for (Future<String> result : results) {
+                Assertions.assertEquals("value of KEY", result.get(5, TimeUnit.SECONDS));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        Assertions.assertEquals(1, nbOfLoadsPerKey.get("KEY").get());
+
+        // Cached until next refresh
+        Assertions.assertEquals("value of KEY", cache.get("KEY"));
+        Assertions.assertEquals(1, nbOfLoadsPerKey.get("KEY").get());
+        Assertions.assertNull(cache.get("UNKNOWN"));
+        Assertions.assertEquals(1, cache.getCachedValues().size());
+
+        // Refresh drops loaded values. It loads nothing: it is not counted as a load
+        Assertions.assertEquals(2, cache.getStats().getLoadSuccessCount());
+        cache.updateCache(true);
+        Assertions.assertTrue(cache.getCachedValues().isEmpty());
+        Assertions.assertEquals(2, cache.getStats().getLoadSuccessCount());
+        Assertions.assertTrue(cache.getLastLoadDuration().isEmpty());
+        Assertions.assertEquals("value of KEY", cache.get("KEY"));
+        Assertions.assertEquals(2, nbOfLoadsPerKey.get("KEY").get());
+    }
+
+    @Test
+    public void negativeCaching() {
+        final Map<String, AtomicInteger> nbOfLoadsPerKey = new ConcurrentHashMap<>();
+        final InnerCache<String, String> cache = new InnerCache<>("TEST", log, 3600, (String key) -> {
+            nbOfLoadsPerKey.computeIfAbsent(key, (k) -> new AtomicInteger()).incrementAndGet();
+            return "UNKNOWN".equals(key) ? Optional.empty() : Optional.of("value of " + key);
+        });
+        cache.enableNegativeCache(100, Duration.ofMinutes(5));
+
+        // Missing key is only loaded once
+        Assertions.assertNull(cache.get("UNKNOWN"));
+        Assertions.assertNull(cache.get("UNKNOWN"));
+        Assertions.assertNull(cache.get("UNKNOWN"));
+        Assertions.assertEquals(1, nbOfLoadsPerKey.get("UNKNOWN").get());
+        Assertions.assertEquals("value of KEY", cache.get("KEY"));
+        Assertions.assertEquals("value of KEY", cache.get("KEY"));
+
+        // Negative hits are reported apart
+        Assertions.assertEquals(1, cache.getStats().getHitCount());
+        Assertions.assertEquals(2, cache.getStats().getNegativeHitCount());
+        Assertions.assertEquals(2, cache.getStats().getMissCount());
+        Assertions.assertEquals(2, cache.getStats().getLoadSuccessCount());
+        Assertions.assertEquals(1, cache.getSize());
+
+        // Refresh forgets missing keys
+        cache.updateCache(true);
+        Assertions.assertNull(cache.get("UNKNOWN"));
+        Assertions.assertEquals(2, nbOfLoadsPerKey.get("UNKNOWN").get());
+    }
+
+    @Test
+    public void caseInsensitiveKeys() {
+        final InnerCache<String, String> cache = new InnerCache<>("TEST", log, 3600, () -> buildValues(1));
+        cache.setKeyEquivalence(CacheKeyEquivalence.caseInsensitive());
+        cache.updateCache(true);
+        Assertions.assertEquals("1_5", cache.get("KEY_5"));
+        Assertions.assertEquals("1_5", cache.get("key_5"));
+        Assertions.assertEquals(NB_OF_VALUES, cache.getCachedValues().size());
+
+        // Per-key mode: search keys are converted to their canonical form before load
+        final InnerCache<String, String> perKeyCache = new InnerCache<>("TEST", log, 3600, (String key) -> Optional.of("value of " + key));
+        perKeyCache.setKeyEquivalence(CacheKeyEquivalence.caseInsensitive());
+        Assertions.assertEquals("value of KEY", perKeyCache.get("key"));
+        Assertions.assertEquals("value of KEY", perKeyCache.get("Key"));
+        Assertions.assertEquals(1, perKeyCache.getStats().getLoadSuccessCount());
+    }
+
+    @Test
+    public void refreshListener() {
+        final AtomicInteger version = new AtomicInteger(1);
+        final InnerCache<String, String> cache = new InnerCache<>("TEST", log, 3600, () -> buildValues(version.get()));
+        final List<String> notifications = new ArrayList<>();
+        cache.addRefreshListener((previousValues, currentValues) -> notifications.add(previousValues.get("KEY_1") + " -> " + currentValues.get("KEY_1")));
+
+        cache.updateCache(true);
+        version.set(2);
+        cache.updateCache(true);
+        Assertions.assertEquals(List.of("null -> 1_1", "1_1 -> 2_1"), notifications);
+
+        // Late listener is notified immediately
+        final AtomicInteger nbOfNotifications = new AtomicInteger();
+        cache.addRefreshListener((previousValues, currentValues) -> nbOfNotifications.incrementAndGet());
+        Assertions.assertEquals(1, nbOfNotifications.get());
+    }
+
+    @Test
+    public void statistics() {
+        final AtomicBoolean databaseAvailable = new AtomicBoolean(true);
+        final InnerCache<String, String> cache = new InnerCache<>("TEST", log, 3600, () -> {
+            if (!databaseAvailable.get()) {
+                throw new IllegalStateException("Database is down");
+            }
+            return buildValues(1);
+        });
+        cache.updateCache(true);
+        Assertions.assertEquals(NB_OF_VALUES, cache.getSize());
+        Assertions.assertEquals("1_1", cache.get("KEY_1"));
+        Assertions.assertNull(cache.get("MISSING"));
+
+        databaseAvailable.set(false);
+        cache.updateCache(true);
+
+        final CacheStats stats = cache.getStats();
+        Assertions.assertEquals(1, stats.getHitCount());
+        Assertions.assertEquals(1, stats.getMissCount());
+        Assertions.assertEquals(1, stats.getLoadSuccessCount());
+        Assertions.assertEquals(1, stats.getLoadFailureCount());
+        Assertions.assertEquals(2, stats.getLoadLatencyHistogram().values().stream().mapToLong(Long::longValue).sum());
+        Assertions.assertTrue(cache.getLastRefreshAge().isPresent());
+    }
+
+    /** Database row, for delta tests */
+    private static class Row {
+        private final String value;
+        private final Date modificationDate;
+        private final long version;
+
+        private Row(String value, Date modificationDate, long version) {
+            this.value = value;
+            this.modificationDate = modificationDate;
+            this.version = version;
+        }
+    }
+
+    @Test
+    public void publishLocalChanges() {
+        final AtomicInteger nbOfLoads = new AtomicInteger();
+        final InnerCache<String, String> cache = new InnerCache<>("TEST", log, 3600, () -> {
+            nbOfLoads.incrementAndGet();
+            return buildValues(1);
+        });
+        final List<String> notifications = new ArrayList<>();
+        cache.addRefreshListener((previousValues, currentValues) -> notifications.add(currentValues.get("KEY_1")));
+
+        // Nothing loaded yet: values will come with the initial load
+        cache.publish(Map.of("KEY_1", "local"));
+        Assertions.assertEquals(0, cache.getSize());
+
+        cache.updateCache(true);
+        final Optional<Duration> refreshAge = cache.getLastRefreshAge();
+        cache.publish(Map.of("KEY_1", "local", "NEW_KEY", "new"));
+        Assertions.assertEquals("local", cache.get("KEY_1"));
+        Assertions.assertEquals("new", cache.get("NEW_KEY"));
+        Assertions.assertEquals("1_2", cache.get("KEY_2"));
+        Assertions.assertEquals(NB_OF_VALUES + 1, cache.getSize());
+        Assertions.assertEquals(List.of("1_1", "local"), notifications);
+        // Not a load: no database access, refresh time is kept
+        Assertions.assertEquals(1, nbOfLoads.get());
+        Assertions.assertTrue(cache.getLastRefreshAge().orElseThrow().compareTo(refreshAge.orElseThrow()) >= 0);
+    }
+}
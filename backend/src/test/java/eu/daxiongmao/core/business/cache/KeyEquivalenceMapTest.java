@@ -0,0 +1,49 @@
+package eu.daxiongmao.core.business.cache;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Case insensitive map test
+ * @author Guillaume Diaz
+ * @version 1.0
+ * @since 2020/04
+ */
+public class KeyEquivalenceMapTest {
+
+    @Test
+    public void caseInsensitiveLookup() {
+        final Map<String, Integer> values = new HashMap<>();
+        for (int i = 0; i < 1_000; i++) {
+            values.put("LABEL.CODE_" + i, i);
+        }
+        final Map<String, Integer> map = new KeyEquivalenceMap<>(CacheKeyEquivalence.caseInsensitive(), values);
+
+        Assertions.assertEquals(1_000, map.size());
+        Assertions.assertEquals(42, map.get("LABEL.CODE_42"));
+        Assertions.assertEquals(42, map.get("label.code_42"));
+        Assertions.assertEquals(42, map.get("Label.Code_42"));
+        Assertions.assertTrue(map.containsKey("label.CODE_999"));
+        Assertions.assertNull(map.get("LABEL.CODE_1000"));
+        Assertions.assertNull(map.get("LABEL.CODE_"));
+        Assertions.assertNull(map.get(42));
+        Assertions.assertNull(map.get(null));
+
+        // Iteration returns stored keys
+        Assertions.assertEquals(values, new HashMap<>(map));
+        Assertions.assertThrows(UnsupportedOperationException.class, () -> map.put("NEW", 1));
+    }
+
+    @Test
+    public void normalize() {
+        final CacheKeyEquivalence<String> equivalence = CacheKeyEquivalence.caseInsensitive();
+        final String upperCaseKey = "APP.DEFAULT_LANGUAGE";
+        Assertions.assertSame(upperCaseKey, equivalence.normalize(upperCaseKey));
+        Assertions.assertEquals(upperCaseKey, equivalence.normalize("app.default_Language"));
+        Assertions.assertEquals(equivalence.hash("Éléphant"), equivalence.hash("éLÉPHANT"));
+        Assertions.assertTrue(equivalence.equivalent("ÉLÉPHANT", "éléphant"));
+    }
+}
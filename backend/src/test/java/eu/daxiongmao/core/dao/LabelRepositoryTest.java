@@ -0,0 +1,31 @@
+package eu.daxiongmao.core.dao;
+
+import eu.daxiongmao.core.DaxiongmaoApplicationTest;
+import eu.daxiongmao.core.model.db.Label;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+public class LabelRepositoryTest extends DaxiongmaoApplicationTest {
+
+    @Autowired
+    private LabelRepository labelRepository;
+
+    @Test
+    public void keysetPagination() {
+        // First page without any code, then each page after the last code of the previous one
+        final List<String> codes = new ArrayList<>();
+        List<Label> page = labelRepository.findAllByOrderByCodeAsc(PageRequest.of(0, 3));
+        while (!page.isEmpty()) {
+            page.forEach((label) -> codes.add(label.getCode()));
+            page = labelRepository.findByCodeGreaterThanOrderByCodeAsc(codes.get(codes.size() - 1), PageRequest.of(0, 3));
+        }
+        Assertions.assertFalse(codes.isEmpty());
+        Assertions.assertEquals(labelRepository.findAll().stream().map(Label::getCode).sorted().collect(Collectors.toList()), codes);
+    }
+}
@@ -7,6 +7,7 @@ import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 
+import java.util.Date;
 import java.util.List;
 
 
@@ -26,4 +27,12 @@ public class ParameterRepositoryTest extends DaxiongmaoApplicationTest {
         parameters.forEach((parameter -> {log.info(parameter); }));
     }
 
+    @Test
+    public void findByModificationDate() {
+        final List<Parameter> parameters = parameterRepository.findAll();
+        final Date oldestModification = parameters.stream().map(Parameter::getModificationDate).min(Date::compareTo).orElseThrow();
+        Assertions.assertEquals(parameters.size(), parameterRepository.findByModificationDateGreaterThanEqual(oldestModification).size());
+        Assertions.assertTrue(parameterRepository.findByModificationDateGreaterThanEqual(new Date(System.currentTimeMillis() + 60_000)).isEmpty());
+    }
+
 }
@@ -1,8 +1,15 @@
 package eu.daxiongmao.core.utils;
 
+import eu.daxiongmao.core.model.enums.AppLang;
+import eu.daxiongmao.core.model.enums.Environment;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+import java.util.Locale;
+
 public class StringToClassUtilsTest {
 
     @Test
@@ -123,4 +130,45 @@ public class StringToClassUtilsTest {
         Assertions.assertNotNull(paramValue);
         Assertions.assertFalse(paramValue);
     }
+
+    @Test
+    public void getValueAsEnum() {
+        Assertions.assertEquals(Environment.PROD, StringToClassUtils.getValue("prod", Environment.class));
+        Assertions.assertEquals(AppLang.FRENCH, StringToClassUtils.getValue(" French ", AppLang.class));
+        Assertions.assertEquals(AppLang.FRENCH, StringToClassUtils.getValue("FRENCH", AppLang.class.getName()));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> StringToClassUtils.getValue("KLINGON", AppLang.class));
+    }
+
+    @Test
+    public void getValueAsOtherTypes() {
+        Assertions.assertEquals(12_345_678_901L, StringToClassUtils.getValue("12345678901", Long.class));
+        Assertions.assertEquals(new BigDecimal("19.99"), StringToClassUtils.getValue("19.99", "java.math.BigDecimal"));
+        Assertions.assertEquals(Duration.ofMinutes(5), StringToClassUtils.getValue("PT5M", Duration.class));
+        Assertions.assertEquals(Duration.ofSeconds(30), StringToClassUtils.getValue("30", Duration.class));
+    }
+
+    @Test
+    public void getValueAsList() {
+        Assertions.assertEquals(List.of(1, 2, 3), StringToClassUtils.getValue(" 1, 2,,3 ", "java.util.List<java.lang.Integer>"));
+        Assertions.assertEquals(List.of(Environment.DEV, Environment.PROD), StringToClassUtils.getValues("dev,prod", Environment.class));
+        Assertions.assertTrue(StringToClassUtils.getValues(" ", String.class).isEmpty());
+    }
+
+    @Test
+    public void resolutionFailures() throws ClassNotFoundException {
+        Assertions.assertSame(Integer.class, StringToClassUtils.forName("java.lang.Integer"));
+        // Failures are cached, but still reported on each call
+        for (int i = 0; i < 2; i++) {
+            Assertions.assertThrows(ClassNotFoundException.class, () -> StringToClassUtils.forName("java.lang.Unknown"));
+            Assertions.assertThrows(ClassCastException.class, () -> StringToClassUtils.getValue("1", "java.lang.Unknown"));
+            Assertions.assertThrows(IllegalStateException.class, () -> StringToClassUtils.getValue("1", "java.lang.Thread"));
+        }
+    }
+
+    @Test
+    public void registerConverter() {
+        Assertions.assertThrows(IllegalStateException.class, () -> StringToClassUtils.getValue("en", "java.util.Locale"));
+        StringToClassUtils.registerConverter(Locale.class, Locale::forLanguageTag);
+        Assertions.assertEquals(Locale.ENGLISH, StringToClassUtils.getValue("en", "java.util.Locale"));
+    }
 }
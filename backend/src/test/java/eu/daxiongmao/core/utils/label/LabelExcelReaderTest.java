@@ -2,6 +2,7 @@ package eu.daxiongmao.core.utils.label;
 
 
 import eu.daxiongmao.core.model.db.Label;
+import eu.daxiongmao.core.model.enums.AppLang;
 import lombok.extern.log4j.Log4j2;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
@@ -9,8 +10,14 @@ import org.junit.platform.commons.util.StringUtils;
 
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.stream.Collectors;
 
 /**
  * Excel file parser test
@@ -68,6 +75,53 @@ public class LabelExcelReaderTest {
         Assertions.assertEquals(0, labels.get().size());
     }
 
+    @Test
+    public void streamExcelFiles() {
+        for (String fileName : List.of("labels_with_many_tabs.xlsx", "labels_with_many_tabs_alt.xlsx", "labels_single_tab.xlsx",
+                "labels_with_missing_columns_and_rows.xlsx")) {
+            final Path excelFile = Paths.get("src","test","resources", "labels", fileName);
+            final List<List<Label>> chunks = new ArrayList<>();
+            final Optional<Long> nbOfLabels = excelUtils.importLabelsFromFile(excelFile, 10, chunks::add);
+            Assertions.assertTrue(nbOfLabels.isPresent());
+
+            // Chunks are bounded, same content as the in-memory import
+            final Set<Label> streamedLabels = new HashSet<>();
+            chunks.forEach((chunk) -> {
+                Assertions.assertTrue(chunk.size() <= 10);
+                streamedLabels.addAll(chunk);
+            });
+            Assertions.assertEquals(nbOfLabels.get().longValue(), chunks.stream().mapToInt(List::size).sum());
+            final Map<String, Label> expectedLabels = new HashMap<>();
+            excelUtils.importLabelsFromFile(excelFile).orElseThrow().forEach((label) -> expectedLabels.put(label.getCode(), label));
+            Assertions.assertEquals(expectedLabels.keySet(), streamedLabels.stream().map(Label::getCode).collect(Collectors.toSet()));
+            for (Label streamedLabel : streamedLabels) {
+                final Label expectedLabel = expectedLabels.get(streamedLabel.getCode());
+                for (AppLang lang : AppLang.values()) {
+                    Assertions.assertEquals(expectedLabel.getLang(lang), streamedLabel.getLang(lang), fileName + " | " + streamedLabel.getCode());
+                }
+            }
+        }
+    }
+
+    @Test
+    public void streamConsumerFailure() {
+        // Consumer failures are not file failures: they are given back as they are
+        final Path excelFile = Paths.get("src","test","resources", "labels", "labels_single_tab.xlsx");
+        final IllegalStateException failure = new IllegalStateException("test");
+        final IllegalStateException thrown = Assertions.assertThrows(IllegalStateException.class,
+                () -> excelUtils.importLabelsFromFile(excelFile, 1, (chunk) -> {
+                    throw failure;
+                }));
+        Assertions.assertSame(failure, thrown);
+    }
+
+    @Test
+    public void streamUnknownFiles() {
+        Assertions.assertTrue(excelUtils.importLabelsFromFile(null, 10, (chunk) -> Assertions.fail("No label expected")).isEmpty());
+        final Path excelFile = Paths.get("src","moon","resources", "good_labels.xlsx");
+        Assertions.assertTrue(excelUtils.importLabelsFromFile(excelFile, 10, (chunk) -> Assertions.fail("No label expected")).isEmpty());
+    }
+
     @Test
     public void parseUnknownFiles() {
         Optional<Set<Label>> labels = excelUtils.importLabelsFromFile(null);
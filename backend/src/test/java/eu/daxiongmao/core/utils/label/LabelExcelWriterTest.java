@@ -8,12 +8,17 @@ import org.apache.commons.lang3.StringUtils;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 
+import java.io.ByteArrayOutputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
+import java.util.stream.Collectors;
 
 /**
  * Excel file writer test
@@ -46,6 +51,32 @@ public class LabelExcelWriterTest {
         }
     }
 
+    @Test
+    public void streamContent() throws Exception {
+        // Pages of 10 labels, sorted by code
+        final List<Label> labels = getTestData();
+        labels.sort(Comparator.comparing(Label::getCode));
+        final List<String> requestedPages = new ArrayList<>();
+        final ByteArrayOutputStream output = new ByteArrayOutputStream();
+        final long nbOfLabels = excelWriter.exportLabels((lastCode) -> {
+            requestedPages.add(lastCode);
+            return labels.stream().filter((label) -> lastCode == null || label.getCode().compareTo(lastCode) > 0).limit(10).collect(Collectors.toList());
+        }, output);
+        Assertions.assertEquals(labels.size(), nbOfLabels);
+        Assertions.assertEquals(Arrays.asList(null, labels.get(9).getCode(), labels.get(19).getCode(), labels.get(labels.size() - 1).getCode()), requestedPages);
+
+        // Read test content
+        final Path tempFile = Files.createTempFile("labels", ".xlsx");
+        try {
+            Files.write(tempFile, output.toByteArray());
+            final Optional<Set<Label>> labelsFromFile = excelReader.importLabelsFromFile(tempFile);
+            Assertions.assertTrue(labelsFromFile.isPresent());
+            Assertions.assertEquals(new HashSet<>(labels), labelsFromFile.get());
+        } finally {
+            Files.delete(tempFile);
+        }
+    }
+
     @Test
     public void writeContentErrors() {
         // write test content